@@ -0,0 +1,78 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks;
+
+import com.telenav.lexakai.dependencies.DependencyTree;
+import com.telenav.lexakai.dependencies.MavenDependencyTreeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
+
+/**
+ * Measures parsing the output of <i>mvn -DoutputType=tgf dependency:tree</i> for the fixture project, without running
+ * Maven. Setup fails if the output doesn't parse into a tree, so the benchmark can't time a parser that finds nothing.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DependencyTreeBenchmark
+{
+    /** Builder for the fixture's dependency trees */
+    private MavenDependencyTreeBuilder builder;
+
+    /** Output of mvn dependency:tree, captured from the fixture project */
+    private String output;
+
+    @Setup
+    public void setup(LexakaiFixture fixture) throws IOException
+    {
+        builder = new MavenDependencyTreeBuilder(fixture.root());
+        try (var in = ensureNotNull(DependencyTreeBenchmark.class.getResourceAsStream("dependency-tree.tgf"), "Missing dependency-tree.tgf"))
+        {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        ensure(!builder.trees(output).isEmpty(), "No dependency trees in dependency-tree.tgf");
+    }
+
+    @Benchmark
+    public Set<DependencyTree> trees()
+    {
+        return builder.trees(output);
+    }
+}
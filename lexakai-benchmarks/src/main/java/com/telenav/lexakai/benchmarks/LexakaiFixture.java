@@ -0,0 +1,261 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.type.Type;
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.kivakit.filesystem.Folder;
+import com.telenav.lexakai.Lexakai;
+import com.telenav.lexakai.LexakaiClassDiagram;
+import com.telenav.lexakai.LexakaiProject;
+import com.telenav.lexakai.members.UmlMethod;
+import com.telenav.lexakai.metrics.RunMetrics;
+import com.telenav.lexakai.parsing.CompilationUnitStore;
+import com.telenav.lexakai.parsing.PackageIndex;
+import com.telenav.lexakai.parsing.ParserPool;
+import com.telenav.lexakai.parsing.ScopedTypeSolvers;
+import com.telenav.lexakai.parsing.TypeResolver;
+import com.telenav.lexakai.types.UmlType;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.github.javaparser.ParserConfiguration.LanguageLevel.JAVA_17;
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
+
+/**
+ * A small Maven project, copied from this package to a temporary folder, that benchmarks work on.
+ *
+ * <p><b>Setup</b></p>
+ *
+ * <p>
+ * Lexakai is run once on the fixture, without rendering SVG files, building dependency diagrams, running Maven to
+ * scope resolution or updating README files, so the project, its diagram and its types are created and parsed exactly
+ * as they are in a real run. The fixture's package diagram and its <i>Polygon</i> class are then available to
+ * benchmarks. Since projects only keep models of their types, <i>Polygon.java</i> is parsed again with a resolver for
+ * the fixture's source folder, so that a field type that resolves to a type in the fixture and one that does not
+ * resolve are available too.
+ * </p>
+ *
+ * <p><b>Caching</b></p>
+ *
+ * <p>
+ * Types and diagrams cache what they compute, like the UML for a type, so benchmarks that measure that work should
+ * use a new diagram from {@link #newDiagram()} for each invocation. In the same way, type nodes keep their names and
+ * resolvers remember what types resolved to, so benchmarks that measure naming or resolution should use a new
+ * <i>Polygon</i> class from {@link #newPolygon()} for each invocation.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Benchmark)
+public class LexakaiFixture extends BaseComponent
+{
+    /** The files in the fixture project */
+    private static final List<String> FILES = List.of(
+            "pom.xml",
+            "documentation/lexakai/lexakai.settings",
+            "documentation/lexakai/projects/lexakai-fixture.properties",
+            "src/main/java/com/telenav/lexakai/fixture/BaseShape.java",
+            "src/main/java/com/telenav/lexakai/fixture/Point.java",
+            "src/main/java/com/telenav/lexakai/fixture/Polygon.java",
+            "src/main/java/com/telenav/lexakai/fixture/Rectangle.java",
+            "src/main/java/com/telenav/lexakai/fixture/Shape.java");
+
+    /** The diagram of the fixture's package */
+    private LexakaiClassDiagram diagram;
+
+    /** The methods of the Polygon class that are included in the diagram */
+    private List<UmlMethod> methods;
+
+    /** The configuration that the fixture's source files are parsed with */
+    private ParserConfiguration configuration;
+
+    /** The Polygon class */
+    private UmlType polygon;
+
+    /** The fixture project */
+    private LexakaiProject project;
+
+    /** A field type that resolves to a class in the fixture */
+    private Type resolvableType;
+
+    /** The temporary folder holding the fixture */
+    private Path root;
+
+    /** The solvers for the fixture's source folder */
+    private ScopedTypeSolvers solvers;
+
+    /** A field type that the symbol solver can't resolve */
+    private Type unresolvableType;
+
+    public LexakaiClassDiagram diagram()
+    {
+        return diagram;
+    }
+
+    public List<UmlMethod> methods()
+    {
+        return methods;
+    }
+
+    /**
+     * Returns a new copy of the fixture's package diagram, with new types, so nothing in it has been computed yet
+     */
+    public LexakaiClassDiagram newDiagram()
+    {
+        var copy = project.listenTo(new LexakaiClassDiagram(project, diagram.name()));
+        for (var type : diagram.includedQualifiedTypes())
+        {
+            copy.include(new UmlType(copy, type.type()));
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the Polygon class, parsed again with a new resolver that hasn't remembered anything, so none of its types
+     * have been named or resolved yet
+     */
+    public ClassOrInterfaceDeclaration newPolygon() throws IOException
+    {
+        // Parse the file without the store, so its nodes are new, and attach a new resolver to it.
+        var path = sourceFile("Polygon.java").asJavaFile().toPath();
+        var unit = new JavaParser(configuration).parse(path).getResult().orElseThrow();
+        new TypeResolver(solvers, new RunMetrics(false)).attach(unit);
+        return unit.findFirst(ClassOrInterfaceDeclaration.class).orElseThrow();
+    }
+
+    public UmlType polygon()
+    {
+        return polygon;
+    }
+
+    public LexakaiProject project()
+    {
+        return project;
+    }
+
+    public Type resolvableType()
+    {
+        return resolvableType;
+    }
+
+    public Folder root()
+    {
+        return Folder.folder(root);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        // Copy the fixture project to a temporary folder,
+        root = Files.createTempDirectory("lexakai-benchmark-");
+        for (var name : FILES)
+        {
+            var target = root.resolve(name);
+            Files.createDirectories(target.getParent());
+            try (var in = ensureNotNull(LexakaiFixture.class.getResourceAsStream("fixture/" + name), "Missing fixture file: $", name))
+            {
+                Files.copy(in, target);
+            }
+        }
+
+        // run Lexakai on it, so the project and its diagrams are built as they are in a real run,
+        var result = new Lexakai().run(new String[]
+                {
+                        "-create-svg-files=false",
+                        "-create-dependency-diagrams=false",
+                        "-dependency-scoped-resolution=false",
+                        "-update-readme=false",
+                        "-incremental=false",
+                        "-output-folder=" + root.resolve("documentation/lexakai/output"),
+                        root.toString()
+                });
+        ensure(result.succeeded(), "Lexakai failed on benchmark fixture: $", result.messages().join("\n"));
+
+        // get the project and its package diagram,
+        project = ensureNotNull(Lexakai.get().project(Folder.folder(root).absolute()), "No fixture project");
+        project.diagrams(at -> diagram = at);
+        ensureNotNull(diagram, "No fixture diagram");
+
+        // find the Polygon class and its methods,
+        polygon = diagram.includedQualifiedTypes()
+                .stream()
+                .filter(type -> type.simpleName().equals("Polygon"))
+                .findFirst()
+                .orElseThrow();
+        methods = polygon.includedMethods();
+
+        // then parse it again with a resolver for the fixture's source folder,
+        var sourceFolder = root.resolve("src/main/java");
+        configuration = new ParserConfiguration();
+        configuration.setLanguageLevel(JAVA_17);
+        var units = new CompilationUnitStore();
+        var metrics = new RunMetrics(false);
+        var index = new PackageIndex(this, List.of(sourceFolder), root.resolve("packages.index"));
+        solvers = new ScopedTypeSolvers(units, configuration, index);
+        configuration.setSymbolResolver(solvers.defaultScope(List.of(sourceFolder)).symbolResolver());
+        var parsers = new ParserPool(configuration, 1, false, new TypeResolver(solvers, metrics), units, metrics);
+        var unit = parsers.parse(sourceFile("Polygon.java")).getResult().orElseThrow();
+        parsers.close();
+
+        // and get the types of its 'start' and 'label' fields, which are a Point and a String.
+        var declaration = unit.findFirst(ClassOrInterfaceDeclaration.class).orElseThrow();
+        resolvableType = declaration.getFieldByName("start").orElseThrow().getElementType();
+        unresolvableType = declaration.getFieldByName("label").orElseThrow().getElementType();
+    }
+
+    /**
+     * Returns the given file in the fixture project
+     */
+    public File sourceFile(String name)
+    {
+        return File.file(this, root.resolve("src/main/java/com/telenav/lexakai/fixture").resolve(name).toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        try (var paths = Files.walk(root))
+        {
+            for (var path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public Type unresolvableType()
+    {
+        return unresolvableType;
+    }
+}
@@ -0,0 +1,106 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks;
+
+import com.telenav.lexakai.builders.grouper.MethodGroupClassifier;
+import com.telenav.lexakai.builders.grouper.MethodGroupNameGuesser;
+import com.telenav.lexakai.builders.grouper.MethodGrouper;
+import com.telenav.lexakai.builders.grouper.MethodGroups;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures guessing the group names of each method in the fixture's <i>Polygon</i> class, and grouping all of its
+ * methods
+ *
+ * <p>
+ * The project's {@link MethodGroupClassifier} remembers the group names of each signature, so after the first
+ * invocation {@link #groupNames(LexakaiFixture, Blackhole)} measures finding remembered signatures, which is what most
+ * methods in a large codebase cost. {@link #classify(Blackhole)} measures matching the same signatures against the
+ * keyword index and group patterns each time, which is what a new signature costs.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodGroupingBenchmark
+{
+    /** Classifier with the default group patterns */
+    private MethodGroupClassifier classifier;
+
+    /** Guesser with the default group patterns */
+    private MethodGroupNameGuesser guesser;
+
+    /** The signature of each method in the fixture's Polygon class */
+    private List<String> signatures;
+
+    @Benchmark
+    public void classify(Blackhole blackhole)
+    {
+        for (var signature : signatures)
+        {
+            blackhole.consume(classifier.classify(signature));
+        }
+    }
+
+    @Benchmark
+    public void groupNames(LexakaiFixture fixture, Blackhole blackhole)
+    {
+        for (var method : fixture.methods())
+        {
+            blackhole.consume(guesser.groupNames(method));
+        }
+    }
+
+    @Benchmark
+    public MethodGroups groups(LexakaiFixture fixture)
+    {
+        return new MethodGrouper(fixture.polygon()).groups();
+    }
+
+    @Setup
+    public void setup(LexakaiFixture fixture)
+    {
+        classifier = fixture.project().methodGroupClassifier();
+        guesser = new MethodGroupNameGuesser(fixture.project());
+        signatures = new ArrayList<>();
+        for (var method : fixture.methods())
+        {
+            signatures.add(guesser.signature(method));
+        }
+    }
+}
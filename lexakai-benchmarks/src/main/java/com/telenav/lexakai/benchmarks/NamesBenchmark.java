@@ -0,0 +1,105 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks;
+
+import com.github.javaparser.ast.type.Type;
+import com.telenav.lexakai.library.Names;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.telenav.lexakai.library.Names.Qualification.QUALIFIED;
+import static com.telenav.lexakai.library.Names.TypeParameters.WITHOUT_TYPE_PARAMETERS;
+
+/**
+ * Measures {@link Names#name(Type, Names.Qualification, Names.TypeParameters)} for a type that the symbol solver
+ * resolves and for one that it can't resolve.
+ *
+ * <p>
+ * A type node keeps its name the first time it is asked for, and its resolver remembers what each type resolved to,
+ * so the <i>resolvable</i> and <i>unresolvable</i> benchmarks name the field types of a <i>Polygon</i> class that is
+ * parsed again, with a new resolver, before each invocation. The <i>named</i> benchmarks ask the fixture's types for
+ * their names again and again, which measures the names kept in the nodes.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NamesBenchmark
+{
+    /**
+     * The field types of a Polygon class that hasn't been named or resolved yet
+     */
+    @State(Scope.Thread)
+    public static class NewTypes
+    {
+        /** A field type that resolves to a class in the fixture */
+        Type resolvableType;
+
+        /** A field type that the symbol solver can't resolve */
+        Type unresolvableType;
+
+        @Setup(Level.Invocation)
+        public void setup(LexakaiFixture fixture) throws IOException
+        {
+            var polygon = fixture.newPolygon();
+            resolvableType = polygon.getFieldByName("start").orElseThrow().getElementType();
+            unresolvableType = polygon.getFieldByName("label").orElseThrow().getElementType();
+        }
+    }
+
+    @Benchmark
+    public String namedResolvableName(LexakaiFixture fixture)
+    {
+        return Names.name(fixture.resolvableType(), QUALIFIED, WITHOUT_TYPE_PARAMETERS);
+    }
+
+    @Benchmark
+    public String namedUnresolvableName(LexakaiFixture fixture)
+    {
+        return Names.name(fixture.unresolvableType(), QUALIFIED, WITHOUT_TYPE_PARAMETERS);
+    }
+
+    @Benchmark
+    public String resolvableName(NewTypes types)
+    {
+        return Names.name(types.resolvableType, QUALIFIED, WITHOUT_TYPE_PARAMETERS);
+    }
+
+    @Benchmark
+    public String unresolvableName(NewTypes types)
+    {
+        return Names.name(types.unresolvableType, QUALIFIED, WITHOUT_TYPE_PARAMETERS);
+    }
+}
@@ -0,0 +1,81 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks;
+
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.lexakai.metrics.RunMetrics;
+import com.telenav.lexakai.parsing.ParserPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.javaparser.ParserConfiguration.LanguageLevel.JAVA_17;
+
+/**
+ * Measures parsing of the fixture's <i>Polygon</i> class, with and without method bodies
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark
+{
+    /** True to remove method bodies before parsing */
+    @Param({ "false", "true" })
+    private boolean shallow;
+
+    /** The file to parse */
+    private File file;
+
+    /** Parsers with no cache, so every parse does all the work */
+    private ParserPool parsers;
+
+    @Benchmark
+    public ParseResult<CompilationUnit> parse() throws IOException
+    {
+        return parsers.parse(file);
+    }
+
+    @Setup
+    public void setup(LexakaiFixture fixture)
+    {
+        var configuration = new ParserConfiguration();
+        configuration.setLanguageLevel(JAVA_17);
+        parsers = new ParserPool(configuration, 1, shallow, null, null, new RunMetrics(false));
+        file = fixture.sourceFile("Polygon.java");
+    }
+}
@@ -0,0 +1,60 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks;
+
+import com.telenav.kivakit.core.string.IndentingStringBuilder;
+import com.telenav.lexakai.types.UmlType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures producing the UML for the fixture's <i>Polygon</i> class and for the whole diagram of the fixture's package.
+ * Each invocation uses a new diagram, since types cache their UML.
+ *
+ * @author jonathanl (shibo)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UmlBenchmark
+{
+    @Benchmark
+    public String diagramUml(LexakaiFixture fixture)
+    {
+        var builder = IndentingStringBuilder.defaultTextIndenter();
+        fixture.newDiagram().onUml(builder);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public String typeUml(LexakaiFixture fixture)
+    {
+        var diagram = fixture.newDiagram();
+        return new UmlType(diagram, fixture.polygon().type()).uml();
+    }
+}
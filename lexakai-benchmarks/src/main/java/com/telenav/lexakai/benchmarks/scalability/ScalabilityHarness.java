@@ -0,0 +1,354 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks.scalability;
+
+import com.telenav.kivakit.application.Application;
+import com.telenav.kivakit.commandline.SwitchParser;
+import com.telenav.kivakit.core.collections.list.ObjectList;
+import com.telenav.kivakit.core.collections.list.StringList;
+import com.telenav.kivakit.core.collections.set.ObjectSet;
+import com.telenav.kivakit.filesystem.Folder;
+import com.telenav.lexakai.metrics.Phase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Properties;
+
+import static com.telenav.kivakit.commandline.SwitchParsers.booleanSwitchParser;
+import static com.telenav.kivakit.commandline.SwitchParsers.doubleSwitchParser;
+import static com.telenav.kivakit.commandline.SwitchParsers.integerSwitchParser;
+import static com.telenav.kivakit.commandline.SwitchParsers.stringSwitchParser;
+import static com.telenav.kivakit.filesystem.Folders.folderSwitchParser;
+
+/**
+ * Generates {@link SyntheticCodebase}s of increasing size and runs Lexakai on each, reporting the time and peak heap
+ * of each run, so it can be seen whether discovery, parsing, diagram assembly and rendering scale linearly with the
+ * number of types.
+ *
+ * <p><b>Usage</b></p>
+ *
+ * <pre>
+ * java -cp lexakai-benchmarks/target/lexakai-benchmarks.jar \
+ *     com.telenav.lexakai.benchmarks.scalability.ScalabilityHarness -types=1000,10000,100000</pre>
+ *
+ * <p><b>Runs</b></p>
+ *
+ * <p>
+ * Each size gets a new tree, and Lexakai is run on it by {@link ScalabilityRun} in a child JVM with the maximum heap
+ * given by <i>-maximum-heap</i>, so runs don't share caches or heap. Dependency diagrams are not built, since they
+ * would run Maven, and SVG files are rendered in-process only if <i>-render=true</i>. Lexakai's output for each run
+ * is written to <i>lexakai.log</i> in the tree's folder.
+ * </p>
+ *
+ * <p><b>Report</b></p>
+ *
+ * <p>
+ * The report shows the elapsed time, time per thousand types and peak heap of each run, then the time per thousand
+ * types of each phase. If Lexakai scales linearly, the time per thousand types stays about the same as the size
+ * grows.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class ScalabilityHarness extends Application
+{
+    public static void main(String[] arguments)
+    {
+        new ScalabilityHarness().run(arguments);
+    }
+
+    private final SwitchParser<Double> DIAGRAM_DENSITY =
+            doubleSwitchParser(this, "diagram-density", "Fraction of types annotated with @UmlClassDiagram")
+                    .optional()
+                    .defaultValue(0.5)
+                    .build();
+
+    private final SwitchParser<Integer> INHERITANCE_DEPTH =
+            integerSwitchParser(this, "inheritance-depth", "The number of types in each inheritance chain")
+                    .optional()
+                    .defaultValue(3)
+                    .build();
+
+    private final SwitchParser<Boolean> KEEP =
+            booleanSwitchParser(this, "keep", "Keep generated trees after running Lexakai on them")
+                    .optional()
+                    .defaultValue(false)
+                    .build();
+
+    private final SwitchParser<String> MAXIMUM_HEAP =
+            stringSwitchParser(this, "maximum-heap", "The maximum heap size for Lexakai, as passed to -Xmx")
+                    .optional()
+                    .defaultValue("8g")
+                    .build();
+
+    private final SwitchParser<Double> METHOD_GROUP_DENSITY =
+            doubleSwitchParser(this, "method-group-density", "Fraction of methods annotated with @UmlMethodGroup")
+                    .optional()
+                    .defaultValue(0.1)
+                    .build();
+
+    private final SwitchParser<Integer> METHODS_PER_TYPE =
+            integerSwitchParser(this, "methods-per-type", "The number of methods in each type")
+                    .optional()
+                    .defaultValue(10)
+                    .build();
+
+    private final SwitchParser<Integer> PACKAGES_PER_MODULE =
+            integerSwitchParser(this, "packages-per-module", "The number of packages in each module")
+                    .optional()
+                    .defaultValue(10)
+                    .build();
+
+    private final SwitchParser<Double> RELATION_DENSITY =
+            doubleSwitchParser(this, "relation-density", "Fraction of methods annotated with @UmlRelation")
+                    .optional()
+                    .defaultValue(0.1)
+                    .build();
+
+    private final SwitchParser<Boolean> RENDER =
+            booleanSwitchParser(this, "render", "Render SVG files with the in-process renderer")
+                    .optional()
+                    .defaultValue(false)
+                    .build();
+
+    private final SwitchParser<String> TYPES =
+            stringSwitchParser(this, "types", "A comma-separated list of the total numbers of types to run Lexakai on")
+                    .optional()
+                    .defaultValue("1000,10000,100000")
+                    .build();
+
+    private final SwitchParser<Integer> TYPES_PER_PACKAGE =
+            integerSwitchParser(this, "types-per-package", "The number of types in each package")
+                    .optional()
+                    .defaultValue(20)
+                    .build();
+
+    private final SwitchParser<Folder> WORK_FOLDER =
+            folderSwitchParser(this, "work-folder", "Folder to generate trees in (default: a temporary folder)")
+                    .optional()
+                    .build();
+
+    @Override
+    public String description()
+    {
+        return "Runs Lexakai on synthetic codebases of increasing size and reports how its time and heap scale";
+    }
+
+    @Override
+    protected void onRun()
+    {
+        try
+        {
+            // Get the folder to work in,
+            var work = has(WORK_FOLDER)
+                    ? get(WORK_FOLDER).mkdirs().asJavaFile().toPath()
+                    : Files.createTempDirectory("lexakai-scalability-");
+
+            // then for each size,
+            var runs = new ObjectList<Run>();
+            for (var size : StringList.split(get(TYPES), ","))
+            {
+                // generate a tree and run Lexakai on it.
+                runs.add(run(work, Integer.parseInt(size.trim())));
+            }
+
+            // Finally, show how time and heap scaled.
+            report(runs);
+        }
+        catch (IOException | InterruptedException e)
+        {
+            problem(e, "Scalability run failed");
+        }
+    }
+
+    @Override
+    protected ObjectSet<SwitchParser<?>> switchParsers()
+    {
+        return ObjectSet.set(
+                DIAGRAM_DENSITY,
+                INHERITANCE_DEPTH,
+                KEEP,
+                MAXIMUM_HEAP,
+                METHOD_GROUP_DENSITY,
+                METHODS_PER_TYPE,
+                PACKAGES_PER_MODULE,
+                RELATION_DENSITY,
+                RENDER,
+                TYPES,
+                TYPES_PER_PACKAGE,
+                WORK_FOLDER);
+    }
+
+    /**
+     * Returns this JVM's class path with absolute entries, since Lexakai is run in the generated tree's folder
+     */
+    private String classPath()
+    {
+        var entries = new StringList();
+        for (var entry : StringList.split(System.getProperty("java.class.path"), File.pathSeparator))
+        {
+            entries.add(Path.of(entry).toAbsolutePath().toString());
+        }
+        return entries.join(File.pathSeparator);
+    }
+
+    private SyntheticCodebase codebase(int types)
+    {
+        var codebase = new SyntheticCodebase()
+                .packagesPerModule(get(PACKAGES_PER_MODULE))
+                .typesPerPackage(get(TYPES_PER_PACKAGE))
+                .methodsPerType(get(METHODS_PER_TYPE))
+                .inheritanceDepth(get(INHERITANCE_DEPTH))
+                .diagramDensity(get(DIAGRAM_DENSITY))
+                .relationDensity(get(RELATION_DENSITY))
+                .methodGroupDensity(get(METHOD_GROUP_DENSITY));
+        return codebase.modules(codebase.modulesFor(types));
+    }
+
+    private void delete(Path folder) throws IOException
+    {
+        if (Files.exists(folder))
+        {
+            try (var paths = Files.walk(folder))
+            {
+                for (var path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+                {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private void report(ObjectList<Run> runs)
+    {
+        // Show the totals for each run,
+        announce("");
+        announce(String.format("%12s %10s %14s %14s %14s", "Types", "Modules", "Elapsed ms", "ms/1k types", "Peak heap MB"));
+        for (var run : runs)
+        {
+            announce(String.format("%,12d %,10d %,14d %,14.1f %,14.1f", run.types, run.modules,
+                    run.milliseconds("elapsed-milliseconds"), run.perThousandTypes("elapsed-milliseconds"),
+                    run.milliseconds("peak-heap-bytes") / (1024.0 * 1024.0)));
+        }
+
+        // then the time per thousand types for each phase.
+        announce("");
+        var header = new StringBuilder(String.format("%-20s", "ms/1k types"));
+        runs.forEach(run -> header.append(String.format(" %,12d", run.types)));
+        announce(header.toString());
+        for (var phase : Phase.values())
+        {
+            var line = new StringBuilder(String.format("%-20s", phase.key()));
+            runs.forEach(run -> line.append(String.format(" %,12.1f", run.perThousandTypes("phase." + phase.key()))));
+            announce(line.toString());
+        }
+    }
+
+    private Run run(Path work, int types) throws IOException, InterruptedException
+    {
+        // Generate a new tree with the given number of types,
+        var codebase = codebase(types);
+        var root = work.resolve("types-" + codebase.types());
+        delete(root);
+        var start = System.nanoTime();
+        codebase.writeTo(root);
+        announce("Generated $ types in $ modules at $ in $ ms", codebase.types(), codebase.modulesFor(types), root,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+
+        // run Lexakai on it in a new JVM,
+        var results = root.resolve("scalability-run.properties");
+        var command = new StringList();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + get(MAXIMUM_HEAP));
+        command.add("-cp");
+        command.add(classPath());
+        command.add(ScalabilityRun.class.getName());
+        command.add(results.toString());
+        command.add("-create-dependency-diagrams=false");
+        command.add("-dependency-scoped-resolution=false");
+        command.add("-create-svg-files=" + get(RENDER));
+        if (get(RENDER))
+        {
+            command.add("-renderer=IN_PROCESS");
+        }
+        command.add("-output-folder=" + root.resolve("documentation/lexakai/output"));
+        command.add("-report-file=" + root.resolve("lexakai-report.json"));
+        command.add(root.toString());
+        var process = new ProcessBuilder(command)
+                .directory(root.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(root.resolve("lexakai.log").toFile())
+                .start();
+        var exit = process.waitFor();
+
+        // and read what it measured.
+        var run = new Run(codebase.types(), codebase.modulesFor(types));
+        if (exit == 0 && Files.exists(results))
+        {
+            try (var in = Files.newBufferedReader(results))
+            {
+                run.results.load(in);
+            }
+            announce("Ran Lexakai on $ types in $ ms", run.types, run.milliseconds("elapsed-milliseconds"));
+        }
+        else
+        {
+            problem("Lexakai failed on $ types (exit code $), see $", run.types, exit, root.resolve("lexakai.log"));
+        }
+
+        // Remove the tree unless the user wants to keep it.
+        if (!get(KEEP))
+        {
+            delete(root);
+        }
+        return run;
+    }
+
+    /**
+     * The results of running Lexakai on one tree
+     */
+    private static class Run
+    {
+        final int types;
+
+        final int modules;
+
+        final Properties results = new Properties();
+
+        Run(int types, int modules)
+        {
+            this.types = types;
+            this.modules = modules;
+        }
+
+        long milliseconds(String key)
+        {
+            return Long.parseLong(results.getProperty(key, "0"));
+        }
+
+        double perThousandTypes(String key)
+        {
+            return milliseconds(key) * 1000.0 / types;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks.scalability;
+
+import com.telenav.lexakai.Lexakai;
+import com.telenav.lexakai.metrics.Phase;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Runs Lexakai once in a fresh JVM for {@link ScalabilityHarness}, then writes what it measured to a properties file.
+ *
+ * <p><b>Usage</b></p>
+ *
+ * <p>
+ * The first argument is the properties file to write and the remaining arguments are passed to Lexakai. The file has
+ * the properties <i>succeeded</i>, <i>elapsed-milliseconds</i>, <i>peak-heap-bytes</i> and, for each {@link Phase},
+ * <i>phase.[key]</i> with the wall time of the phase in milliseconds.
+ * </p>
+ *
+ * <p><b>Peak Heap</b></p>
+ *
+ * <p>
+ * The peak heap is the sum of the peak usage of each heap memory pool. Pools can reach their peaks at different
+ * times, so this is an upper bound, but since each run has its own JVM, it's comparable between runs.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class ScalabilityRun
+{
+    public static void main(String[] arguments) throws IOException
+    {
+        // Run Lexakai,
+        var start = System.nanoTime();
+        var lexakai = new Lexakai();
+        var result = lexakai.run(Arrays.copyOfRange(arguments, 1, arguments.length));
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // write what was measured,
+        var results = new Properties();
+        results.setProperty("succeeded", Boolean.toString(result.succeeded()));
+        results.setProperty("elapsed-milliseconds", Long.toString(elapsed.toMillis()));
+        results.setProperty("peak-heap-bytes", Long.toString(peakHeap()));
+        for (var phase : Phase.values())
+        {
+            var wall = Duration.ofNanos(lexakai.metrics().metrics(phase).wallNanoseconds());
+            results.setProperty("phase." + phase.key(), Long.toString(wall.toMillis()));
+        }
+        try (var out = Files.newBufferedWriter(Path.of(arguments[0])))
+        {
+            results.store(out, "Lexakai scalability run");
+        }
+
+        // and exit, in case Lexakai left any threads running.
+        System.exit(result.succeeded() ? 0 : 1);
+    }
+
+    /**
+     * Returns the sum of the peak usage of each heap memory pool
+     */
+    private static long peakHeap()
+    {
+        long peak = 0;
+        for (var pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getType() == MemoryType.HEAP)
+            {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,393 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.benchmarks.scalability;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes a synthetic multi-module Maven tree of Java source code for Lexakai to document, so Lexakai can be run at
+ * the scale of a large proprietary codebase without its sources.
+ *
+ * <p><b>Shape</b></p>
+ *
+ * <p>
+ * The tree has a parent project with the configured number of modules. Each module has the configured number of
+ * packages, each with the configured number of public types, and each type has the configured number of methods. The
+ * types in a package form inheritance chains of the configured depth, with an abstract class at the head of each
+ * chain. Each type has a field referring to the next type in its package, and methods return other types in the
+ * package or JDK types, so both resolvable and unresolvable names are looked up.
+ * </p>
+ *
+ * <p><b>Annotations</b></p>
+ *
+ * <p>
+ * The densities are the fractions of types with a <i>@UmlClassDiagram</i> annotation, and of methods with
+ * <i>@UmlRelation</i> or <i>@UmlMethodGroup</i> annotations. Each package has its own diagram. The tree also has the
+ * Lexakai settings and project properties that Lexakai needs, so it can be documented without any other setup.
+ * </p>
+ *
+ * <p><b>Determinism</b></p>
+ *
+ * <p>
+ * Choices are made with a random number generator seeded with {@link #seed(long)}, so the same settings always
+ * produce the same tree.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class SyntheticCodebase
+{
+    /** The root package of generated code */
+    private static final String ROOT_PACKAGE = "com.telenav.synthetic";
+
+    /** Nouns that method names are made from */
+    private static final List<String> NOUNS = List.of("Name", "Size", "Value", "Identifier", "Parent", "Children",
+            "Location", "Style", "Owner", "Listener", "Timeout", "Limit", "Key", "Index", "Version", "Count");
+
+    /** Verbs that method names are made from */
+    private static final List<String> VERBS = List.of("get", "set", "add", "remove", "is", "has", "as", "to", "find",
+            "create", "update", "with", "load", "save", "clear", "copy");
+
+    /** JDK types that methods return, which can't be resolved from the source tree */
+    private static final List<String> JDK_TYPES = List.of("String", "int", "boolean", "List<String>",
+            "Map<String, Integer>");
+
+    /** Group names used for @UmlMethodGroup annotations */
+    private static final List<String> GROUPS = List.of("access", "collection", "conversion", "lifecycle", "naming",
+            "persistence");
+
+    /** Fraction of types that are annotated with @UmlClassDiagram */
+    private double diagramDensity = 0.5;
+
+    /** The number of types in each inheritance chain */
+    private int inheritanceDepth = 3;
+
+    /** Fraction of methods that are annotated with @UmlMethodGroup */
+    private double methodGroupDensity = 0.1;
+
+    /** The number of methods in each type */
+    private int methodsPerType = 10;
+
+    /** The number of modules under the parent project */
+    private int modules = 5;
+
+    /** The number of packages in each module */
+    private int packagesPerModule = 10;
+
+    /** Fraction of methods that are annotated with @UmlRelation */
+    private double relationDensity = 0.1;
+
+    /** Seed for choices made while generating */
+    private long seed = 42;
+
+    /** The number of types in each package */
+    private int typesPerPackage = 20;
+
+    /** Chooses names, return types and annotations */
+    private Random random;
+
+    public SyntheticCodebase diagramDensity(double density)
+    {
+        diagramDensity = density;
+        return this;
+    }
+
+    public SyntheticCodebase inheritanceDepth(int depth)
+    {
+        inheritanceDepth = Math.max(1, depth);
+        return this;
+    }
+
+    public SyntheticCodebase methodGroupDensity(double density)
+    {
+        methodGroupDensity = density;
+        return this;
+    }
+
+    public SyntheticCodebase methodsPerType(int methods)
+    {
+        methodsPerType = methods;
+        return this;
+    }
+
+    public SyntheticCodebase modules(int modules)
+    {
+        this.modules = Math.max(1, modules);
+        return this;
+    }
+
+    /**
+     * Returns the number of modules needed for the given total number of types, with the current number of packages
+     * per module and types per package
+     */
+    public int modulesFor(int types)
+    {
+        return Math.max(1, types / (packagesPerModule * typesPerPackage));
+    }
+
+    public SyntheticCodebase packagesPerModule(int packages)
+    {
+        packagesPerModule = Math.max(1, packages);
+        return this;
+    }
+
+    public SyntheticCodebase relationDensity(double density)
+    {
+        relationDensity = density;
+        return this;
+    }
+
+    public SyntheticCodebase seed(long seed)
+    {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Returns the total number of types in the tree
+     */
+    public int types()
+    {
+        return modules * packagesPerModule * typesPerPackage;
+    }
+
+    public SyntheticCodebase typesPerPackage(int types)
+    {
+        typesPerPackage = Math.max(1, types);
+        return this;
+    }
+
+    /**
+     * Writes the tree to the given folder
+     */
+    public void writeTo(Path root) throws IOException
+    {
+        random = new Random(seed);
+
+        // Write the parent project and the global Lexakai settings,
+        write(root.resolve("pom.xml"), parentPom());
+        write(root.resolve("documentation/lexakai/lexakai.settings"), settings());
+        write(root.resolve("documentation/lexakai/projects/synthetic.properties"), projectProperties("synthetic"));
+
+        // then for each module,
+        for (int module = 0; module < modules; module++)
+        {
+            // write its pom and project properties,
+            var artifactId = moduleArtifactId(module);
+            var moduleFolder = root.resolve(artifactId);
+            write(moduleFolder.resolve("pom.xml"), modulePom(artifactId));
+            write(root.resolve("documentation/lexakai/projects/" + artifactId + ".properties"), projectProperties(artifactId));
+
+            // and the source code for each package.
+            var sourceFolder = moduleFolder.resolve("src/main/java");
+            for (int at = 0; at < packagesPerModule; at++)
+            {
+                writePackage(sourceFolder, module, at);
+            }
+        }
+    }
+
+    private void appendMethod(StringBuilder java, int method)
+    {
+        // Choose a name and a return type for the method,
+        var verb = VERBS.get(random.nextInt(VERBS.size()));
+        var noun = NOUNS.get(random.nextInt(NOUNS.size()));
+        var returnsType = random.nextBoolean();
+        var returnType = returnsType ? typeName(random.nextInt(typesPerPackage)) : jdkType();
+
+        // annotate it if it's chosen to be,
+        java.append("\n");
+        java.append("    /**\n");
+        java.append("     * Synthetic method ").append(method).append("\n");
+        java.append("     */\n");
+        if (returnsType && random.nextDouble() < relationDensity)
+        {
+            java.append("    @UmlRelation(label = \"").append(verb).append(" ")
+                    .append(noun.toLowerCase()).append("\")\n");
+        }
+        if (random.nextDouble() < methodGroupDensity)
+        {
+            java.append("    @UmlMethodGroup(\"").append(GROUPS.get(random.nextInt(GROUPS.size()))).append("\")\n");
+        }
+
+        // and write it.
+        java.append("    public ").append(returnType).append(" ").append(verb).append(noun).append(method)
+                .append("(").append(random.nextBoolean() ? "" : "String name, int count").append(")\n");
+        java.append("    {\n");
+        java.append("        return ").append(defaultValue(returnType)).append(";\n");
+        java.append("    }\n");
+    }
+
+    private String defaultValue(String type)
+    {
+        switch (type)
+        {
+            case "int":
+                return "0";
+
+            case "boolean":
+                return "false";
+
+            default:
+                return "null";
+        }
+    }
+
+    private String diagramName(int module, int at)
+    {
+        return "DiagramModule" + module + "Package" + at;
+    }
+
+    private String jdkType()
+    {
+        return JDK_TYPES.get(random.nextInt(JDK_TYPES.size()));
+    }
+
+    private String moduleArtifactId(int module)
+    {
+        return String.format("synthetic-module-%04d", module);
+    }
+
+    private String modulePom(String artifactId)
+    {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <parent>\n"
+                + "        <groupId>com.telenav.synthetic</groupId>\n"
+                + "        <artifactId>synthetic</artifactId>\n"
+                + "        <version>1.0.0</version>\n"
+                + "    </parent>\n"
+                + "    <artifactId>" + artifactId + "</artifactId>\n"
+                + "</project>\n";
+    }
+
+    private String packageName(int module, int at)
+    {
+        return String.format("%s.m%04d.p%03d", ROOT_PACKAGE, module, at);
+    }
+
+    private String parentPom()
+    {
+        var pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("    <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("    <groupId>com.telenav.synthetic</groupId>\n");
+        pom.append("    <artifactId>synthetic</artifactId>\n");
+        pom.append("    <version>1.0.0</version>\n");
+        pom.append("    <packaging>pom</packaging>\n");
+        pom.append("    <modules>\n");
+        for (int module = 0; module < modules; module++)
+        {
+            pom.append("        <module>").append(moduleArtifactId(module)).append("</module>\n");
+        }
+        pom.append("    </modules>\n");
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    private String projectProperties(String artifactId)
+    {
+        return "project-title               = " + artifactId + " ${project-version}\n"
+                + "project-description         = Synthetic project for scalability testing\n"
+                + "project-icon                = logos/lexakai/lexakai-64\n";
+    }
+
+    private String settings()
+    {
+        return "lexakai-documentation-location = https://www.lexakai.org/${project-version}/lexakai\n"
+                + "lexakai-javadoc-location       = https://www.lexakai.org/${project-version}/javadoc\n"
+                + "lexakai-images-location        = https://telenav.github.io/telenav-assets/images\n";
+    }
+
+    private String type(int module, int at, int index)
+    {
+        var packageName = packageName(module, at);
+        var diagramName = diagramName(module, at);
+        var chainHead = index % inheritanceDepth == 0;
+        var annotated = random.nextDouble() < diagramDensity;
+
+        var java = new StringBuilder();
+        java.append("package ").append(packageName).append(";\n\n");
+        java.append("import com.telenav.lexakai.annotations.UmlClassDiagram;\n");
+        java.append("import com.telenav.lexakai.annotations.UmlMethodGroup;\n");
+        java.append("import com.telenav.lexakai.annotations.associations.UmlRelation;\n");
+        java.append("import ").append(packageName).append(".lexakai.diagrams.").append(diagramName).append(";\n\n");
+        java.append("import java.util.List;\n");
+        java.append("import java.util.Map;\n\n");
+        java.append("/**\n");
+        java.append(" * Synthetic type ").append(index).append(" in module ").append(module).append(", package ").append(at).append("\n");
+        java.append(" */\n");
+        if (annotated)
+        {
+            java.append("@UmlClassDiagram(diagram = ").append(diagramName).append(".class)\n");
+        }
+        java.append("public ").append(chainHead ? "abstract " : "").append("class ").append(typeName(index));
+        if (!chainHead)
+        {
+            java.append(" extends ").append(typeName(index - 1));
+        }
+        java.append("\n{\n");
+        java.append("    /** The next type in this package */\n");
+        java.append("    private ").append(typeName((index + 1) % typesPerPackage)).append(" next;\n");
+        for (int method = 0; method < methodsPerType; method++)
+        {
+            appendMethod(java, method);
+        }
+        java.append("}\n");
+        return java.toString();
+    }
+
+    private String typeName(int index)
+    {
+        return String.format("Type%04d", index);
+    }
+
+    private void write(Path file, String text) throws IOException
+    {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+    }
+
+    private void writePackage(Path sourceFolder, int module, int at) throws IOException
+    {
+        // Write the diagram identifier for the package,
+        var packageName = packageName(module, at);
+        var packageFolder = sourceFolder.resolve(packageName.replace('.', '/'));
+        var diagramName = diagramName(module, at);
+        write(packageFolder.resolve("lexakai/diagrams/" + diagramName + ".java"),
+                "package " + packageName + ".lexakai.diagrams;\n\n"
+                        + "import com.telenav.lexakai.annotations.diagrams.UmlDiagramIdentifier;\n\n"
+                        + "public class " + diagramName + " implements UmlDiagramIdentifier\n"
+                        + "{\n"
+                        + "}\n");
+
+        // then write each type.
+        for (int index = 0; index < typesPerPackage; index++)
+        {
+            write(packageFolder.resolve(typeName(index) + ".java"), type(module, at, index));
+        }
+    }
+}
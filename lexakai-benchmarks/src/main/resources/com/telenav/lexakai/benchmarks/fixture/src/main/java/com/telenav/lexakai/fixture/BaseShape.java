@@ -0,0 +1,53 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.fixture;
+
+/**
+ * Base class for shapes, which implements the operations that can be expressed in terms of others
+ *
+ * @author jonathanl (shibo)
+ */
+public abstract class BaseShape implements Shape
+{
+    /** The name of this shape */
+    private final String name;
+
+    protected BaseShape(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public boolean intersects(Shape that)
+    {
+        return bounds().intersects(that.bounds());
+    }
+
+    @Override
+    public String name()
+    {
+        return name;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " " + bounds();
+    }
+}
@@ -0,0 +1,148 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.fixture;
+
+import java.util.Objects;
+
+/**
+ * An immutable point on a plane
+ *
+ * @author jonathanl (shibo)
+ */
+public class Point implements Comparable<Point>
+{
+    /** The point at the origin */
+    public static final Point ORIGIN = new Point(0, 0);
+
+    /**
+     * Returns a point at the given coordinates
+     */
+    public static Point point(double x, double y)
+    {
+        return new Point(x, y);
+    }
+
+    /** The horizontal coordinate */
+    private final double x;
+
+    /** The vertical coordinate */
+    private final double y;
+
+    protected Point(double x, double y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the angle of the line from this point to the given point, in radians
+     */
+    public double angleTo(Point that)
+    {
+        return Math.atan2(that.y - y, that.x - x);
+    }
+
+    @Override
+    public int compareTo(Point that)
+    {
+        var compare = Double.compare(x, that.x);
+        return compare != 0 ? compare : Double.compare(y, that.y);
+    }
+
+    /**
+     * Returns the distance from this point to the given point
+     */
+    public double distanceTo(Point that)
+    {
+        return Math.hypot(that.x - x, that.y - y);
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof Point)
+        {
+            var that = (Point) object;
+            return x == that.x && y == that.y;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(x, y);
+    }
+
+    /**
+     * Returns true if this point is at the origin
+     */
+    public boolean isOrigin()
+    {
+        return equals(ORIGIN);
+    }
+
+    /**
+     * Returns the point halfway between this point and the given point
+     */
+    public Point midpoint(Point that)
+    {
+        return point((x + that.x) / 2, (y + that.y) / 2);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(" + x + ", " + y + ")";
+    }
+
+    /**
+     * Returns this point moved by the given offset
+     */
+    public Point translatedBy(double dx, double dy)
+    {
+        return point(x + dx, y + dy);
+    }
+
+    /**
+     * Returns this point with the given horizontal coordinate
+     */
+    public Point withX(double x)
+    {
+        return point(x, y);
+    }
+
+    /**
+     * Returns this point with the given vertical coordinate
+     */
+    public Point withY(double y)
+    {
+        return point(x, y);
+    }
+
+    public double x()
+    {
+        return x;
+    }
+
+    public double y()
+    {
+        return y;
+    }
+}
@@ -0,0 +1,437 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.fixture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A closed shape made of straight edges between a list of vertexes.
+ *
+ * <p><b>Construction</b></p>
+ *
+ * <p>
+ * Polygons are created with {@link #polygon(Point...)} or with a {@link Builder}. A polygon with fewer than three
+ * vertexes is not valid, but it can still be created and measured.
+ * </p>
+ *
+ * <p><b>Measurement</b></p>
+ *
+ * <p>
+ * The area of a polygon is found with the shoelace formula, which assumes that the polygon does not intersect itself.
+ * The perimeter is the sum of the lengths of the edges.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class Polygon extends BaseShape implements Iterable<Point>
+{
+    /**
+     * Returns a new builder for polygons
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Returns a polygon with the given vertexes
+     */
+    public static Polygon polygon(Point... vertexes)
+    {
+        return new Polygon("polygon", List.of(vertexes));
+    }
+
+    /**
+     * Builds polygons one vertex at a time
+     *
+     * @author jonathanl (shibo)
+     */
+    public static class Builder
+    {
+        /** The vertexes added so far */
+        private final List<Point> vertexes = new ArrayList<>();
+
+        /** The name of the polygon */
+        private String name = "polygon";
+
+        /**
+         * Adds the given vertex
+         */
+        public Builder add(Point vertex)
+        {
+            vertexes.add(vertex);
+            return this;
+        }
+
+        /**
+         * Adds the vertex at the given coordinates
+         */
+        public Builder add(double x, double y)
+        {
+            return add(Point.point(x, y));
+        }
+
+        /**
+         * Returns the polygon
+         */
+        public Polygon build()
+        {
+            return new Polygon(name, vertexes);
+        }
+
+        /**
+         * Sets the name of the polygon
+         */
+        public Builder withName(String name)
+        {
+            this.name = name;
+            return this;
+        }
+    }
+
+    /** The vertexes of this polygon, in order */
+    private final List<Point> vertexes;
+
+    /** The first vertex, or null if there are no vertexes */
+    private final Point start;
+
+    /** The smallest rectangle enclosing this polygon, computed when it's first needed */
+    private Rectangle bounds;
+
+    /** The label to draw on this polygon, or null for no label */
+    private String label;
+
+    /** The number of times this polygon has been drawn */
+    private int drawCount;
+
+    protected Polygon(String name, List<Point> vertexes)
+    {
+        super(name);
+        this.vertexes = new ArrayList<>(vertexes);
+        this.start = vertexes.isEmpty() ? null : vertexes.get(0);
+    }
+
+    /**
+     * Returns a copy of this polygon with the given vertex added to the end
+     */
+    public Polygon addVertex(Point vertex)
+    {
+        var vertexes = new ArrayList<>(this.vertexes);
+        vertexes.add(vertex);
+        return new Polygon(name(), vertexes);
+    }
+
+    @Override
+    public double area()
+    {
+        double sum = 0;
+        for (int i = 0; i < vertexes.size(); i++)
+        {
+            var a = vertexes.get(i);
+            var b = vertexes.get((i + 1) % vertexes.size());
+            sum += a.x() * b.y() - b.x() * a.y();
+        }
+        return Math.abs(sum) / 2;
+    }
+
+    /**
+     * Returns the vertexes of this polygon as an unmodifiable list
+     */
+    public List<Point> asList()
+    {
+        return Collections.unmodifiableList(vertexes);
+    }
+
+    @Override
+    public Rectangle bounds()
+    {
+        if (bounds == null && start != null)
+        {
+            var bounds = Rectangle.fromCorners(start, start);
+            for (var vertex : vertexes)
+            {
+                bounds = bounds.union(vertex);
+            }
+            this.bounds = bounds;
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns the average of the vertexes of this polygon
+     */
+    public Point centroid()
+    {
+        double x = 0;
+        double y = 0;
+        for (var vertex : vertexes)
+        {
+            x += vertex.x();
+            y += vertex.y();
+        }
+        return Point.point(x / vertexes.size(), y / vertexes.size());
+    }
+
+    @Override
+    public boolean contains(Point point)
+    {
+        var inside = false;
+        for (int i = 0, j = vertexes.size() - 1; i < vertexes.size(); j = i++)
+        {
+            var a = vertexes.get(i);
+            var b = vertexes.get(j);
+            if ((a.y() > point.y()) != (b.y() > point.y())
+                    && point.x() < (b.x() - a.x()) * (point.y() - a.y()) / (b.y() - a.y()) + a.x())
+            {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Returns the number of times this polygon has been drawn
+     */
+    public int drawCount()
+    {
+        return drawCount;
+    }
+
+    /**
+     * Draws this polygon by calling the given consumer with each vertex
+     */
+    public void drawTo(Consumer<Point> pen)
+    {
+        vertexes.forEach(pen);
+        if (start != null)
+        {
+            pen.accept(start);
+        }
+        drawCount++;
+    }
+
+    /**
+     * Calls the consumer with each edge of this polygon, as a two-vertex polygon
+     */
+    public void edges(Consumer<Polygon> consumer)
+    {
+        for (int i = 0; i < vertexes.size(); i++)
+        {
+            consumer.accept(polygon(vertexes.get(i), vertexes.get((i + 1) % vertexes.size())));
+        }
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof Polygon)
+        {
+            var that = (Polygon) object;
+            return vertexes.equals(that.vertexes);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a polygon with only the vertexes that match the given predicate
+     */
+    public Polygon filtered(Predicate<Point> predicate)
+    {
+        var matching = new ArrayList<Point>();
+        for (var vertex : vertexes)
+        {
+            if (predicate.test(vertex))
+            {
+                matching.add(vertex);
+            }
+        }
+        return new Polygon(name(), matching);
+    }
+
+    /**
+     * Returns the vertex at the given index
+     */
+    public Point get(int index)
+    {
+        return vertexes.get(index);
+    }
+
+    /**
+     * Returns the label of this polygon
+     */
+    public String getLabel()
+    {
+        return label;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(vertexes);
+    }
+
+    /**
+     * Returns true if this polygon has a label
+     */
+    public boolean hasLabel()
+    {
+        return label != null;
+    }
+
+    /**
+     * Returns true if every interior angle of this polygon is less than 180 degrees
+     */
+    public boolean isConvex()
+    {
+        var sign = 0;
+        for (int i = 0; i < vertexes.size(); i++)
+        {
+            var a = vertexes.get(i);
+            var b = vertexes.get((i + 1) % vertexes.size());
+            var c = vertexes.get((i + 2) % vertexes.size());
+            var cross = (b.x() - a.x()) * (c.y() - b.y()) - (b.y() - a.y()) * (c.x() - b.x());
+            var at = (int) Math.signum(cross);
+            if (at != 0)
+            {
+                if (sign != 0 && at != sign)
+                {
+                    return false;
+                }
+                sign = at;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if this polygon has no vertexes
+     */
+    public boolean isEmpty()
+    {
+        return vertexes.isEmpty();
+    }
+
+    /**
+     * Returns true if this polygon has at least three vertexes
+     */
+    public boolean isValid()
+    {
+        return vertexes.size() >= 3;
+    }
+
+    @Override
+    public Iterator<Point> iterator()
+    {
+        return asList().iterator();
+    }
+
+    @Override
+    public double perimeter()
+    {
+        double sum = 0;
+        for (int i = 0; i < vertexes.size(); i++)
+        {
+            sum += vertexes.get(i).distanceTo(vertexes.get((i + 1) % vertexes.size()));
+        }
+        return sum;
+    }
+
+    /**
+     * Returns a copy of this polygon without the vertex at the given index
+     */
+    public Polygon removeVertex(int index)
+    {
+        var vertexes = new ArrayList<>(this.vertexes);
+        vertexes.remove(index);
+        return new Polygon(name(), vertexes);
+    }
+
+    /**
+     * Returns this polygon with its vertexes in the opposite order
+     */
+    public Polygon reversed()
+    {
+        var vertexes = new ArrayList<>(this.vertexes);
+        Collections.reverse(vertexes);
+        return new Polygon(name(), vertexes);
+    }
+
+    /**
+     * Sets the label of this polygon
+     */
+    public void setLabel(String label)
+    {
+        this.label = label;
+    }
+
+    /**
+     * Returns the number of vertexes in this polygon
+     */
+    public int size()
+    {
+        return vertexes.size();
+    }
+
+    /**
+     * Returns the first vertex of this polygon
+     */
+    public Point start()
+    {
+        return start;
+    }
+
+    /**
+     * Returns the vertexes of this polygon as an array
+     */
+    public Point[] toArray()
+    {
+        return vertexes.toArray(new Point[0]);
+    }
+
+    @Override
+    public String toString()
+    {
+        return name() + " " + vertexes;
+    }
+
+    @Override
+    public Polygon translatedBy(double dx, double dy)
+    {
+        var translated = new ArrayList<Point>();
+        for (var vertex : vertexes)
+        {
+            translated.add(vertex.translatedBy(dx, dy));
+        }
+        return new Polygon(name(), translated);
+    }
+
+    /**
+     * Returns a copy of this polygon with the given name
+     */
+    public Polygon withName(String name)
+    {
+        return new Polygon(name, vertexes);
+    }
+}
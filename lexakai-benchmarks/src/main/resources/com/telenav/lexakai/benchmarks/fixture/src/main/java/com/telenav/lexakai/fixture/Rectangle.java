@@ -0,0 +1,120 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.fixture;
+
+/**
+ * An axis-aligned rectangle
+ *
+ * @author jonathanl (shibo)
+ */
+public class Rectangle extends BaseShape
+{
+    /**
+     * Returns the rectangle with the given corners
+     */
+    public static Rectangle fromCorners(Point topLeft, Point bottomRight)
+    {
+        return new Rectangle(topLeft, bottomRight);
+    }
+
+    /** The top left corner */
+    private final Point topLeft;
+
+    /** The bottom right corner */
+    private final Point bottomRight;
+
+    protected Rectangle(Point topLeft, Point bottomRight)
+    {
+        super("rectangle");
+        this.topLeft = topLeft;
+        this.bottomRight = bottomRight;
+    }
+
+    @Override
+    public double area()
+    {
+        return width() * height();
+    }
+
+    @Override
+    public Rectangle bounds()
+    {
+        return this;
+    }
+
+    public Point bottomRight()
+    {
+        return bottomRight;
+    }
+
+    public Point center()
+    {
+        return topLeft.midpoint(bottomRight);
+    }
+
+    @Override
+    public boolean contains(Point point)
+    {
+        return point.x() >= topLeft.x() && point.x() <= bottomRight.x()
+                && point.y() >= topLeft.y() && point.y() <= bottomRight.y();
+    }
+
+    public double height()
+    {
+        return bottomRight.y() - topLeft.y();
+    }
+
+    public boolean intersects(Rectangle that)
+    {
+        return topLeft.x() <= that.bottomRight.x() && bottomRight.x() >= that.topLeft.x()
+                && topLeft.y() <= that.bottomRight.y() && bottomRight.y() >= that.topLeft.y();
+    }
+
+    @Override
+    public double perimeter()
+    {
+        return 2 * (width() + height());
+    }
+
+    public Point topLeft()
+    {
+        return topLeft;
+    }
+
+    @Override
+    public Rectangle translatedBy(double dx, double dy)
+    {
+        return fromCorners(topLeft.translatedBy(dx, dy), bottomRight.translatedBy(dx, dy));
+    }
+
+    /**
+     * Returns the smallest rectangle enclosing this rectangle and the given point
+     */
+    public Rectangle union(Point point)
+    {
+        return fromCorners(
+                Point.point(Math.min(topLeft.x(), point.x()), Math.min(topLeft.y(), point.y())),
+                Point.point(Math.max(bottomRight.x(), point.x()), Math.max(bottomRight.y(), point.y())));
+    }
+
+    public double width()
+    {
+        return bottomRight.x() - topLeft.x();
+    }
+}
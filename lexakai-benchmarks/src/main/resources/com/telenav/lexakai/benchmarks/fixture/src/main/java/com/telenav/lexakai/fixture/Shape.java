@@ -0,0 +1,62 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.fixture;
+
+/**
+ * A shape that can be measured and drawn
+ *
+ * @author jonathanl (shibo)
+ */
+public interface Shape
+{
+    /**
+     * Returns the area of this shape
+     */
+    double area();
+
+    /**
+     * Returns the smallest rectangle enclosing this shape
+     */
+    Rectangle bounds();
+
+    /**
+     * Returns true if this shape contains the given point
+     */
+    boolean contains(Point point);
+
+    /**
+     * Returns true if this shape intersects the given shape
+     */
+    boolean intersects(Shape that);
+
+    /**
+     * Returns the name of this shape
+     */
+    String name();
+
+    /**
+     * Returns the length of the outline of this shape
+     */
+    double perimeter();
+
+    /**
+     * Returns this shape moved by the given offset
+     */
+    Shape translatedBy(double dx, double dy);
+}
@@ -18,53 +18,91 @@
 
 package com.telenav.lexakai;
 
-import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParserConfiguration;
-import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.telenav.kivakit.application.Application;
 import com.telenav.kivakit.commandline.ArgumentParser;
 import com.telenav.kivakit.commandline.SwitchParser;
 import com.telenav.kivakit.core.collections.list.ObjectList;
 import com.telenav.kivakit.core.collections.list.StringList;
 import com.telenav.kivakit.core.collections.set.ObjectSet;
-import com.telenav.kivakit.core.os.Processes;
 import com.telenav.kivakit.core.project.ProjectTrait;
 import com.telenav.kivakit.core.string.AsciiArt;
 import com.telenav.kivakit.core.string.IndentingStringBuilder;
-import com.telenav.kivakit.core.value.count.MutableCount;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.ConcurrentMutableCount;
 import com.telenav.kivakit.filesystem.File;
 import com.telenav.kivakit.filesystem.Folder;
 import com.telenav.kivakit.filesystem.Folder.Traversal;
-import com.telenav.kivakit.launcher.JarLauncher;
+import com.telenav.kivakit.interfaces.messaging.Transmittable;
 import com.telenav.kivakit.resource.CopyMode;
 import com.telenav.kivakit.resource.packages.PackageResource;
+import com.telenav.lexakai.cache.ContentCache;
+import com.telenav.lexakai.cache.ModelCache;
 import com.telenav.lexakai.dependencies.DependencyDiagram;
+import com.telenav.lexakai.dependencies.DependencyTree;
 import com.telenav.lexakai.dependencies.MavenDependencyTreeBuilder;
+import com.telenav.lexakai.incremental.DiagramFingerprints;
+import com.telenav.lexakai.incremental.SourceIndex;
+import com.telenav.lexakai.library.Hashes;
+import com.telenav.lexakai.library.OutputFiles;
+import com.telenav.lexakai.library.TypeName;
+import com.telenav.lexakai.metrics.RunMetrics;
+import com.telenav.lexakai.metrics.events.DiagramWriteEvent;
+import com.telenav.lexakai.metrics.events.Events;
+import com.telenav.lexakai.parsing.CompilationUnitStore;
+import com.telenav.lexakai.parsing.PackageIndex;
+import com.telenav.lexakai.parsing.ParserPool;
+import com.telenav.lexakai.parsing.ScopedTypeSolvers;
+import com.telenav.lexakai.parsing.TypeResolver;
 import com.telenav.lexakai.quality.CodeQualityAnalysis;
-
+import com.telenav.lexakai.rendering.CachingRenderer;
+import com.telenav.lexakai.rendering.ForkedRenderer;
+import com.telenav.lexakai.rendering.InProcessRenderer;
+import com.telenav.lexakai.rendering.RenderJob;
+import com.telenav.lexakai.rendering.RenderPipeline;
+import com.telenav.lexakai.rendering.Renderer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static com.github.javaparser.ParserConfiguration.LanguageLevel.JAVA_17;
 import static com.telenav.kivakit.commandline.SwitchParsers.booleanSwitchParser;
+import static com.telenav.kivakit.commandline.SwitchParsers.bytesSwitchParser;
 import static com.telenav.kivakit.commandline.SwitchParsers.enumSwitchParser;
+import static com.telenav.kivakit.commandline.SwitchParsers.integerSwitchParser;
 import static com.telenav.kivakit.commandline.SwitchParsers.stringSwitchParser;
 import static com.telenav.kivakit.core.collections.list.ObjectList.list;
 import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
+import static com.telenav.kivakit.core.value.count.Bytes.megabytes;
 import static com.telenav.kivakit.filesystem.Folder.parseFolder;
 import static com.telenav.kivakit.filesystem.Folders.folderArgumentParser;
+import static com.telenav.kivakit.filesystem.Files.fileSwitchParser;
 import static com.telenav.kivakit.filesystem.Folders.folderSwitchParser;
-import static com.telenav.kivakit.launcher.JarLauncher.ProcessType.CHILD;
-import static com.telenav.kivakit.launcher.JarLauncher.RedirectTo.CONSOLE;
 import static com.telenav.kivakit.resource.CopyMode.DO_NOT_OVERWRITE;
 import static com.telenav.kivakit.resource.CopyMode.UPDATE;
+import static com.telenav.lexakai.metrics.Phase.DEPENDENCY_TREES;
+import static com.telenav.lexakai.metrics.Phase.DISCOVERY;
+import static com.telenav.lexakai.metrics.Phase.PACKAGE_INDEXING;
+import static com.telenav.lexakai.metrics.Phase.README_UPDATE;
+import static com.telenav.lexakai.metrics.Phase.SVG_RENDERING;
+import static com.telenav.lexakai.metrics.Phase.UML_EMISSION;
 import static java.util.Collections.addAll;
 
 /**
@@ -102,14 +140,59 @@ public class Lexakai extends Application
     /** Map from project folder to project */
     private final HashMap<Folder, LexakaiProject> folderToProject = new HashMap<>();
 
-    /** Java parser for source code */
-    private JavaParser parser;
+    /** Folder for data cached between runs */
+    private Folder cacheFolder;
+
+    /** Cache of the models extracted from source files, or null if models are not cached */
+    private ModelCache modelCache;
+
+    /** Measurements of the phases of this run, which are only taken if a report is wanted */
+    private RunMetrics metrics = new RunMetrics(false);
+
+    /** Java parsers for source code */
+    private ParserPool parsers;
+
+    /** True if diagrams are rendered while later projects are being parsed */
+    private boolean pipelined;
+
+    /** Cache of rendered SVG files, or null if SVG files are not cached */
+    private ContentCache svgCache;
+
+    /** Renderer for SVG files, created when it's first needed */
+    private Renderer renderer;
+
+    /** Index of source files under all roots, for incremental builds and the model cache */
+    private SourceIndex sourceIndex;
+
+    /** Resolver for types in parsed source code, which remembers what each type resolved to */
+    private TypeResolver typeResolver;
+
+    /** Compilation units shared by the parsers and the type solvers */
+    private CompilationUnitStore units;
+
+    /** Type solvers for the source folders of projects */
+    private ScopedTypeSolvers solvers;
+
+    /** Index of the packages in the source folders of projects, saved between runs */
+    private PackageIndex packageIndex;
+
+    /** Maven dependency trees by root folder */
+    private final Map<Folder, Set<DependencyTree>> dependencyTrees = new HashMap<>();
 
     /** The total number of diagrams created */
-    private final MutableCount totalDiagrams = new MutableCount();
+    private final ConcurrentMutableCount totalDiagrams = new ConcurrentMutableCount();
+
+    /** The number of diagrams left as they were because nothing they depend on changed */
+    private final ConcurrentMutableCount unchangedDiagrams = new ConcurrentMutableCount();
+
+    /** The number of diagram files that were not written because their content was unchanged */
+    private final ConcurrentMutableCount unchangedFiles = new ConcurrentMutableCount();
 
-    /** All unique types that have been included in a project diagram */
-    private final Set<String> types = new HashSet<>();
+    /** The symbols of all unique types that have been included in a project diagram */
+    private final BitSet types = new BitSet();
+
+    /** Messages held back while the current thread outputs a project in parallel with others */
+    private final ThreadLocal<List<Transmittable>> heldMessages = new ThreadLocal<>();
 
     public SwitchParser<Boolean> ADD_HTML_ANCHORS =
             booleanSwitchParser(this, "add-html-anchors", "Add HTML anchor tags to markdown indexes")
@@ -123,6 +206,17 @@ public class Lexakai extends Application
                     .defaultValue(true)
                     .build();
 
+    public SwitchParser<Folder> CACHE_FOLDER =
+            folderSwitchParser(this, "cache-folder", "Folder for data cached between runs (default: .lexakai-cache in the output folder)")
+                    .optional()
+                    .build();
+
+    public SwitchParser<Boolean> CREATE_DEPENDENCY_DIAGRAMS =
+            booleanSwitchParser(this, "create-dependency-diagrams", "Build dependency diagrams from the output of mvn dependency:tree")
+                    .optional()
+                    .defaultValue(true)
+                    .build();
+
     public SwitchParser<Boolean> CREATE_PACKAGE_DIAGRAMS =
             booleanSwitchParser(this, "create-package-diagrams", "Build package diagrams for all public types")
                     .optional()
@@ -135,6 +229,12 @@ public class Lexakai extends Application
                     .defaultValue(true)
                     .build();
 
+    public SwitchParser<Boolean> DEPENDENCY_SCOPED_RESOLUTION =
+            booleanSwitchParser(this, "dependency-scoped-resolution", "Resolve types in each project only against the project and its Maven dependencies (runs mvn dependency:tree on each root folder)")
+                    .optional()
+                    .defaultValue(false)
+                    .build();
+
     public SwitchParser<String> EXCLUDE_PROJECTS =
             stringSwitchParser(this, "exclude-projects", "A comma-separated list of maven coordinates in the form projectId:groupId")
                     .optional()
@@ -152,12 +252,30 @@ public class Lexakai extends Application
                     .defaultValue(true)
                     .build();
 
+    public SwitchParser<Boolean> INCREMENTAL =
+            booleanSwitchParser(this, "incremental", "Only produce diagrams whose source code or settings changed since the last run")
+                    .optional()
+                    .defaultValue(false)
+                    .build();
+
     public SwitchParser<String> JAVADOC_SECTION_PATTERN =
             stringSwitchParser(this, "javadoc-section-pattern", "regular expression for extracting javadoc section titles")
                     .optional()
                     .defaultValue("<p><b>(.*)</b></p>")
                     .build();
 
+    public SwitchParser<Boolean> MODEL_CACHE =
+            booleanSwitchParser(this, "model-cache", "Cache the models extracted from source files between runs")
+                    .optional()
+                    .defaultValue(true)
+                    .build();
+
+    public SwitchParser<Bytes> MODEL_CACHE_MAXIMUM_SIZE =
+            bytesSwitchParser(this, "model-cache-maximum-size", "The maximum size of the model cache")
+                    .optional()
+                    .defaultValue(megabytes(256))
+                    .build();
+
     public SwitchParser<Folder> OUTPUT_FOLDER =
             folderSwitchParser(this, "output-folder", "Root folder of output")
                     .optional()
@@ -170,12 +288,53 @@ public class Lexakai extends Application
                     .defaultValue(false)
                     .build();
 
+    public SwitchParser<Integer> PARSER_THREADS =
+            integerSwitchParser(this, "parser-threads", "The number of threads to use when parsing source code")
+                    .optional()
+                    .defaultValue(Runtime.getRuntime().availableProcessors())
+                    .build();
+
+    public SwitchParser<Boolean> PIPELINE =
+            booleanSwitchParser(this, "pipeline", "Render diagrams while later projects are still being parsed (requires -renderer=IN_PROCESS)")
+                    .optional()
+                    .defaultValue(false)
+                    .build();
+
+    public SwitchParser<Integer> PROJECT_THREADS =
+            integerSwitchParser(this, "project-threads", "The number of projects to output diagrams for at the same time")
+                    .optional()
+                    .defaultValue(1)
+                    .build();
+
     public SwitchParser<Boolean> PRINT_DIAGRAMS_TO_CONSOLE =
             booleanSwitchParser(this, "console-output", "Print diagrams to the console")
                     .optional()
                     .defaultValue(false)
                     .build();
 
+    public SwitchParser<Renderer.Type> RENDERER =
+            enumSwitchParser(this, "renderer", "How to render SVG files with PlantUML, either FORKED or IN_PROCESS", Renderer.Type.class)
+                    .optional()
+                    .defaultValue(Renderer.Type.FORKED)
+                    .build();
+
+    public SwitchParser<Integer> RENDER_QUEUE_SIZE =
+            integerSwitchParser(this, "render-queue-size", "The maximum number of diagrams waiting to be rendered when pipelining")
+                    .optional()
+                    .defaultValue(64)
+                    .build();
+
+    public SwitchParser<Integer> RENDER_THREADS =
+            integerSwitchParser(this, "render-threads", "The number of threads to use when rendering SVG files in-process")
+                    .optional()
+                    .defaultValue(Runtime.getRuntime().availableProcessors())
+                    .build();
+
+    public SwitchParser<File> REPORT_FILE =
+            fileSwitchParser(this, "report-file", "File to write a JSON report of time spent in each phase to (phases are only measured if this is given)")
+                    .optional()
+                    .build();
+
     public ArgumentParser<Folder> ROOT_FOLDER =
             folderArgumentParser(this, "Root folder to start at when locating projects")
                     .oneOrMore()
@@ -187,6 +346,24 @@ public class Lexakai extends Application
                     .defaultValue(true)
                     .build();
 
+    public SwitchParser<Boolean> SHALLOW_PARSE =
+            booleanSwitchParser(this, "shallow-parse", "Parse only declarations, skipping method and initializer bodies")
+                    .optional()
+                    .defaultValue(true)
+                    .build();
+
+    public SwitchParser<Boolean> SVG_CACHE =
+            booleanSwitchParser(this, "svg-cache", "Cache rendered SVG files between runs")
+                    .optional()
+                    .defaultValue(true)
+                    .build();
+
+    public SwitchParser<Bytes> SVG_CACHE_MAXIMUM_SIZE =
+            bytesSwitchParser(this, "svg-cache-maximum-size", "The maximum size of the SVG cache")
+                    .optional()
+                    .defaultValue(megabytes(512))
+                    .build();
+
     public SwitchParser<Boolean> SHOW_DIAGRAMS =
             booleanSwitchParser(this, "show-diagrams", "Show created diagrams")
                     .optional()
@@ -233,16 +410,56 @@ public class Lexakai extends Application
         return variables.expand(template);
     }
 
+    /**
+     * Returns the measurements of the phases of this run
+     */
+    public RunMetrics metrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Returns the cache of the models extracted from source files, or null if models are not cached
+     */
+    public ModelCache modelCache()
+    {
+        return modelCache;
+    }
+
     public LexakaiProject project(Folder folder)
     {
         return folderToProject.get(folder);
     }
 
+    /**
+     * Returns the source folders that types in the given project resolve against, in the order they are searched
+     */
+    public List<Path> resolutionScope(LexakaiProject project)
+    {
+        return solvers.scope(project.folders().sourceCode().asJavaFile().toPath()).sourceFolders();
+    }
+
     public CopyMode resourceCopyMode()
     {
         return get(OVERWRITE_RESOURCES) ? UPDATE : DO_NOT_OVERWRITE;
     }
 
+    /**
+     * Holds back messages transmitted while a project is being output in parallel with other projects, so they can be
+     * shown in project order when the project is finished
+     */
+    @Override
+    public <M extends Transmittable> M transmit(M message)
+    {
+        var held = heldMessages.get();
+        if (held != null)
+        {
+            held.add(message);
+            return message;
+        }
+        return super.transmit(message);
+    }
+
     @Override
     protected ObjectList<ArgumentParser<?>> argumentParsers()
     {
@@ -252,6 +469,10 @@ public class Lexakai extends Application
     @Override
     protected void onRun()
     {
+        // Measure the phases of the run if the user wants a report, and forget names interned by any earlier run,
+        metrics = new RunMetrics(has(REPORT_FILE));
+        TypeName.clear();
+
         // get the root folders to locate projects from,
         var roots = commandLine().arguments(ROOT_FOLDER);
 
@@ -261,8 +482,23 @@ public class Lexakai extends Application
             addAll(exclusions, get(EXCLUDE_PROJECTS).split(","));
         }
 
-        // create a new Java parser for the root folders,
-        parser = newParser(roots);
+        // locate the cache folder, and the SVG cache if it's enabled,
+        cacheFolder = has(CACHE_FOLDER) ? get(CACHE_FOLDER) : outputRoot(roots.get(0).absolute()).folder(".lexakai-cache");
+        if (get(SVG_CACHE) && get(CREATE_SVG_FILES))
+        {
+            svgCache = listenTo(new ContentCache(cacheFolder.folder("svg"), get(SVG_CACHE_MAXIMUM_SIZE), "lexakai-svg"));
+        }
+
+        // decide whether to render diagrams in a pipeline, which needs an in-process renderer,
+        pipelined = get(PIPELINE) && get(CREATE_SVG_FILES);
+        if (pipelined && get(RENDERER) != Renderer.Type.IN_PROCESS)
+        {
+            warning("Pipelined rendering requires -renderer=IN_PROCESS, so diagrams will be rendered at the end");
+            pipelined = false;
+        }
+
+        // create new Java parsers for the root folders,
+        parsers = newParsers(roots);
 
         // and for each root folder,
         for (var root : roots)
@@ -270,6 +506,28 @@ public class Lexakai extends Application
             // build documentation.
             buildDocumentation(root);
         }
+
+        parsers.close();
+        if (renderer != null)
+        {
+            renderer.close();
+        }
+
+        // then trim the SVG and model caches to their maximum sizes.
+        if (svgCache != null)
+        {
+            svgCache.trim();
+        }
+        if (modelCache != null)
+        {
+            modelCache.trim();
+        }
+
+        // Finally, write a report of where the time went, if the user wants one.
+        if (metrics.isEnabled())
+        {
+            saveReport();
+        }
     }
 
     @Override
@@ -278,34 +536,52 @@ public class Lexakai extends Application
         return ObjectSet.set(
                 ADD_HTML_ANCHORS,
                 AUTOMATIC_METHOD_GROUPS,
+                CACHE_FOLDER,
+                CREATE_DEPENDENCY_DIAGRAMS,
                 CREATE_PACKAGE_DIAGRAMS,
                 CREATE_SVG_FILES,
+                DEPENDENCY_SCOPED_RESOLUTION,
                 EXCLUDE_PROJECTS,
                 INCLUDE_OBJECT_METHODS,
                 INCLUDE_PROTECTED_METHODS,
+                INCREMENTAL,
                 JAVADOC_SECTION_PATTERN,
+                MODEL_CACHE,
+                MODEL_CACHE_MAXIMUM_SIZE,
                 OUTPUT_FOLDER,
                 OVERWRITE_RESOURCES,
+                PARSER_THREADS,
+                PIPELINE,
                 PRINT_DIAGRAMS_TO_CONSOLE,
+                PROJECT_THREADS,
+                RENDERER,
+                RENDER_QUEUE_SIZE,
+                RENDER_THREADS,
+                REPORT_FILE,
                 SAVE_DIAGRAMS,
+                SHALLOW_PARSE,
                 SHOW_DIAGRAMS,
                 SHOW_DIAGRAM_WARNINGS,
                 SHOW_CODE_QUALITY,
                 SHOW_CODE_QUALITY_WARNINGS,
+                SVG_CACHE,
+                SVG_CACHE_MAXIMUM_SIZE,
                 TRAVERSAL,
                 UPDATE_README);
     }
 
-    private Set<File> buildDependencyDiagrams(Folder root)
+    private void buildDependencyDiagrams(Folder root, Consumer<RenderJob> renderJobs)
     {
         // For each maven dependency tree under the root,
-        var files = new HashSet<File>();
-        for (var tree : listenTo(new MavenDependencyTreeBuilder(root)).trees())
+        for (var tree : dependencyTrees(root))
         {
-            // build and save a dependency diagram.
-            files.add(new DependencyDiagram(root, outputRoot(root.absolute()), tree).save());
+            // build and save a dependency diagram, rendering it only if it changed or has no SVG file.
+            var job = new DependencyDiagram(root, outputRoot(root.absolute()), tree).save();
+            if (job != null)
+            {
+                renderJobs.accept(job);
+            }
         }
-        return files;
     }
 
     private void buildDocumentation(Folder root)
@@ -313,9 +589,16 @@ public class Lexakai extends Application
         // Get the absolute root folder and project,
         var absoluteRoot = root.absolute();
 
-        // build a set of dependency diagrams,
-        var outputFiles = new ObjectList<File>();
-        outputFiles.addAll(buildDependencyDiagrams(absoluteRoot));
+        // create a pipeline to render diagrams as they are produced, or a list to render them at the end,
+        var pipeline = pipelined ? listenTo(new RenderPipeline(renderer(), get(RENDER_QUEUE_SIZE), metrics)) : null;
+        var renderJobs = new ObjectList<RenderJob>();
+        Consumer<RenderJob> render = pipeline != null ? pipeline::submit : renderJobs::add;
+
+        // build a set of dependency diagrams if the user wants them,
+        if (get(CREATE_DEPENDENCY_DIAGRAMS))
+        {
+            buildDependencyDiagrams(absoluteRoot, render);
+        }
 
         // create projects for folders under the root,
         projectFolders(absoluteRoot, at ->
@@ -328,15 +611,67 @@ public class Lexakai extends Application
         });
 
         // then for each project,
+        var projects = new ObjectList<LexakaiProject>();
         projectFolders(absoluteRoot, at ->
         {
-            // build UML diagrams.
             var project = project(at);
             if (project != null && !isExcluded(project))
             {
-                outputFiles.addAll(outputUmlDiagrams(project));
+                projects.add(project);
             }
         });
+        if (get(PROJECT_THREADS) > 1)
+        {
+            // build UML diagrams for several projects at once,
+            outputUmlDiagramsInParallel(projects, pipeline != null, render);
+        }
+        else
+        {
+            // or, if we're pipelining, get a thread to parse the next project on while diagrams are rendered,
+            var backgroundParser = pipeline != null ? Executors.newSingleThreadExecutor(runnable ->
+            {
+                var thread = new Thread(runnable, "lexakai-background-parser");
+                thread.setDaemon(true);
+                return thread;
+            }) : null;
+            try
+            {
+                CompletableFuture<Void> parsing = null;
+                for (int index = 0; index < projects.size(); index++)
+                {
+                    // wait for any background parse of this project to finish,
+                    var project = projects.get(index);
+                    if (parsing != null)
+                    {
+                        try
+                        {
+                            parsing.join();
+                        }
+                        catch (CompletionException e)
+                        {
+                            problem(e.getCause(), "Unable to parse $", project);
+                        }
+                        parsing = null;
+                    }
+
+                    // start parsing the next project in the background,
+                    if (backgroundParser != null && index + 1 < projects.size())
+                    {
+                        parsing = CompletableFuture.runAsync(projects.get(index + 1)::parse, backgroundParser);
+                    }
+
+                    // and build UML diagrams one project at a time.
+                    outputUmlDiagrams(project, render);
+                }
+            }
+            finally
+            {
+                if (backgroundParser != null)
+                {
+                    backgroundParser.shutdown();
+                }
+            }
+        }
 
         // Show detailed Javadoc coverage
         var rootProject = project(absoluteRoot);
@@ -360,11 +695,46 @@ public class Lexakai extends Application
             }
         }
 
-        // and summary.
+        // If we're pipelining, wait for the pipeline to finish rendering,
+        if (pipeline != null)
+        {
+            pipeline.finish();
+        }
+
+        // otherwise, if the user wants SVG output, and we have some .puml diagrams,
+        else if (get(CREATE_SVG_FILES) && !renderJobs.isEmpty())
+        {
+            // render those diagrams,
+            metrics.measure(SVG_RENDERING, () -> renderer().render(renderJobs));
+            metrics.count(SVG_RENDERING, renderJobs.size());
+        }
+
+        // and show a summary.
         var list = new StringList();
         list.add("Diagrams: $", totalDiagrams.get());
-        list.add("Types: $", types.size());
-        list.add("Types per Diagram: ${double}", (double) types.size() / totalDiagrams.get());
+        list.add("Types: $", typeCount());
+        list.add("Types per Diagram: ${double}", (double) typeCount() / totalDiagrams.get());
+        if (get(INCREMENTAL))
+        {
+            list.add("Unchanged Diagrams: $", unchangedDiagrams.get());
+        }
+        list.add("Unchanged Diagram Files: $", unchangedFiles.get());
+        if (svgCache != null)
+        {
+            list.add("SVG Cache: $", svgCache.statistics());
+        }
+        if (modelCache != null)
+        {
+            list.add("Model Cache: $", modelCache.statistics());
+        }
+        list.add("Compilation Units: $", units.statistics());
+        list.add("Package Index: $", packageIndex.statistics());
+        list.add("Type Solvers: $", solvers.statistics());
+        list.add("Symbol Resolution: $", typeResolver.statistics());
+        if (metrics.isEnabled())
+        {
+            list.add("Phases:\n\n$", metrics.summary().join("\n"));
+        }
         assert rootProject != null;
         list.add("Code Quality:\n\n$", rootProject.nestedProjectQuality()
                 .uniqued()
@@ -374,37 +744,28 @@ public class Lexakai extends Application
                 .join("\n"));
 
         announce(list.titledBox("Summary"));
+    }
 
-        // If the user wants SVG output, and we have some .puml diagrams,
-        if (get(CREATE_SVG_FILES) && !outputFiles.isEmpty())
+    /**
+     * Returns the Maven dependency trees under the given root, running Maven only the first time they are asked for
+     */
+    private Set<DependencyTree> dependencyTrees(Folder root)
+    {
+        return dependencyTrees.computeIfAbsent(root, ignored ->
         {
-            // then build those files.
-            buildSvgFiles(outputFiles);
-        }
+            var trees = metrics.measure(DEPENDENCY_TREES, () -> listenTo(new MavenDependencyTreeBuilder(root)).trees());
+            metrics.count(DEPENDENCY_TREES, trees.size());
+            return trees;
+        });
     }
 
-    private void buildSvgFiles(ObjectList<File> outputFiles)
+    /**
+     * Returns the file where fingerprints of the given project's diagrams are saved between runs
+     */
+    private Path fingerprintsFile(LexakaiProject project)
     {
-        // largely I/O bound, so use a larger multiple
-        var threads = Integer.toString(Runtime.getRuntime().availableProcessors() * 3);
-        var arguments = new StringList();
-        arguments.add("-Xmx4G");
-        arguments.add("-nbthread");
-        arguments.add(threads);
-        arguments.add("-progress");
-        arguments.add("-tsvg");
-        arguments.addAll(outputFiles.asStringList());
-
-        announce("Building SVG files with PlantUML (https://plantuml.com)...");
-        var process = listenTo(new JarLauncher()
-                .processType(CHILD)
-                .arguments(arguments))
-                .addJarSource(PackageResource.packageResource(this, getClass(), "plantuml.jar"))
-                .redirectTo(CONSOLE)
-                .run();
-
-        Processes.waitForTermination(process);
-        System.out.println();
+        var name = Hashes.sha256(project.folders().project().absolute().toString()).substring(0, 16) + ".fingerprints";
+        return cacheFolder.folder("diagrams").asJavaFile().toPath().resolve(name);
     }
 
     private boolean isExcluded(LexakaiProject project)
@@ -414,12 +775,28 @@ public class Lexakai extends Application
     }
 
     /**
-     * Returns a parser that can resolve symbols from all projects under all specified roots
+     * Returns true if the given diagram's fingerprint is unchanged and its output files exist
      */
-    private JavaParser newParser(List<Folder> roots)
+    private boolean isUnchanged(LexakaiClassDiagram diagram, DiagramFingerprints fingerprints)
     {
-        // Create type solver for all source folders under all roots
-        var solver = new CombinedTypeSolver();
+        var diagramFolder = diagram.project().folders().diagramOutput();
+        return diagramFolder.file(diagram.identifier() + ".puml").exists()
+                && (!get(CREATE_SVG_FILES) || diagramFolder.file(diagram.identifier() + ".svg").exists())
+                && fingerprints.isUnchanged(diagram);
+    }
+
+    /**
+     * Returns a pool of parsers that can resolve symbols from all projects under all specified roots
+     */
+    private ParserPool newParsers(List<Folder> roots)
+    {
+        // Create a store for compilation units, so the parsers and the type solvers parse each file only once,
+        var configuration = new ParserConfiguration();
+        configuration.setLanguageLevel(JAVA_17);
+        units = new CompilationUnitStore();
+
+        // then find the source folders of all projects under all roots,
+        var sourceFolders = new LinkedHashMap<Path, Path>();
         roots.forEach(root ->
                 projectFolders(root, at ->
                 {
@@ -428,16 +805,58 @@ public class Lexakai extends Application
                     {
                         if (at.folder("src/main/java").exists())
                         {
-                            solver.add(new JavaParserTypeSolver(at.folder("src/main/java").absolute().asJavaFile()));
+                            var sourceFolder = at.folder("src/main/java").absolute().asJavaFile().toPath();
+                            sourceFolders.put(at.absolute().asJavaFile().toPath().normalize(), sourceFolder);
                         }
                     }
                 }));
 
-        // and return a configured parser.
-        var configuration = new ParserConfiguration();
-        configuration.setLanguageLevel(JAVA_17);
-        configuration.setSymbolResolver(new JavaSymbolSolver(solver));
-        return new JavaParser(configuration);
+        // index the packages in them, so type lookups only go to source folders that could declare a type,
+        var folders = new ArrayList<>(sourceFolders.values());
+        var packageIndexFile = cacheFolder.file("packages.index").asJavaFile().toPath();
+        packageIndex = metrics.measure(PACKAGE_INDEXING, () -> new PackageIndex(this, folders, packageIndexFile));
+        metrics.count(PACKAGE_INDEXING, folders.size());
+
+        // and create type solvers, where each project sees all source folders,
+        solvers = new ScopedTypeSolvers(units, configuration, packageIndex);
+        var defaultScope = solvers.defaultScope(folders);
+
+        // unless it is scoped to its own source folder and those of its dependencies.
+        if (get(DEPENDENCY_SCOPED_RESOLUTION))
+        {
+            scopeToDependencies(roots, sourceFolders);
+        }
+
+        // Index the source folders if we're building incrementally or caching models,
+        if (get(INCREMENTAL) || get(MODEL_CACHE))
+        {
+            sourceIndex = new SourceIndex(folders);
+        }
+
+        // locate the model cache if it's enabled,
+        modelCache = get(MODEL_CACHE)
+                ? listenTo(new ModelCache(cacheFolder.folder("models"), get(MODEL_CACHE_MAXIMUM_SIZE),
+                version().toString(), configuration, get(SHALLOW_PARSE), sourceIndex))
+                : null;
+
+        // and return a pool of parsers, sharing thread-safe solvers.
+        configuration.setSymbolResolver(defaultScope.symbolResolver());
+        typeResolver = new TypeResolver(solvers, metrics);
+        return new ParserPool(configuration, get(PARSER_THREADS), get(SHALLOW_PARSE), typeResolver, units, metrics);
+    }
+
+    /**
+     * Outputs a single UML diagram, passing any diagram that needs to be rendered to the given consumer
+     */
+    private void outputUmlDiagram(LexakaiClassDiagram diagram, Consumer<RenderJob> renderJobs)
+    {
+        var job = metrics.measure(UML_EMISSION, () ->
+                Events.inDiagram(diagram.project().name(), diagram.identifier(), () -> outputUmlDiagram(diagram)));
+        metrics.count(UML_EMISSION, 1);
+        if (job != null)
+        {
+            renderJobs.accept(job);
+        }
     }
 
     private Folder outputRoot(Folder root)
@@ -447,8 +866,10 @@ public class Lexakai extends Application
 
     /**
      * Outputs a single UML diagram
+     *
+     * @return The diagram to render if it changed or has no SVG file, or null otherwise
      */
-    private File outputUmlDiagram(LexakaiClassDiagram diagram)
+    private RenderJob outputUmlDiagram(LexakaiClassDiagram diagram)
     {
         // Get the diagram name,
         var diagramName = diagram.identifier();
@@ -480,20 +901,28 @@ public class Lexakai extends Application
             // create an output file
             var outputFile = diagramFolder.file(diagramName + ".puml");
 
-            // and write the UML to it,
-            var output = outputFile.printWriter();
-            output.println(uml);
-            output.close();
-            return outputFile;
+            // and write the UML to it if it has changed,
+            var text = uml + System.lineSeparator();
+            var project = diagram.project().name();
+            var write = new DiagramWriteEvent(project);
+            if (Events.record(write, null, () -> write.changed(OutputFiles.saveIfChanged(outputFile, text))))
+            {
+                return new RenderJob(project, outputFile, text);
+            }
+
+            // otherwise leave the file alone and render it again only if it has no SVG file.
+            unchangedFiles.increment();
+            return OutputFiles.svgFile(outputFile).exists() ? null : new RenderJob(project, outputFile, text);
         }
 
         return null;
     }
 
     /**
-     * Parses source code under the project folder and outputs UML diagrams for that
+     * Parses source code under the project folder and outputs UML diagrams for that, passing any diagrams that need
+     * to be rendered to the given consumer
      */
-    private ObjectList<File> outputUmlDiagrams(LexakaiProject project)
+    private void outputUmlDiagrams(LexakaiProject project, Consumer<RenderJob> renderJobs)
     {
         // Create a UML project from the source files under the project folder,
         narrate("Project $", project.name());
@@ -505,38 +934,124 @@ public class Lexakai extends Application
         project.files().lexakaiTheme().safeCopyTo(project.folders().diagramOutput(), UPDATE);
 
         // If the project has source code,
-        var outputFiles = new ObjectList<File>();
         if (project.hasSourceCode())
         {
+            // load the fingerprints of diagrams from the last run if we're building incrementally,
+            var fingerprints = get(INCREMENTAL)
+                    ? listenTo(new DiagramFingerprints(project, fingerprintsFile(project), sourceIndex, version().toString(), resolutionScope(project)))
+                    : null;
+
             // then go through each diagram in the project,
             project.diagrams(diagram ->
             {
-                // output a UML diagram for it,
-                var outputFile = outputUmlDiagram(diagram);
-                if (outputFile != null)
+                // and if nothing the diagram depends on has changed,
+                if (fingerprints != null && isUnchanged(diagram, fingerprints))
+                {
+                    // leave it as it is,
+                    if (get(SHOW_DIAGRAMS))
+                    {
+                        narrate("    Diagram $ (unchanged)", diagram.name());
+                    }
+                    unchangedDiagrams.increment();
+                }
+                else if (fingerprints != null)
+                {
+                    // otherwise, output a UML diagram for it, and record what its types depend on,
+                    outputUmlDiagram(diagram, renderJobs);
+                    fingerprints.update(diagram, diagram.dependencies());
+                }
+                else
                 {
-                    outputFiles.add(outputFile);
+                    // or just output it if we're not building incrementally,
+                    outputUmlDiagram(diagram, renderJobs);
                 }
 
                 // add to statistics,
-                types.addAll(diagram.qualifiedTypeNames());
+                var symbols = diagram.qualifiedTypeSymbols();
+                synchronized (types)
+                {
+                    types.or(symbols);
+                }
                 totalDiagrams.increment();
             });
+
+            // and save the fingerprints for the next run.
+            if (fingerprints != null)
+            {
+                fingerprints.save();
+            }
         }
 
         // and update the README.md index.
         if (get(UPDATE_README))
         {
-            project.updateReadMe();
+            metrics.measure(README_UPDATE, project::updateReadMe);
+            metrics.count(README_UPDATE, 1);
         }
 
-        return outputFiles;
+    }
+
+    /**
+     * Outputs UML diagrams for the given projects on a work-stealing pool of threads. The messages from each project,
+     * and any diagrams to render if we're not pipelining, are held back and passed on in project order, so the
+     * console output is the same as when projects are output one at a time.
+     */
+    private void outputUmlDiagramsInParallel(List<LexakaiProject> projects,
+                                             boolean pipelined,
+                                             Consumer<RenderJob> renderJobs)
+    {
+        var pool = new ForkJoinPool(get(PROJECT_THREADS));
+        try
+        {
+            // Submit a task for each project,
+            var tasks = new ArrayList<ForkJoinTask<ProjectOutput>>();
+            for (var project : projects)
+            {
+                tasks.add(pool.submit(() ->
+                {
+                    // which holds back messages from this thread and from the project on any thread,
+                    var output = new ProjectOutput();
+                    heldMessages.set(output.messages);
+                    project.holdMessages(output.messages);
+                    try
+                    {
+                        // while it outputs the project's diagrams, sending them straight to any pipeline.
+                        outputUmlDiagrams(project, pipelined ? renderJobs : output.renderJobs::add);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        problem(e, "Unable to output diagrams for $", project);
+                    }
+                    finally
+                    {
+                        project.holdMessages(null);
+                        heldMessages.remove();
+                    }
+                    return output;
+                }));
+            }
+
+            // Then, in project order, wait for each task to finish,
+            for (var task : tasks)
+            {
+                // pass on its messages,
+                var output = task.join();
+                output.messages.forEach(super::transmit);
+
+                // and any diagrams it produced.
+                output.renderJobs.forEach(renderJobs);
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
     }
 
     private LexakaiProject project(Folder root,
                                    Folder projectFolder)
     {
-        var project = new LexakaiProject(this, root, projectFolder, outputRoot(root), parser);
+        var project = new LexakaiProject(this, root, projectFolder, outputRoot(root), parsers);
         if (project.initialize())
         {
             return listenTo(project)
@@ -545,6 +1060,7 @@ public class Lexakai extends Application
                     .includeProtectedMethods(get(INCLUDE_PROTECTED_METHODS))
                     .buildPackageDiagrams(get(CREATE_PACKAGE_DIAGRAMS))
                     .automaticMethodGroups(get(AUTOMATIC_METHOD_GROUPS))
+                    .incremental(get(INCREMENTAL))
                     .javadocSectionPattern(Pattern.compile(get(JAVADOC_SECTION_PATTERN)));
         }
         else
@@ -563,12 +1079,151 @@ public class Lexakai extends Application
         ensure(root.exists());
 
         // then find all the pom or gradle files from the root and return based on those, the set of project folders.
-        root.files(file -> file.fileName().name().matches("pom.xml|gradle.properties"), get(TRAVERSAL))
+        var folders = metrics.measure(DISCOVERY, () -> root.files(file -> file.fileName().name().matches("pom.xml|gradle.properties"), get(TRAVERSAL))
                 .stream()
                 .map(File::parent)
                 .map(Folder::absolute)
                 .filter(folder -> !folder.path().join().contains("target"))
                 .filter(folder -> !folder.path().join().contains("src/main/resources"))
-                .forEach(consumer);
+                .collect(Collectors.toList()));
+        metrics.count(DISCOVERY, folders.size());
+        folders.forEach(consumer);
+    }
+
+    /**
+     * Returns the renderer selected by the user, creating it if necessary
+     */
+    private Renderer renderer()
+    {
+        if (renderer == null)
+        {
+            // Create the renderer the user selected,
+            renderer = get(RENDERER) == Renderer.Type.IN_PROCESS
+                    ? listenTo(new InProcessRenderer(get(RENDER_THREADS), metrics))
+                    : listenTo(new ForkedRenderer());
+
+            // and if SVG files are cached, render only the diagrams that aren't in the cache.
+            if (svgCache != null)
+            {
+                renderer = listenTo(new CachingRenderer(renderer, svgCache));
+            }
+        }
+        return renderer;
+    }
+
+    /**
+     * Writes the JSON run report, with the totals from the summary and the measurements of each phase
+     */
+    private void saveReport()
+    {
+        var counters = new LinkedHashMap<String, Long>();
+        counters.put("diagrams", totalDiagrams.get());
+        counters.put("types", (long) typeCount());
+        counters.put("unchangedDiagrams", unchangedDiagrams.get());
+        counters.put("unchangedDiagramFiles", unchangedFiles.get());
+        if (svgCache != null)
+        {
+            counters.put("svgCacheHits", svgCache.hits());
+            counters.put("svgCacheMisses", svgCache.misses());
+        }
+        if (modelCache != null)
+        {
+            counters.put("modelCacheHits", modelCache.hits());
+            counters.put("modelCacheMisses", modelCache.misses());
+        }
+        counters.put("storedUnits", units.size());
+        counters.put("parsedUnits", units.parses());
+        counters.put("sharedUnits", units.hits());
+        counters.put("evictedUnits", units.evictions());
+        counters.put("resolvedTypes", typeResolver.resolved());
+        counters.put("failedResolutions", typeResolver.failed());
+        counters.put("cachedResolutions", typeResolver.cached());
+
+        var file = get(REPORT_FILE);
+        try
+        {
+            metrics.save(file.asJavaFile().toPath(), version().toString(), counters);
+            narrate("Wrote run report to $", file);
+        }
+        catch (IOException e)
+        {
+            warning(e, "Unable to write run report: $", file);
+        }
+    }
+
+    /**
+     * Gives each project with a Maven dependency tree a type solver scope of its own source folder, followed by the
+     * source folders of its dependencies, nearest first
+     *
+     * @param roots The root folders
+     * @param sourceFolders Source folders by project folder
+     */
+    private void scopeToDependencies(List<Folder> roots, Map<Path, Path> sourceFolders)
+    {
+        // Get the dependency trees for all roots,
+        var trees = new ArrayList<DependencyTree>();
+        try
+        {
+            roots.forEach(root -> trees.addAll(dependencyTrees(root.absolute())));
+        }
+        catch (Exception e)
+        {
+            warning(e, "Unable to get Maven dependency trees, so types will resolve against all projects");
+            return;
+        }
+
+        // and the folder of each project that has one,
+        var projectFolders = new HashMap<String, Path>();
+        for (var tree : trees)
+        {
+            if (tree.projectFolder() != null)
+            {
+                projectFolders.put(tree.artifactId(), tree.projectFolder().absolute().asJavaFile().toPath().normalize());
+            }
+        }
+
+        // then for each tree with a source folder,
+        for (var tree : trees)
+        {
+            var sourceFolder = sourceFolders.get(projectFolders.get(tree.artifactId()));
+            if (sourceFolder != null)
+            {
+                // give the source folder a scope of its own, followed by the source folders of its dependencies.
+                var visible = new ArrayList<Path>();
+                visible.add(sourceFolder);
+                for (var dependency : tree.dependencyOrder())
+                {
+                    var dependencySourceFolder = sourceFolders.get(projectFolders.get(dependency.mavenArtifactId()));
+                    if (dependencySourceFolder != null)
+                    {
+                        visible.add(dependencySourceFolder);
+                    }
+                }
+                solvers.scope(sourceFolder, visible);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of unique types that have been included in a project diagram
+     */
+    private int typeCount()
+    {
+        synchronized (types)
+        {
+            return types.cardinality();
+        }
+    }
+
+    /**
+     * Output held back from a project that was output in parallel with other projects
+     */
+    private static class ProjectOutput
+    {
+        /** The messages transmitted while outputting the project, which parser threads can add to */
+        final List<Transmittable> messages = Collections.synchronizedList(new ArrayList<>());
+
+        /** Diagrams to render */
+        final ObjectList<RenderJob> renderJobs = new ObjectList<>();
     }
 }
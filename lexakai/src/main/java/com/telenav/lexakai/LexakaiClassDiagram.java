@@ -18,9 +18,6 @@
 
 package com.telenav.lexakai;
 
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.body.TypeDeclaration;
-import com.github.javaparser.ast.type.Type;
 import com.telenav.kivakit.interfaces.naming.Named;
 import com.telenav.kivakit.core.string.IndentingStringBuilder;
 import com.telenav.kivakit.core.string.IndentingStringBuilder.Indentation;
@@ -29,17 +26,19 @@ import com.telenav.kivakit.core.string.CaseFormat;
 import com.telenav.kivakit.core.string.Strings;
 import com.telenav.kivakit.core.string.Wrap;
 import com.telenav.kivakit.resource.packages.PackagePath;
-import com.telenav.lexakai.annotations.UmlClassDiagram;
-import com.telenav.lexakai.annotations.associations.UmlRelation;
 import com.telenav.lexakai.associations.UmlInheritance;
-import com.telenav.lexakai.library.Annotations;
-import com.telenav.lexakai.library.Associations;
-import com.telenav.lexakai.library.Diagrams;
+import com.telenav.lexakai.incremental.DiagramDependencies;
+import com.telenav.lexakai.library.LongHashSet;
 import com.telenav.lexakai.library.Names;
-import com.telenav.lexakai.library.Types;
+import com.telenav.lexakai.library.TypeName;
+import com.telenav.lexakai.library.TypeSymbols;
+import com.telenav.lexakai.model.MethodModel;
+import com.telenav.lexakai.model.TypeModel;
+import com.telenav.lexakai.model.TypeReference;
 import com.telenav.lexakai.types.UmlType;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -58,6 +57,15 @@ import static com.telenav.lexakai.library.Names.TypeParameters.WITH_TYPE_PARAMET
 /**
  * The UML diagram for a project.
  *
+ * <p><b>Membership</b></p>
+ *
+ * <p>
+ * The types included in the diagram are kept in a {@link BitSet} of their {@link TypeSymbols}, so that
+ * {@link #includes(TypeName)} is a single bit test, and the inheritance arrows already in the diagram are kept in a
+ * {@link LongHashSet} of their keys. The sets of external supertypes are still kept by name, since the order of their
+ * names determines the order of the UML that is output.
+ * </p>
+ *
  * @author jonathanl (shibo)
  */
 @SuppressWarnings({ "ClassEscapesDefinedScope", "unused" })
@@ -67,9 +75,9 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
     {
         final String cardinality;
 
-        final Type referent;
+        final TypeReference referent;
 
-        public Referent(String cardinality, Type referent)
+        public Referent(String cardinality, TypeReference referent)
         {
             this.cardinality = cardinality;
             this.referent = referent;
@@ -80,7 +88,7 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
             return cardinality;
         }
 
-        public Type referent()
+        public TypeReference referent()
         {
             return referent;
         }
@@ -89,11 +97,14 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
     /** The set of abstract superclasses referenced by this diagram */
     private final HashSet<String> abstractSuperClasses = new HashSet<>();
 
+    /** The symbols of the types included in this diagram */
+    private final BitSet includedSymbols = new BitSet();
+
     /** The set of types to include in this diagram */
     private final Map<String, UmlType> includedQualifiedTypes = new HashMap<>();
 
-    /** Inheritance relations */
-    private final Set<UmlInheritance> inheritances = new HashSet<>();
+    /** The keys of the inheritance relations in this diagram */
+    private final LongHashSet inheritances = new LongHashSet();
 
     /** The name of this diagram from @{@link LexakaiClassDiagram} annotations */
     private final String name;
@@ -123,26 +134,22 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
         // If we haven't found the abstract superclasses
         if (abstractSuperClasses.isEmpty())
         {
-            // go through each type declaration in the project
-            project.typeDeclarations(type ->
+            // go through each type declaration in this diagram
+            project.types(this, type ->
             {
-                if (type.isClassOrInterfaceDeclaration() && !Annotations.shouldExcludeType(type))
+                if (type.isClassOrInterface() && !type.annotations().isExcluded())
                 {
-                    var classOrInterface = type.asClassOrInterfaceDeclaration();
-                    if (includesQualifiedTypeName(Names.name(type, QUALIFIED, WITHOUT_TYPE_PARAMETERS)))
+                    type.extendedTypes().forEach(at ->
                     {
-                        classOrInterface.getExtendedTypes().forEach(at ->
+                        var superClass = at.identifier();
+                        if (!type.annotations().excludesSuperType(name(), at.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS)))
                         {
-                            var superClass = at.getName().asString();
-                            if (!Types.isExcludedSuperType(type, this, Names.name(at, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS)))
+                            if (superClass.startsWith("Base") || superClass.startsWith("Abstract"))
                             {
-                                if (superClass.startsWith("Base") || superClass.startsWith("Abstract"))
-                                {
-                                    abstractSuperClasses.add(superClass);
-                                }
+                                abstractSuperClasses.add(superClass);
                             }
-                        });
-                    }
+                        }
+                    });
                 }
             });
         }
@@ -155,7 +162,7 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
      */
     public boolean add(UmlInheritance inheritance)
     {
-        return inheritances.add(inheritance);
+        return inheritances.add(inheritance.key());
     }
 
     public boolean automaticMethodGroups()
@@ -163,12 +170,28 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
         return project.automaticMethodGroups();
     }
 
+    /**
+     * Returns what this diagram depends on, which is everything that the types included in it depend on
+     */
+    public DiagramDependencies dependencies()
+    {
+        var dependencies = new DiagramDependencies();
+        project.types(this, type ->
+        {
+            if (type.dependencies() != null)
+            {
+                dependencies.addAll(type.dependencies());
+            }
+        });
+        return dependencies;
+    }
+
     /**
      * Returns true if this diagram already has the given inheritance relation
      */
     public boolean has(UmlInheritance inheritance)
     {
-        return inheritances.contains(inheritance);
+        return inheritances.contains(inheritance.key());
     }
 
     public String identifier()
@@ -193,27 +216,28 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
     public void include(UmlType type)
     {
         includedQualifiedTypes.put(type.name(QUALIFIED, WITHOUT_TYPE_PARAMETERS), type);
+        includedSymbols.set(type.type().name().symbol());
     }
 
     /**
      * Returns true if the given type includes members in this diagram
      */
-    public boolean includeMembers(TypeDeclaration<?> type)
+    public boolean includeMembers(TypeModel type)
     {
-        var expression = Diagrams.diagramAnnotation(type, name());
-        var includeMembers = expression != null && Annotations.booleanValue(expression, "includeMembers", true);
+        var diagram = type.annotations().diagram(name());
+        var includeMembers = diagram != null && diagram.includeMembers();
         return includeMembers || (isPackageDiagram() && project().buildPackageDiagrams());
     }
 
-    public boolean includeOverrides(TypeDeclaration<?> type)
+    public boolean includeOverrides(TypeModel type)
     {
-        var diagram = Diagrams.diagramAnnotation(type, name());
-        return diagram != null && Annotations.booleanValue(diagram, "includeOverrides", false);
+        var diagram = type.annotations().diagram(name());
+        return diagram != null && diagram.includeOverrides();
     }
 
-    public List<MethodDeclaration> includedMethods(TypeDeclaration<?> type)
+    public List<MethodModel> includedMethods(TypeModel type)
     {
-        var methods = new ArrayList<MethodDeclaration>();
+        var methods = new ArrayList<MethodModel>();
         includedMethods(type, methods::add);
         return methods;
     }
@@ -221,26 +245,26 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
     /**
      * Calls the consumer with each method in this type that is included in the diagram we are building
      */
-    public void includedMethods(TypeDeclaration<?> type, Consumer<MethodDeclaration> consumer)
+    public void includedMethods(TypeModel type, Consumer<MethodModel> consumer)
     {
-        type.getMethods().forEach(method ->
+        type.methods().forEach(method ->
         {
-            boolean include = Types.isInterface(type)
+            boolean include = type.isInterface()
                     || method.isPublic()
-                    || (method.isProtected() && project().includeProtectedMethods() && typeIncludesProtectedMethods(type));
+                    || (method.isProtected() && project().includeProtectedMethods() && type.annotations().includesProtectedMethods());
 
             if (!project().includeObjectMethods())
             {
-                var methodName = method.getName().asString();
+                var methodName = method.name();
                 if ("hashCode".equals(methodName) || "equals".equals(methodName) || "toString".equals(methodName))
                 {
                     include = false;
                 }
             }
 
-            if (method.getAnnotationByClass(Override.class).isPresent())
+            if (method.isOverride())
             {
-                if (method.getAnnotationByClass(UmlRelation.class).isPresent())
+                if (method.relation() != null)
                 {
                     include = true;
                 }
@@ -264,12 +288,21 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
         return sorted;
     }
 
+    /**
+     * Returns true if this diagram includes the type with the given name
+     */
+    public boolean includes(TypeName name)
+    {
+        return includedSymbols.get(name.symbol());
+    }
+
     /**
      * Returns true if this diagram included the given type name
      */
     public boolean includesQualifiedTypeName(String typeName)
     {
-        return includedQualifiedTypes.containsKey(Names.withoutTypeParameters(typeName));
+        var symbol = TypeSymbols.find(Names.withoutTypeParameters(typeName));
+        return symbol >= 0 && includedSymbols.get(symbol);
     }
 
     /**
@@ -309,12 +342,12 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
             builder.appendLine("");
         }
 
-        // then for each type declaration in the project,
+        // then for each type declaration in this diagram, in project order,
         var added = new StringList();
-        project.typeDeclarations(type ->
+        project.types(this, type ->
         {
-            // if this diagram should include the given type,
-            var umlType = includedQualifiedTypes.get(Names.name(type, QUALIFIED, WITHOUT_TYPE_PARAMETERS));
+            // if the type has UML in this diagram,
+            var umlType = includedQualifiedTypes.get(type.name(QUALIFIED, WITHOUT_TYPE_PARAMETERS));
             if (umlType != null)
             {
                 // and there is UML for it,
@@ -348,14 +381,22 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
         return includedQualifiedTypes.keySet();
     }
 
+    /**
+     * Returns a copy of the set of symbols of the types in this diagram
+     */
+    public BitSet qualifiedTypeSymbols()
+    {
+        return (BitSet) includedSymbols.clone();
+    }
+
     /**
      * Returns the type of the referent if it is included in the diagram or if it is not, the first type argument that
      * is included in the diagram.
      */
-    public Referent referent(Type referent)
+    public Referent referent(TypeReference referent)
     {
         // If the type is included in the diagram,
-        if (includesQualifiedTypeName(Names.name(referent, QUALIFIED, WITHOUT_TYPE_PARAMETERS)))
+        if (includes(referent.name()))
         {
             // return the referent itself
             return new Referent("1", referent);
@@ -363,23 +404,23 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
         else
         {
             // otherwise go through the relevant types of the referent (including type arguments),
-            for (var at : Types.typeParameters(referent))
+            for (var at : referent.typeArguments())
             {
                 // and if the type is part of our diagram,
-                if (includesQualifiedTypeName(Names.name(at, QUALIFIED, WITH_TYPE_PARAMETERS)))
+                if (includes(at.name()))
                 {
                     // then create a referent with the type parameter and a cardinality guess on the referent,
                     // for example, the referent might be List and the type parameter might be Switch, in which
                     // case the cardinality would be *
-                    return new Referent(Associations.cardinalityGuess(referent), at);
+                    return new Referent(referent.cardinality(), at);
                 }
             }
 
             // There is no type in the diagram in the referent, so guess its cardinality
-            var cardinality = Associations.cardinalityGuess(referent);
+            var cardinality = referent.cardinality();
 
             // get its type parameters
-            var typeParameters = Types.typeParameters(referent);
+            var typeParameters = referent.typeArguments();
 
             // and if the cardinality is * and there are type parameters,
             if ("*".equals(cardinality) && !typeParameters.isEmpty())
@@ -403,23 +444,19 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
         // If we haven't found the super-interfaces yet
         if (superInterfaces.isEmpty())
         {
-            // go through each type declaration in the project
-            project.typeDeclarations(type ->
+            // go through each type declaration in this diagram
+            project.types(this, type ->
             {
-                if (type.isClassOrInterfaceDeclaration() && !Annotations.shouldExcludeType(type))
+                if (type.isClassOrInterface() && !type.annotations().isExcluded())
                 {
-                    var classOrInterface = type.asClassOrInterfaceDeclaration();
-                    if (includesQualifiedTypeName(Names.name(type, QUALIFIED, WITH_TYPE_PARAMETERS)))
+                    type.implementedTypes().forEach(at ->
                     {
-                        classOrInterface.getImplementedTypes().forEach(at ->
+                        var superInterface = at.identifier();
+                        if (!type.annotations().excludesSuperType(name(), at.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS)))
                         {
-                            var superInterface = at.getName().asString();
-                            if (!Types.isExcludedSuperType(type, this, Names.name(at, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS)))
-                            {
-                                superInterfaces.add(superInterface);
-                            }
-                        });
-                    }
+                            superInterfaces.add(superInterface);
+                        }
+                    });
                 }
             });
         }
@@ -446,10 +483,4 @@ public class LexakaiClassDiagram extends BaseLexakaiDiagram implements Named
         }
         return title;
     }
-
-    private boolean typeIncludesProtectedMethods(TypeDeclaration<?> type)
-    {
-        var umlDiagramAnnotation = type.getAnnotationByClass(UmlClassDiagram.class);
-        return umlDiagramAnnotation.map(annotation -> Annotations.booleanValue(annotation, "includeProtectedMethods", true)).orElse(true);
-    }
 }
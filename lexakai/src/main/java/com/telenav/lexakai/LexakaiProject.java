@@ -18,30 +18,44 @@
 
 package com.telenav.lexakai;
 
-import com.github.javaparser.JavaParser;
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.telenav.cactus.maven.model.MavenCoordinates;
 import com.telenav.cactus.maven.model.Pom;
 import com.telenav.kivakit.component.BaseComponent;
 import com.telenav.kivakit.core.collections.list.ObjectList;
+import com.telenav.kivakit.core.collections.list.StringList;
 import com.telenav.kivakit.core.language.primitive.Ints;
 import com.telenav.kivakit.core.language.trait.TryTrait;
 import com.telenav.kivakit.core.string.Formatter;
 import com.telenav.kivakit.core.value.level.Percent;
 import com.telenav.kivakit.core.version.Version;
+import com.telenav.kivakit.filesystem.File;
 import com.telenav.kivakit.filesystem.Folder;
+import com.telenav.kivakit.interfaces.messaging.Transmittable;
 import com.telenav.kivakit.resource.packages.Package;
+import com.telenav.lexakai.builders.grouper.MethodGroupClassifier;
 import com.telenav.lexakai.indexes.ReadMeUpdater;
+import com.telenav.lexakai.library.AnnotationSummary;
 import com.telenav.lexakai.library.Diagrams;
 import com.telenav.lexakai.library.Names;
+import com.telenav.lexakai.library.TypeName;
+import com.telenav.lexakai.metrics.events.Events;
+import com.telenav.lexakai.metrics.events.FileParseEvent;
+import com.telenav.lexakai.metrics.events.ProjectParseEvent;
+import com.telenav.lexakai.model.TypeModel;
+import com.telenav.lexakai.model.TypeModelExtractor;
+import com.telenav.lexakai.parsing.ParserPool;
 import com.telenav.lexakai.quality.CodeQualityAnalysis;
+import com.telenav.lexakai.types.TypeAnalysis;
 import com.telenav.lexakai.types.UmlType;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -52,14 +66,35 @@ import static com.telenav.kivakit.core.collections.list.ObjectList.list;
 import static com.telenav.kivakit.core.version.Version.parseVersion;
 import static com.telenav.kivakit.resource.CopyMode.DO_NOT_OVERWRITE;
 import static com.telenav.kivakit.resource.Extension.JAVA;
+import static com.telenav.kivakit.resource.packages.PackageResource.packageResource;
+import static com.telenav.lexakai.metrics.Phase.PARSING;
+import static com.telenav.lexakai.metrics.Phase.POM_LOADING;
 
 /**
  * Represents a project for which Lexakai is producing diagrams.
  *
- * <p><b>Java Parsing</b></p>
+ * <p><b>Type Models</b></p>
  * <p>
- * The project has types that are discovered using the JavaParser API. Those types are available through
- * {@link #typeDeclarations(Consumer)}.
+ * The project has types that are discovered using the JavaParser API. As each source file is parsed, a compact
+ * {@link TypeModel} is extracted from each of its type declarations by a {@link TypeModelExtractor}, with names
+ * already resolved, and the syntax trees are not kept. The models are available through {@link #types(Consumer)}.
+ * </p>
+ *
+ * <p><b>Model Cache</b></p>
+ *
+ * <p>
+ * If the {@link Lexakai} application has a {@link com.telenav.lexakai.cache.ModelCache}, the models of each source
+ * file are kept in it, along with what they depend on, so a later run with the same settings and resolution scope
+ * reads them instead of parsing the file, unless the file or something its models depend on has changed.
+ * </p>
+ *
+ * <p><b>Type Index</b></p>
+ *
+ * <p>
+ * When diagrams are created, the project records the types that each diagram includes, in the order they are
+ * included, which is the order of {@link #types(Consumer)}. So {@link #types(LexakaiClassDiagram, Consumer)} visits
+ * just the diagram's own types, instead of scanning every type in the project. Diagrams that aren't the project's
+ * own are found by scanning, with a test of the bit for each type's symbol.
  * </p>
  *
  * <p><b>Settings</b></p>
@@ -75,6 +110,7 @@ import static com.telenav.kivakit.resource.Extension.JAVA;
  *     <li>{@link #buildPackageDiagrams(boolean)}</li>
  *     <li>{@link #includeObjectMethods(boolean)}</li>
  *     <li>{@link #includeProtectedMethods(boolean)}</li>
+ *     <li>{@link #incremental(boolean)}</li>
  *     <li>{@link #javadocSectionPattern(Pattern)}</li>
  * </ul>
  *
@@ -120,20 +156,29 @@ public class LexakaiProject extends BaseComponent implements
     /** Locations of project folders */
     private final LexakaiProjectFolders folders;
 
+    /** Messages held back while this project is output in parallel with other projects, or null if they aren't */
+    private volatile List<Transmittable> heldMessages;
+
     /** True to include equals, hashCode and toString */
     private boolean includeObjectMethods;
 
     /** True to include protected methods */
     private boolean includeProtectedMethods;
 
+    /** True to record the dependencies of types for incremental builds */
+    private boolean incremental;
+
     /** The regular expression pattern for extracting the names of javadoc sections */
     private Pattern javadocSectionPattern;
 
     /** Reference to the application that created this project model */
     private final Lexakai lexakai;
 
-    /** Parser to use on project source files */
-    private final JavaParser parser;
+    /** Classifier for guessing method groups, loaded when it's first needed */
+    private MethodGroupClassifier methodGroupClassifier;
+
+    /** Parsers to use on project source files */
+    private final ParserPool parsers;
 
     /**
      * Properties for this project from system properties, project.properties, 'lexakai.settings' and
@@ -141,8 +186,11 @@ public class LexakaiProject extends BaseComponent implements
      */
     private LexakaiProjectProperties properties;
 
-    /** THe set of type declarations in this project */
-    private final List<TypeDeclaration<?>> typeDeclarations = new ArrayList<>();
+    /** The models of the types in this project */
+    private final List<TypeModel> types = new ArrayList<>();
+
+    /** The types included in each of this project's diagrams, in project order */
+    private final Map<LexakaiClassDiagram, List<TypeModel>> typesByDiagram = new HashMap<>();
 
     private final MavenCoordinates mavenCoordinates;
 
@@ -150,16 +198,17 @@ public class LexakaiProject extends BaseComponent implements
                              Folder root,
                              Folder project,
                              Folder outputRoot,
-                             JavaParser parser)
+                             ParserPool parsers)
     {
         this.lexakai = lexakai;
-        this.parser = parser;
+        this.parsers = parsers;
         folders = new LexakaiProjectFolders(this, root, project, outputRoot);
         files = new LexakaiProjectFiles(this);
 
         var pom = project.file("pom.xml");
-        mavenCoordinates = tryCatchThrow(() -> Pom.from(
-                pom.asJavaPath()).get().coordinates(), "Unable to load POM file: $", pom);
+        mavenCoordinates = lexakai.metrics().measure(POM_LOADING, () -> tryCatchThrow(() -> Pom.from(
+                pom.asJavaPath()).get().coordinates(), "Unable to load POM file: $", pom));
+        lexakai.metrics().count(POM_LOADING, 1);
     }
 
     public LexakaiProject addHtmlAnchors(boolean addHtmlAnchors)
@@ -236,12 +285,15 @@ public class LexakaiProject extends BaseComponent implements
         // If we haven't created the diagrams yet,
         if (diagrams.isEmpty())
         {
-            // go through each type declaration,
-            typeDeclarations(type ->
+            // go through each type,
+            types(type ->
             {
+                // sharing one analysis of the type between the diagrams that include it,
+                var analysis = new TypeAnalysis(type);
+
                 if (buildPackageDiagrams)
                 {
-                    var qualifiedName = type.getFullyQualifiedName().orElse(null);
+                    var qualifiedName = type.qualifiedName();
                     if (qualifiedName != null)
                     {
                         var diagramName = Names.packageName(qualifiedName);
@@ -249,7 +301,7 @@ public class LexakaiProject extends BaseComponent implements
                                 ignored -> listenTo(new LexakaiClassDiagram(this, diagramName)));
 
                         // and include the type
-                        diagram.include(new UmlType(diagram, type));
+                        include(diagram, type, analysis);
                     }
                 }
 
@@ -261,7 +313,7 @@ public class LexakaiProject extends BaseComponent implements
                             ignored -> listenTo(new LexakaiClassDiagram(this, diagramName)));
 
                     // and include the type
-                    diagram.include(new UmlType(diagram, type));
+                    include(diagram, type, analysis);
                 }
             });
         }
@@ -287,6 +339,15 @@ public class LexakaiProject extends BaseComponent implements
         return folders().sourceCode().exists();
     }
 
+    /**
+     * Holds back the messages this project transmits on any thread by adding them to the given list, or stops holding
+     * them back if the list is null. The list must be thread-safe, since parser threads can add to it.
+     */
+    public void holdMessages(List<Transmittable> messages)
+    {
+        heldMessages = messages;
+    }
+
     /**
      * Returns true if equals, hashCode and toString should be included
      */
@@ -312,6 +373,20 @@ public class LexakaiProject extends BaseComponent implements
         return this;
     }
 
+    /**
+     * Returns true if the dependencies of types are recorded for incremental builds
+     */
+    public boolean incremental()
+    {
+        return incremental;
+    }
+
+    public LexakaiProject incremental(boolean incremental)
+    {
+        this.incremental = incremental;
+        return this;
+    }
+
     public boolean initialize()
     {
         if (!isValid())
@@ -384,6 +459,22 @@ public class LexakaiProject extends BaseComponent implements
         return Formatter.format("<img src=\"$/$.png\" srcset=\"$/$-2x.png 2x\"/>", images, png, images, png);
     }
 
+    /**
+     * Returns the classifier for guessing method groups from this project's <i>lexakai.groups</i> file, or the default
+     * groups if the project has no groups file
+     */
+    public synchronized MethodGroupClassifier methodGroupClassifier()
+    {
+        if (methodGroupClassifier == null)
+        {
+            var groups = files().lexakaiGroups();
+            methodGroupClassifier = MethodGroupClassifier.classifier(groups.exists()
+                    ? groups
+                    : packageResource(this, Lexakai.class, "lexakai/lexakai.groups"));
+        }
+        return methodGroupClassifier;
+    }
+
     public String name()
     {
         var relative = folders().projectRelativeToRoot().withoutTrailingSlash().path();
@@ -392,8 +483,13 @@ public class LexakaiProject extends BaseComponent implements
                 : relative.join("-"));
     }
 
+    /**
+     * Returns the code quality of this project, or of its child projects if it has no source code. This method is
+     * synchronized because a parent project may ask for it while the child project is being processed on another
+     * thread.
+     */
     @SuppressWarnings("ClassEscapesDefinedScope")
-    public ObjectList<CodeQualityAnalysis> nestedProjectQuality()
+    public synchronized ObjectList<CodeQualityAnalysis> nestedProjectQuality()
     {
         if (quality == null)
         {
@@ -413,6 +509,18 @@ public class LexakaiProject extends BaseComponent implements
         return quality;
     }
 
+    /**
+     * Parses this project's source code now, if it hasn't been parsed already, so that its types are ready when they
+     * are needed. This method can be called on any thread.
+     */
+    public void parse()
+    {
+        if (hasSourceCode())
+        {
+            parseTypes();
+        }
+    }
+
     public LexakaiProjectProperties properties()
     {
         if (properties == null)
@@ -441,11 +549,57 @@ public class LexakaiProject extends BaseComponent implements
     }
 
     /**
-     * Calls the consumer with the type declarations in this project
+     * Holds back messages while this project is output in parallel with other projects, so they can be shown in
+     * project order when the project is finished, even if they were transmitted by parser threads
+     */
+    @Override
+    public <M extends Transmittable> M transmit(M message)
+    {
+        var held = heldMessages;
+        if (held != null)
+        {
+            held.add(message);
+            return message;
+        }
+        return super.transmit(message);
+    }
+
+    /**
+     * Calls the consumer with the types in this project
      */
-    public void typeDeclarations(Consumer<TypeDeclaration<?>> consumer)
+    public void types(Consumer<TypeModel> consumer)
     {
-        parseTypeDeclarations().forEach(consumer);
+        parseTypes().forEach(consumer);
+    }
+
+    /**
+     * Calls the consumer with the types in this project that are included in the given diagram, in the same order as
+     * {@link #types(Consumer)}
+     */
+    public void types(LexakaiClassDiagram diagram, Consumer<TypeModel> consumer)
+    {
+        // If the diagram is one of ours,
+        List<TypeModel> types;
+        synchronized (typesByDiagram)
+        {
+            types = typesByDiagram.get(diagram);
+        }
+        if (types != null)
+        {
+            // visit just its types,
+            types.forEach(consumer);
+        }
+        else
+        {
+            // otherwise, scan all types for the ones the diagram includes.
+            types(type ->
+            {
+                if (diagram.includes(type.name()))
+                {
+                    consumer.accept(type);
+                }
+            });
+        }
     }
 
     public void updateReadMe()
@@ -458,66 +612,169 @@ public class LexakaiProject extends BaseComponent implements
         return parseVersion(this, mavenCoordinates.version().text());
     }
 
+    /**
+     * Includes the given type in the given diagram with the given shared analysis, recording the type in the diagram's
+     * index
+     */
+    private void include(LexakaiClassDiagram diagram, TypeModel type, TypeAnalysis analysis)
+    {
+        diagram.include(new UmlType(diagram, type, analysis));
+        synchronized (typesByDiagram)
+        {
+            // A type can be included in its package diagram twice in a row, so only index it once.
+            var types = typesByDiagram.computeIfAbsent(diagram, ignored -> new ArrayList<>());
+            if (types.isEmpty() || types.get(types.size() - 1) != type)
+            {
+                types.add(type);
+            }
+        }
+    }
+
     private boolean isProject(Folder folder)
     {
         return folder.file("pom.xml").exists() || folder.file("gradle.properties").exists();
     }
 
     /**
-     * Parse the class, interface and enum declarations under this project's source folder
+     * Returns the settings of this project that the models extracted from its source files depend on, including the
+     * source folders that its types resolve against, in the order they are searched
+     */
+    private String modelSettings()
+    {
+        var settings = new StringList();
+        settings.add("package-diagrams " + buildPackageDiagrams);
+        settings.add("javadoc-section-pattern " + javadocSectionPattern);
+        settings.add("resolution-scope " + lexakai.resolutionScope(this));
+        return settings.join("\n");
+    }
+
+    /**
+     * Parse the class, interface and enum declarations under this project's source folder into type models. This
+     * method is synchronized, so a caller that needs the types while they are being parsed by {@link #parse()} on
+     * another thread waits for them, instead of parsing them again.
      */
-    private List<TypeDeclaration<?>> parseTypeDeclarations()
+    private synchronized List<TypeModel> parseTypes()
     {
         // If we have not yet parsed the source code,
-        if (typeDeclarations.isEmpty())
+        if (types.isEmpty())
         {
-            // go through each Java file under the root's source folder,
-            folders().sourceCode().nestedFiles(JAVA.matcher()).forEach(file ->
+            // get each Java file under the root's source folder, except for this weird file :),
+            var files = folders().sourceCode().nestedFiles(JAVA.matcher())
+                    .stream()
+                    .filter(file -> !"module-info.java".equals(file.fileName().name()))
+                    .collect(Collectors.toList());
+
+            // get the name of the project for parse events, and the settings that models in the model cache are keyed
+            // by, if models are cached,
+            var name = name();
+            var settings = lexakai.modelCache() != null ? modelSettings() : null;
+
+            // then parse the files, possibly in parallel, and add the types in file order to the list.
+            lexakai.metrics().measure(PARSING, () -> Events.record(new ProjectParseEvent(name, files.size()), null, () ->
             {
-                // except for this weird file :),
-                if (!"module-info.java".equals(file.fileName().name()))
+                var parsed = parsers.parse(files, file ->
+                        Events.record(new FileParseEvent(name, file.toString()), null, () -> parseTypes(file, settings)));
+                for (var models : parsed)
+                {
+                    types.addAll(models);
+                }
+            }));
+            lexakai.metrics().count(PARSING, files.size());
+
+            types.sort(Comparator.comparing(TypeModel::simpleName));
+        }
+        return types;
+    }
+
+    /**
+     * Parses the class, interface and enum declarations in the given file and extracts their models, unless the models
+     * are in the model cache and nothing they depend on has changed. This method is called by the parser pool, possibly
+     * on a thread other than the caller of {@link #parseTypes()}.
+     *
+     * @param file The file to parse
+     * @param settings The settings that cached models are keyed by, or null if models are not cached
+     */
+    private List<TypeModel> parseTypes(File file, String settings)
+    {
+        // If models are cached and the models of the file are in the cache, use them,
+        var cache = lexakai.modelCache();
+        var key = settings != null ? cache.key(file.asJavaFile().toPath().toAbsolutePath().normalize(), settings) : null;
+        if (key != null)
+        {
+            var cached = cache.read(key);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+
+        var declarations = new ArrayList<TypeDeclaration<?>>();
+        var models = new ArrayList<TypeModel>();
+        try
+        {
+            // otherwise parse the file with the parser for this thread,
+            var parse = parsers.parse(file);
+
+            // and if that is successful,
+            if (parse.isSuccessful())
+            {
+                // get the result and add the declarations to the list,
+                parse.getResult().ifPresent(unit ->
+                        unit.findAll(TypeDeclaration.class)
+                                .stream()
+                                .filter(type ->
+                                {
+                                    @SuppressWarnings("unchecked")
+                                    var qualifiedName = (Optional<String>) type.getFullyQualifiedName();
+                                    return qualifiedName.filter(name -> !name.contains("lexakai.diagrams")).isPresent();
+                                })
+                                .forEach(declarations::add));
+
+                // then summarize their annotations and cache their names while we're on the parsing thread,
+                declarations.forEach(type ->
+                {
+                    AnnotationSummary.summarize(type);
+                    TypeName.cache(type);
+                });
+
+                // and extract their models, so the syntax trees don't need to be kept,
+                var extractor = new TypeModelExtractor(buildPackageDiagrams, javadocSectionPattern, incremental || key != null);
+                var extracted = true;
+                for (var type : declarations)
                 {
                     try
                     {
-                        // parse the file,
-                        var parse = parser.parse(file.asJavaFile());
-
-                        // and if that is successful,
-                        if (parse.isSuccessful())
-                        {
-                            // get the result and add the declarations to the set.
-                            parse.getResult().ifPresent(unit ->
-                                    unit.findAll(TypeDeclaration.class)
-                                            .stream()
-                                            .filter(type ->
-                                            {
-                                                @SuppressWarnings("unchecked")
-                                                var qualifiedName = (Optional<String>) type.getFullyQualifiedName();
-                                                return qualifiedName.filter(name -> !name.contains("lexakai.diagrams")).isPresent();
-                                            })
-                                            .forEach(typeDeclarations::add));
-                        }
-                        else
-                        {
-                            problem("Parse not successful: $\n$", file, parse);
-                        }
+                        models.add(extractor.extract(type));
                     }
                     catch (Exception e)
                     {
-                        problem(e, "Parse failed with exception: $", file);
+                        problem(e, "Unable to extract model of $", type.getNameAsString());
+                        extracted = false;
                     }
                 }
-            });
 
-            typeDeclarations.sort(Comparator.comparing(Names::simpleName));
+                // then cache them if they were all extracted.
+                if (key != null && extracted)
+                {
+                    cache.write(key, models);
+                }
+            }
+            else
+            {
+                problem("Parse not successful: $\n$", file, parse);
+            }
+        }
+        catch (Exception e)
+        {
+            problem(e, "Parse failed with exception: $", file);
         }
-        return typeDeclarations;
+        return models;
     }
 
     private CodeQualityAnalysis projectQuality()
     {
         var coverage = new CodeQualityAnalysis(this);
-        typeDeclarations(coverage::add);
+        types(coverage::add);
         return coverage;
     }
 }
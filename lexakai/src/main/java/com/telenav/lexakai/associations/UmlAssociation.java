@@ -18,11 +18,10 @@
 
 package com.telenav.lexakai.associations;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
-import com.github.javaparser.ast.type.Type;
 import com.telenav.lexakai.LexakaiClassDiagram;
 import com.telenav.lexakai.library.Names;
-import com.telenav.lexakai.library.Types;
+import com.telenav.lexakai.library.TypeName;
+import com.telenav.lexakai.model.TypeReference;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Objects;
@@ -42,7 +41,7 @@ public class UmlAssociation implements Comparable<UmlAssociation>
      * to ends of the label can be specified with the "from" and "to" parameters, or they can be left null to leave the
      * cardinality unlabeled. The arrow itself can be labeled with the label parameter.
      *
-     * @param referrer The from end of the arrow
+     * @param referrer The name of the type at the from end of the arrow
      * @param type The kind of arrow (relation, aggregation or composition)
      * @param referent The to end of the arrow
      * @param from The cardinality of the from end of the arrow
@@ -50,21 +49,21 @@ public class UmlAssociation implements Comparable<UmlAssociation>
      * @param label The arrow label, or null if there is none
      * @return The {@link UmlAssociation} to include in a {@link LexakaiClassDiagram}
      */
-    public static UmlAssociation umlAssociation(TypeDeclaration<?> referrer,
+    public static UmlAssociation umlAssociation(TypeName referrer,
                                                 AssociationType type,
-                                                Type referent,
+                                                TypeReference referent,
                                                 String from,
                                                 String to,
                                                 String label)
     {
-        if (Types.isObject(referent))
+        if (referent.isObject())
         {
-            return new UmlAssociation(referrer, type, Names.name(referent.asClassOrInterfaceType(), UNQUALIFIED, WITHOUT_TYPE_PARAMETERS), from, to, label);
+            return new UmlAssociation(referrer, type, referent.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS), from, to, label);
         }
         return null;
     }
 
-    public static UmlAssociation umlAssociation(TypeDeclaration<?> referrer,
+    public static UmlAssociation umlAssociation(TypeName referrer,
                                                 AssociationType type,
                                                 String referent,
                                                 String from,
@@ -105,8 +104,8 @@ public class UmlAssociation implements Comparable<UmlAssociation>
     /** The type of association */
     private final AssociationType type;
 
-    /** The from end of the arrow */
-    private final TypeDeclaration<?> referrer;
+    /** The name of the type at the from end of the arrow */
+    private final TypeName referrer;
 
     /** The to end of the arrow */
     private final String referent;
@@ -120,7 +119,7 @@ public class UmlAssociation implements Comparable<UmlAssociation>
     /** The arrow label */
     private final String label;
 
-    private UmlAssociation(TypeDeclaration<?> referrer,
+    private UmlAssociation(TypeName referrer,
                            AssociationType type,
                            String referent,
                            String from,
@@ -171,7 +170,7 @@ public class UmlAssociation implements Comparable<UmlAssociation>
     public String uml()
     {
         var builder = new StringBuilder();
-        builder.append(Names.name(referrer, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS));
+        builder.append(referrer.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS));
         builder.append(" ");
         final String DOUBLE_QUOTES = "\"";
         if (from != null)
@@ -18,34 +18,44 @@
 
 package com.telenav.lexakai.associations;
 
+import com.telenav.lexakai.library.LongHashSet;
 import com.telenav.lexakai.library.Names;
+import com.telenav.lexakai.library.TypeName;
+import com.telenav.lexakai.library.TypeSymbols;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Objects;
+import static com.telenav.lexakai.library.Names.Qualification.QUALIFIED;
+import static com.telenav.lexakai.library.Names.Qualification.UNQUALIFIED;
+import static com.telenav.lexakai.library.Names.TypeParameters.WITHOUT_TYPE_PARAMETERS;
 
 /**
- * Represents a UML inheritance arrow.
+ * Represents a UML inheritance arrow. Arrows are equal if they have the same unqualified supertype name and the same
+ * qualified subtype name, which is tested with the {@link TypeSymbols} of the names in {@link #key()}.
  *
  * @author jonathanl (shibo)
  */
 public class UmlInheritance implements Comparable<UmlInheritance>
 {
-    /** The superclass type name */
+    /** The symbols of the supertype and subtype names */
+    private final long key;
+
+    /** The unqualified superclass type name */
     private final String supertype;
 
-    /** The subclass type name */
+    /** The qualified subclass type name */
     private final String subtype;
 
     /**
      * An inheritance arrow from the subclass to the superclass
      */
-    public UmlInheritance(String supertype, String subtype)
+    public UmlInheritance(TypeName supertype, TypeName subtype)
     {
         assert supertype != null;
         assert subtype != null;
 
-        this.supertype = supertype;
-        this.subtype = subtype;
+        this.supertype = supertype.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
+        this.subtype = subtype.name(QUALIFIED, WITHOUT_TYPE_PARAMETERS);
+        key = LongHashSet.pair(supertype.symbol(UNQUALIFIED), subtype.symbol(QUALIFIED));
     }
 
     @Override
@@ -59,7 +69,7 @@ public class UmlInheritance implements Comparable<UmlInheritance>
     {
         if (object instanceof UmlInheritance that)
         {
-            return supertype.equals(that.supertype) && subtype.equals(that.subtype);
+            return key == that.key;
         }
         return false;
     }
@@ -67,7 +77,15 @@ public class UmlInheritance implements Comparable<UmlInheritance>
     @Override
     public int hashCode()
     {
-        return Objects.hash(supertype, subtype);
+        return Long.hashCode(key);
+    }
+
+    /**
+     * Returns the symbols of the unqualified supertype name and the qualified subtype name as a pair
+     */
+    public long key()
+    {
+        return key;
     }
 
     public String uml()
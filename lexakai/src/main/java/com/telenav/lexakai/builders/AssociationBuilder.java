@@ -18,27 +18,23 @@
 
 package com.telenav.lexakai.builders;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
-import com.github.javaparser.ast.type.Type;
 import com.telenav.kivakit.core.string.IndentingStringBuilder;
 import com.telenav.kivakit.core.collections.list.StringList;
 import com.telenav.kivakit.core.string.Strings;
 import com.telenav.lexakai.LexakaiClassDiagram;
-import com.telenav.lexakai.annotations.associations.UmlRelation;
 import com.telenav.lexakai.associations.UmlAssociation;
 import com.telenav.lexakai.associations.UmlInheritance;
-import com.telenav.lexakai.library.Annotations;
 import com.telenav.lexakai.library.Associations;
-import com.telenav.lexakai.library.Fields;
-import com.telenav.lexakai.library.Members;
-import com.telenav.lexakai.library.Methods;
-import com.telenav.lexakai.library.Names;
-import com.telenav.lexakai.library.Types;
+import com.telenav.lexakai.model.AssociationModel;
+import com.telenav.lexakai.model.TypeModel;
+import com.telenav.lexakai.model.TypeReference;
+import com.telenav.lexakai.types.TypeAnalysis;
+import com.telenav.lexakai.types.TypeAnalysis.AssociationCandidate;
+import com.telenav.lexakai.types.UmlType;
 
 import java.util.ArrayList;
+import java.util.List;
 
-import static com.telenav.lexakai.associations.UmlAssociation.AssociationType.RELATION;
-import static com.telenav.lexakai.library.Names.Qualification.QUALIFIED;
 import static com.telenav.lexakai.library.Names.Qualification.UNQUALIFIED;
 import static com.telenav.lexakai.library.Names.TypeParameters.WITHOUT_TYPE_PARAMETERS;
 import static com.telenav.lexakai.library.Names.TypeParameters.WITH_TYPE_PARAMETERS;
@@ -48,14 +44,17 @@ import static com.telenav.lexakai.library.Names.TypeParameters.WITH_TYPE_PARAMET
  */
 public class AssociationBuilder
 {
+    private final TypeAnalysis analysis;
+
     private final LexakaiClassDiagram diagram;
 
-    private final TypeDeclaration<?> type;
+    private final TypeModel type;
 
-    AssociationBuilder(LexakaiClassDiagram diagram, TypeDeclaration<?> type)
+    AssociationBuilder(UmlType type)
     {
-        this.diagram = diagram;
-        this.type = type;
+        this.analysis = type.analysis();
+        this.diagram = type.diagram();
+        this.type = type.type();
     }
 
     void addExplicitRelations(IndentingStringBuilder builder)
@@ -71,80 +70,44 @@ public class AssociationBuilder
 
     void addFieldAssociations(IndentingStringBuilder builder)
     {
-        // For each field,
-        var associations = new ArrayList<UmlAssociation>();
-        type.getFields().forEach(field ->
-        {
-            var diagram = Members.associationString(field, "diagram");
-            if (diagram == null || diagram.equals(this.diagram.name()))
-            {
-                // that isn't ignored or a non-reference,
-                var fieldType = field.getCommonType();
-                if (!Fields.isExcluded(field) && fieldType != null && Types.isReference(fieldType))
-                {
-                    // extract the type and type parameters,
-                    var associationType = Fields.associationType(field);
-                    if (associationType != null)
-                    {
-                        if (Types.isReference(fieldType))
-                        {
-                            // and add an association to the diagram.
-                            var association = createAssociation(associationType, fieldType,
-                                    Members.associationString(field, "referent"),
-                                    Members.associationString(field, "refereeCardinality"),
-                                    Members.associationString(field, "referentCardinality"),
-                                    Members.associationString(field, "label"));
-
-                            if (association != null)
-                            {
-                                associations.add(association);
-                            }
-                        }
-                    }
-                }
-            }
-        });
-
-        associations.forEach(at -> builder.appendLine(at.uml()));
+        addAssociations(builder, analysis.fieldAssociations());
     }
 
     void addInheritanceRelations(IndentingStringBuilder builder)
     {
-        if (type.isClassOrInterfaceDeclaration() && !Annotations.shouldExcludeType(type))
+        if (type.isClassOrInterface() && !type.annotations().isExcluded())
         {
             // add type inheritance associations,
-            var type = this.type.asClassOrInterfaceDeclaration();
-            var qualifiedTypeName = Names.name(type, QUALIFIED, WITHOUT_TYPE_PARAMETERS);
             var associations = new ArrayList<UmlInheritance>();
             var interfaceDeclarations = new StringList();
 
             // extended types,
-            type.getExtendedTypes().forEach(at ->
+            type.extendedTypes().forEach(at ->
             {
-                var superType = Names.name(at, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
+                var superType = at.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
                 if (superType != null)
                 {
-                    var inheritance = new UmlInheritance(superType, qualifiedTypeName);
-                    if (!diagram.has(inheritance) && !Types.isExcludedSuperType(this.type, diagram, superType))
+                    var inheritance = new UmlInheritance(at.name(), type.name());
+                    if (!diagram.has(inheritance) && !type.annotations().excludesSuperType(diagram.name(), superType))
                     {
                         diagram.add(inheritance);
                         associations.add(inheritance);
                         if (type.isInterface())
                         {
-                            interfaceDeclarations.add("interface " + Names.name(at, UNQUALIFIED, WITH_TYPE_PARAMETERS));
+                            interfaceDeclarations.add("interface " + at.name(UNQUALIFIED, WITH_TYPE_PARAMETERS));
                         }
                     }
                 }
             });
 
             // implemented interfaces,
-            type.getImplementedTypes().forEach(at ->
+            type.implementedTypes().forEach(at ->
             {
-                var superType = Names.name(at, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
+                var superType = at.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
                 if (superType != null)
                 {
-                    var inheritance = new UmlInheritance(superType, qualifiedTypeName);
-                    if (!diagram.has(inheritance) && !Types.isExcludedSuperType(this.type, diagram, superType))
+                    var inheritance = new UmlInheritance(at.name(), type.name());
+                    if (!diagram.has(inheritance) && !type.annotations().excludesSuperType(diagram.name(), superType))
                     {
                         diagram.add(inheritance);
                         associations.add(inheritance);
@@ -160,58 +123,52 @@ public class AssociationBuilder
 
     void addMethodAssociations(IndentingStringBuilder builder)
     {
-        // For each included method,
-        diagram.includedMethods(type, method ->
+        addAssociations(builder, analysis.methodAssociations(diagram));
+    }
+
+    /**
+     * Adds the given candidate associations that can be in this diagram to the given builder
+     */
+    private void addAssociations(IndentingStringBuilder builder, List<AssociationCandidate> candidates)
+    {
+        // For each candidate that can be in this diagram,
+        for (var candidate : candidates)
         {
-            var diagram = Members.associationString(method, "diagram");
-            if (diagram == null || diagram.equals(this.diagram.name()))
+            if (candidate.isIn(diagram.name()))
             {
-                // that isn't ignored or a non-reference,
-                var returnType = method.getType();
-                boolean associated = false;
-                if (!Methods.isExcluded(method) && Types.isReference(returnType))
-                {
-                    // extract the type and type parameters,
-                    var associationType = Methods.associationType(method);
-                    if (associationType != null)
-                    {
-                        if (Types.isReference(returnType))
-                        {
-                            // and add an association to the UML.
-                            var association = createAssociation(associationType, returnType,
-                                    Members.associationString(method, UmlRelation.class, "referent"),
-                                    Members.associationString(method, UmlRelation.class, "refereeCardinality"),
-                                    Members.associationString(method, UmlRelation.class, "referentCardinality"),
-                                    Members.associationString(method, UmlRelation.class, "label"));
+                // create its association,
+                var association = createAssociation(candidate.association(), candidate.referentType());
 
-                            if (association != null)
-                            {
-                                builder.appendLine(association.uml());
-                                associated = true;
-                            }
-                        }
-                    }
+                // and if there is none, create its fallback association,
+                if (association == null)
+                {
+                    association = createAssociation(candidate.fallback(), candidate.referentType());
                 }
 
-                // If we did not find an association, try to deduce one
-                if (!associated && Names.simpleName(method).toLowerCase()
-                        .matches("(build[A-Z]?\\w+|create[A-Z]\\w+|new[A-Z]\\w+)"))
+                // then add the association to the builder.
+                if (association != null)
                 {
-                    var association = createAssociation(
-                            RELATION,
-                            returnType,
-                            Members.associationString(method, UmlRelation.class, "referent"),
-                            "1",
-                            "1",
-                            "creates");
-
-                    if (association != null)
-                    {
-                        builder.appendLine(association.uml());
-                    }
+                    builder.appendLine(association.uml());
                 }
             }
-        });
+        }
+    }
+
+    /**
+     * Returns a {@link UmlAssociation} for the given association of a field or method with the given type, or null if
+     * there is no association or it has no arrow in this diagram
+     */
+    private UmlAssociation createAssociation(AssociationModel association, TypeReference referentType)
+    {
+        if (association == null)
+        {
+            return null;
+        }
+        return createAssociation(association.type(), referentType,
+                association.referent(),
+                association.refereeCardinality(),
+                association.referentCardinality(),
+                association.label());
     }
 
     /**
@@ -219,7 +176,7 @@ public class AssociationBuilder
      * this type's diagram.
      */
     private UmlAssociation createAssociation(UmlAssociation.AssociationType associationType,
-                                             Type referentType,
+                                             TypeReference referentType,
                                              String explicitReferentType,
                                              String refereeCardinality,
                                              String referentCardinality,
@@ -243,7 +200,7 @@ public class AssociationBuilder
             }
 
             // and return the association.
-            return UmlAssociation.umlAssociation(type, associationType, explicitReferentType, refereeCardinality, referentCardinality, label);
+            return UmlAssociation.umlAssociation(type.name(), associationType, explicitReferentType, refereeCardinality, referentCardinality, label);
         }
 
         // Resolve the referent cardinality and type,
@@ -261,7 +218,7 @@ public class AssociationBuilder
             }
 
             // and return the association.
-            return UmlAssociation.umlAssociation(type, associationType, referent.referent(), refereeCardinality, referentCardinality, label);
+            return UmlAssociation.umlAssociation(type.name(), associationType, referent.referent(), refereeCardinality, referentCardinality, label);
         }
         return null;
     }
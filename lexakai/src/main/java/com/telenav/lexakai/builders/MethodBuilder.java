@@ -18,10 +18,9 @@
 
 package com.telenav.lexakai.builders;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
 import com.telenav.kivakit.core.string.IndentingStringBuilder;
 import com.telenav.lexakai.LexakaiClassDiagram;
-import com.telenav.lexakai.builders.grouper.MethodGrouper;
+import com.telenav.lexakai.model.TypeModel;
 import com.telenav.lexakai.types.UmlType;
 
 /**
@@ -31,12 +30,15 @@ public class MethodBuilder
 {
     private final LexakaiClassDiagram diagram;
 
-    private final TypeDeclaration<?> type;
+    private final TypeModel type;
 
-    public MethodBuilder(LexakaiClassDiagram diagram, TypeDeclaration<?> type)
+    private final UmlType umlType;
+
+    public MethodBuilder(UmlType umlType)
     {
-        this.diagram = diagram;
-        this.type = type;
+        this.diagram = umlType.diagram();
+        this.type = umlType.type();
+        this.umlType = umlType;
     }
 
     /**
@@ -47,8 +49,8 @@ public class MethodBuilder
         // If this type should include members,
         if (diagram.includeMembers(type))
         {
-            // get method groups,
-            var groups = new MethodGrouper(new UmlType(diagram, type)).groups();
+            // get the method groups shared by the diagrams that include the type,
+            var groups = umlType.methodGroups();
 
             // then add the UML for static method, constructors and ordinary methods.
             if (!groups.staticMethods().isEmpty())
@@ -18,14 +18,11 @@
 
 package com.telenav.lexakai.builders;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
-import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
 import com.telenav.kivakit.core.string.IndentingStringBuilder;
 import com.telenav.lexakai.LexakaiClassDiagram;
-import com.telenav.lexakai.annotations.UmlNote;
-import com.telenav.lexakai.library.Annotations;
-import com.telenav.lexakai.library.Names;
-import com.telenav.lexakai.library.Types;
+import com.telenav.lexakai.model.NoteModel;
+import com.telenav.lexakai.model.TypeModel;
+import com.telenav.lexakai.types.UmlType;
 
 import static com.telenav.lexakai.library.Names.Qualification.UNQUALIFIED;
 import static com.telenav.lexakai.library.Names.TypeParameters.WITH_TYPE_PARAMETERS;
@@ -37,12 +34,15 @@ public class TypeBuilder
 {
     private final LexakaiClassDiagram diagram;
 
-    private final TypeDeclaration<?> type;
+    private final TypeModel type;
 
-    public TypeBuilder(LexakaiClassDiagram diagram, TypeDeclaration<?> type)
+    private final UmlType umlType;
+
+    public TypeBuilder(UmlType umlType)
     {
-        this.diagram = diagram;
-        this.type = type;
+        this.diagram = umlType.diagram();
+        this.type = umlType.type();
+        this.umlType = umlType;
     }
 
     /**
@@ -51,7 +51,7 @@ public class TypeBuilder
     public void addTypeDeclaration(IndentingStringBuilder builder)
     {
         // Add inheritance and explicit relations,
-        var associationBuilder = new AssociationBuilder(diagram, type);
+        var associationBuilder = new AssociationBuilder(umlType);
         associationBuilder.addInheritanceRelations(builder);
         associationBuilder.addExplicitRelations(builder);
 
@@ -64,29 +64,23 @@ public class TypeBuilder
         }
 
         // then, add the full UML type declaration.
-        var typeName = Names.name(type.asClassOrInterfaceDeclaration(), UNQUALIFIED, WITH_TYPE_PARAMETERS);
-        addNote(builder, type, typeName);
-        for (var method : type.getMethods())
+        var typeName = type.name(UNQUALIFIED, WITH_TYPE_PARAMETERS);
+        for (var note : type.notes())
         {
-            addNote(builder, method, typeName + "::" + Names.simpleName(method));
+            addNote(builder, note, note.method() == null ? typeName : typeName + "::" + note.method());
         }
-        builder.appendLine(Types.typeDeclarationModifiers(type) + " " + typeName);
+        builder.appendLine(type.declaration() + " " + typeName);
     }
 
-    private void addNote(IndentingStringBuilder builder, NodeWithAnnotations<?> node, String element)
+    private void addNote(IndentingStringBuilder builder, NoteModel note, String element)
     {
-        var note = node.getAnnotationByClass(UmlNote.class);
-        if (note.isPresent())
+        var alignment = note.align();
+        if (alignment == null)
         {
-            var alignment = Annotations.stringValue(note.get(), "align");
-            if (alignment == null)
-            {
-                alignment = "right";
-            }
-            builder.appendLine("note " + alignment.toLowerCase() + " of " + element + "\n" +
-                    "    " + Annotations.stringValue(note.get(), "text") + "\n" +
-                    "endnote");
-            Annotations.stringValue(note.get(), "text");
+            alignment = "right";
         }
+        builder.appendLine("note " + alignment.toLowerCase() + " of " + element + "\n" +
+                "    " + note.text() + "\n" +
+                "endnote");
     }
 }
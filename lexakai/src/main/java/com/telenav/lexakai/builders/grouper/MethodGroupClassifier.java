@@ -0,0 +1,310 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.builders.grouper;
+
+import com.telenav.kivakit.core.collections.list.StringList;
+import com.telenav.kivakit.core.collections.map.MultiMap;
+import com.telenav.kivakit.core.logging.Logger;
+import com.telenav.kivakit.core.logging.LoggerFactory;
+import com.telenav.kivakit.core.string.CaseFormat;
+import com.telenav.kivakit.core.string.Strings;
+import com.telenav.kivakit.resource.Resource;
+import com.telenav.lexakai.library.Hashes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+/**
+ * Guesses the method groups that a method signature belongs to, using the group patterns in a <i>lexakai.groups</i>
+ * file.
+ *
+ * <p><b>Compilation</b></p>
+ *
+ * <p>
+ * Macros in the groups file are expanded and each group's patterns are compiled once, when the classifier is created.
+ * Classifiers are shared by {@link #classifier(Resource)}, keyed by the hash of the groups file, so projects that use
+ * the same groups file (usually the default one) share one classifier.
+ * </p>
+ *
+ * <p><b>Keyword Index</b></p>
+ *
+ * <p>
+ * The bare words of each group are matched by a separate pattern, and the groups are indexed by the first token of
+ * each of their words. A bare word can only match a signature that contains its first token, so the word pattern of a
+ * group is only run if one of the signature's tokens is in the index for that group. Tokens are runs of ASCII letters,
+ * digits and underscores, compared in lowercase, which is never finer than the word boundaries used by the pattern,
+ * so the index doesn't change which groups are found.
+ * </p>
+ *
+ * <p><b>Memoization</b></p>
+ *
+ * <p>
+ * Many methods share the same signature, so the group names for each signature are remembered. The returned sets
+ * are shared and can't be modified.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class MethodGroupClassifier
+{
+    private static final Logger LOGGER = LoggerFactory.newLogger();
+
+    // [<word>+] or [<word>+ = <parameter>]
+    private static final Pattern MACRO_PATTERN = Pattern.compile("(?x) \\[ (?<name> \\w+ ( - \\w+ )*) \\s* ( = \\s* (?<parameter> .*?))? \\s* ]");
+
+    /** Classifiers by the hash of their groups file */
+    private static final Map<String, MethodGroupClassifier> classifiers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the classifier for the given groups file, compiling it only if no classifier for the same content exists
+     */
+    public static MethodGroupClassifier classifier(Resource groups)
+    {
+        var lines = groups.reader().readLines();
+        return classifiers.computeIfAbsent(Hashes.sha256(lines.join("\n")), ignored -> new MethodGroupClassifier(lines));
+    }
+
+    /**
+     * The compiled patterns for a group
+     *
+     * @param name The group name, in parentheses
+     * @param expressions The group's regular expressions, or null if it has none
+     * @param words The pattern matching the group's bare words, or null if it has none
+     */
+    private record Group(String name, Pattern expressions, Pattern words)
+    {
+    }
+
+    /** The groups, in the order they appear in the groups file */
+    private final List<Group> groups = new ArrayList<>();
+
+    /** Groups with bare words, by the first token of each word */
+    private final Map<String, List<Group>> keywords = new HashMap<>();
+
+    /** Groups with bare words that don't start with a token, whose word pattern must always be run */
+    private final Set<Group> unindexed = new HashSet<>();
+
+    /** Group names by method signature */
+    private final Map<String, Set<String>> memo = new ConcurrentHashMap<>();
+
+    private MethodGroupClassifier(StringList lines)
+    {
+        load(lines);
+    }
+
+    /**
+     * Returns the names of the groups that the given method signature matches, or "none" if it matches no group,
+     * without remembering them. This is the work that {@link #groupNames(String)} does once for each signature.
+     *
+     * @param signature The signature, in lowercase hyphenated form, like "string get-name(int index)"
+     */
+    public Set<String> classify(String signature)
+    {
+        // Find the groups whose bare words might match the signature,
+        var candidates = new HashSet<>(unindexed);
+        for (var token : tokens(signature))
+        {
+            candidates.addAll(keywords.getOrDefault(token, List.of()));
+        }
+
+        // then go through the groups,
+        var names = new HashSet<String>();
+        for (var group : groups)
+        {
+            // and add the name of each group that matches.
+            if ((group.expressions() != null && group.expressions().matcher(signature).matches())
+                    || (group.words() != null && candidates.contains(group) && group.words().matcher(signature).matches()))
+            {
+                names.add(group.name());
+            }
+        }
+
+        if (names.isEmpty())
+        {
+            names.add("none");
+        }
+
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Returns the names of the groups that the given method signature matches, or "none" if it matches no group
+     *
+     * @param signature The signature, in lowercase hyphenated form, like "string get-name(int index)"
+     */
+    public Set<String> groupNames(String signature)
+    {
+        return memo.computeIfAbsent(signature, this::classify);
+    }
+
+    private void add(String groupName, List<String> patterns, Map<String, String> macros)
+    {
+        var words = new StringList();
+        var regularExpressions = new StringList();
+
+        // Go through the patterns that select the given group name,
+        for (var pattern : patterns)
+        {
+            // and if the pattern is a bare word,
+            if (Strings.isJavaIdentifier(pattern))
+            {
+                // add it to the list of words in hyphenated form (getIdentifier -> get-identifier),
+                words.add(CaseFormat.camelCaseToHyphenated(pattern));
+            }
+            else
+            {
+                // otherwise, we have a regular expression so resolve any pattern macros
+                var matcher = MACRO_PATTERN.matcher(pattern);
+                var regularExpression = matcher.replaceAll(match ->
+                {
+                    // by getting the name and parameter
+                    var macroName = matcher.group("name");
+                    var parameter = matcher.group("parameter");
+
+                    // retrieving the named macro
+                    var macro = macros.get(macroName);
+                    if (macro == null)
+                    {
+                        LOGGER.warning("Unrecognized macro '$'", macroName);
+                        macro = "";
+                    }
+                    else if (macro.contains("#"))
+                    {
+                        if (parameter == null)
+                        {
+                            LOGGER.warning("Missing parameter to '$' macro", macroName);
+                        }
+                        else
+                        {
+                            // and substituting the parameter if necessary.
+                            macro = macro.replaceAll("#", parameter);
+                        }
+                    }
+
+                    return " ( " + Strings.replaceAll(macro, "\\", "\\\\") + " ) ";
+                });
+
+                // then add the expression to the list.
+                regularExpressions.add(regularExpression);
+            }
+        }
+
+        // Compile the regular expressions and the bare words separately,
+        var group = new Group("(" + groupName + ")",
+                regularExpressions.isEmpty() ? null : compile(regularExpressions.join("|")),
+                words.isEmpty() ? null : compile("( .* \\b (" + words.join("|") + ") \\b .* \\( .* \\) )"));
+        groups.add(group);
+
+        // and index the group by the first token of each bare word.
+        for (var word : words)
+        {
+            var first = tokens(word).stream().findFirst();
+            if (first.isPresent() && word.startsWith(first.get()))
+            {
+                keywords.computeIfAbsent(first.get(), ignored -> new ArrayList<>()).add(group);
+            }
+            else
+            {
+                unindexed.add(group);
+            }
+        }
+    }
+
+    private Pattern compile(String pattern)
+    {
+        return Pattern.compile("(?x) " + pattern, CASE_INSENSITIVE);
+    }
+
+    private void load(StringList lines)
+    {
+        String groupName = null;
+        String macroName = null;
+        var groups = new MultiMap<String, String>();
+        var macros = new HashMap<String, String>();
+        for (var line : lines)
+        {
+            if (Strings.isNullOrBlank(line.trim()) || line.startsWith("//"))
+            {
+                continue;
+            }
+            if (line.startsWith("  "))
+            {
+                if (macroName != null)
+                {
+                    macros.put(macroName, line.trim());
+                }
+                else
+                {
+                    groups.add(groupName, line.trim());
+                }
+            }
+            else if (line.startsWith("group"))
+            {
+                groupName = line.replaceAll("group\\s*=\\s*", "").trim();
+                macroName = null;
+            }
+            else if (line.startsWith("pattern"))
+            {
+                macroName = line.replaceAll("pattern\\s*=\\s*", "").trim();
+                groupName = null;
+            }
+        }
+
+        for (var group : groups.keySet())
+        {
+            add(group, groups.list(group), macros);
+        }
+    }
+
+    /**
+     * Returns the runs of ASCII letters, digits and underscores in the given text, in lowercase
+     */
+    private List<String> tokens(String text)
+    {
+        var tokens = new ArrayList<String>();
+        var token = new StringBuilder();
+        for (int at = 0; at <= text.length(); at++)
+        {
+            var character = at < text.length() ? text.charAt(at) : ' ';
+            if ((character >= 'a' && character <= 'z') || (character >= '0' && character <= '9') || character == '_')
+            {
+                token.append(character);
+            }
+            else if (character >= 'A' && character <= 'Z')
+            {
+                token.append((char) (character - 'A' + 'a'));
+            }
+            else if (!token.isEmpty())
+            {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+}
@@ -22,9 +22,35 @@ import com.telenav.lexakai.members.UmlConstructor;
 import com.telenav.lexakai.members.UmlMethod;
 import com.telenav.lexakai.types.UmlType;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
+ * Assigns the included methods of a type to method groups.
+ *
+ * <p><b>Grouping</b></p>
+ *
+ * <p>
+ * Methods are taken in order. While any method has explicit groups (from <i>@UmlMethodGroup</i>), the first such
+ * method's groups are formed from all methods that name them, along with the guessed groups of any methods that come
+ * before it. When only methods without explicit groups are left, the largest guessed group is formed from them and
+ * removed, until there are no methods left.
+ * </p>
+ *
+ * <p><b>Performance</b></p>
+ *
+ * <p>
+ * The group names of each method are found once, and each explicit group and each method before an explicit method
+ * is visited once. For guessed groups, the number of methods left in each group is kept up to date as methods are
+ * removed, so choosing the largest group only looks at the group names that are left, not at the methods. Ties are
+ * broken as they would be by {@link MethodGroups#largest()} for the methods that are left, so the result doesn't depend
+ * on how it is computed.
+ * </p>
+ *
  * @author jonathanl (shibo)
  */
 public class MethodGrouper
@@ -33,6 +59,15 @@ public class MethodGrouper
 
     private final MethodGroupNameGuesser guesser;
 
+    /** The included methods of the type, in order */
+    private List<UmlMethod> methods;
+
+    /** The guessed group names of each method, or null if the method has explicit groups */
+    private List<Set<String>> guessed;
+
+    /** True for each method that has been grouped */
+    private boolean[] grouped;
+
     public MethodGrouper(UmlType type)
     {
         this.type = type;
@@ -42,31 +77,23 @@ public class MethodGrouper
 
     public MethodGroups groups()
     {
-        // Get all included methods in the type,
-        var methods = type.includedMethods();
-
-        // While there are methods to process,
-        var groups = new MethodGroups();
-        while (!methods.isEmpty())
+        // Get all included methods in the type and their guessed group names,
+        methods = type.includedMethods();
+        guessed = new ArrayList<>();
+        for (var method : methods)
         {
-            // add the next group of groups,
-            var next = next(methods);
-            for (var at : next.allGroups())
-            {
-                if (!at.isEmpty())
-                {
-                    groups.add(at);
-                }
-            }
-
-            // then remove all the involved methods from those left to process.
-            next.allGroups().forEach(group -> group.forEach(methods::remove));
+            guessed.add(method.explicitGroupNames().isEmpty() ? guesser.groupNames(method) : null);
         }
+        grouped = new boolean[methods.size()];
+
+        // add explicit groups and any guessed groups before them, then the largest guessed groups,
+        var groups = new MethodGroups();
+        addExplicitGroups(groups);
+        addGuessedGroups(groups);
 
         // then add the constructor group,
-        type.type().getConstructors()
+        type.type().constructors()
                 .stream()
-                .filter(constructor -> constructor.isPublic() || constructor.isProtected())
                 .map(UmlConstructor::new)
                 .filter(constructor -> !constructor.isExcluded())
                 .forEach(groups::add);
@@ -74,47 +101,194 @@ public class MethodGrouper
         return groups;
     }
 
-    public MethodGroups next(List<UmlMethod> methods)
+    /**
+     * Adds the given groups to the result, marking their methods as grouped
+     */
+    private void add(MethodGroups groups, MethodGroups next, List<Integer> members)
     {
-        // For each included method,
-        var groups = new MethodGroups();
-        for (var method : methods)
+        for (var at : next.allGroups())
         {
-            // if it is in one or more explicit groups,
-            var groupNames = method.explicitGroupNames();
-            if (!groupNames.isEmpty())
+            if (!at.isEmpty())
             {
-                // go through the explicit groups,
-                for (var groupName : groupNames)
+                groups.add(at);
+            }
+        }
+        members.forEach(index -> grouped[index] = true);
+    }
+
+    private void addExplicitGroups(MethodGroups groups)
+    {
+        // Index the methods with explicit groups by group name,
+        var explicit = new ArrayList<Integer>();
+        var members = new HashMap<String, List<Integer>>();
+        for (int index = 0; index < methods.size(); index++)
+        {
+            if (guessed.get(index) == null)
+            {
+                explicit.add(index);
+                for (var name : methods.get(index).explicitGroupNames())
+                {
+                    members.computeIfAbsent(name, ignored -> new ArrayList<>()).add(index);
+                }
+            }
+        }
+
+        // then, for each method with explicit groups that hasn't been grouped yet,
+        var start = 0;
+        for (var index : explicit)
+        {
+            if (!grouped[index])
+            {
+                // add the methods before it to their guessed groups,
+                var next = new MethodGroups();
+                var involved = new ArrayList<Integer>();
+                for (int at = start; at < index; at++)
                 {
-                    // and for each method in the type,
-                    for (var at : methods)
+                    if (!grouped[at])
                     {
-                        // if that method is in the group,
-                        if (at.explicitGroupNames().contains(groupName))
+                        for (var name : guessed.get(at))
                         {
-                            // then add it to that group
-                            groups.add(groupName, at);
+                            next.add(name, methods.get(at));
                         }
+                        involved.add(at);
                     }
                 }
 
-                return groups;
+                // and add the methods in each of its explicit groups to those groups.
+                for (var name : methods.get(index).explicitGroupNames())
+                {
+                    for (var member : members.get(name))
+                    {
+                        if (!grouped[member])
+                        {
+                            next.add(name, methods.get(member));
+                            involved.add(member);
+                        }
+                    }
+                }
+
+                add(groups, next, involved);
+                start = index + 1;
             }
-            else
+        }
+    }
+
+    private void addGuessedGroups(MethodGroups groups)
+    {
+        // Index the methods that are left by guessed group name,
+        var members = new HashMap<String, List<Integer>>();
+        var sizes = new HashMap<String, Integer>();
+        var left = 0;
+        for (int index = 0; index < methods.size(); index++)
+        {
+            if (!grouped[index])
+            {
+                for (var name : guessed.get(index))
+                {
+                    members.computeIfAbsent(name, ignored -> new ArrayList<>()).add(index);
+                    sizes.merge(name, 1, Integer::sum);
+                }
+                left++;
+            }
+        }
+
+        // and while there are methods left,
+        var first = new HashMap<String, Integer>();
+        while (left > 0)
+        {
+            // choose the largest group,
+            var name = largest(members, sizes, first);
+
+            // then add its methods to the group,
+            var next = new MethodGroups();
+            var involved = new ArrayList<Integer>();
+            for (var member : members.get(name))
             {
-                // otherwise add it to all groups we guess it might be in,
-                for (var name : guesser.groupNames(method))
+                if (!grouped[member])
                 {
-                    groups.add(name, method);
+                    next.add(name, methods.get(member));
+                    involved.add(member);
                 }
             }
+            add(groups, next, involved);
+
+            // and remove them from all the groups they were guessed to be in.
+            for (var member : involved)
+            {
+                for (var at : guessed.get(member))
+                {
+                    sizes.merge(at, -1, Integer::sum);
+                }
+            }
+            left -= involved.size();
+        }
+    }
+
+    /**
+     * Returns the first ungrouped member of the given group, advancing the saved position for the group
+     */
+    private int firstUngrouped(String name, List<Integer> members, Map<String, Integer> first)
+    {
+        var at = first.getOrDefault(name, 0);
+        while (grouped[members.get(at)])
+        {
+            at++;
+        }
+        first.put(name, at);
+        return members.get(at);
+    }
+
+    /**
+     * Returns the name of the largest group of methods that are left. Ties are broken by the order of a hash map of
+     * the groups that are left, with names added in the order that they are first seen in the methods that are left,
+     * as {@link MethodGroups} does.
+     */
+    private String largest(Map<String, List<Integer>> members, Map<String, Integer> sizes, Map<String, Integer> first)
+    {
+        // Find the first method that is left in each group that has any methods left,
+        var names = new ArrayList<String>();
+        var firstMember = new HashMap<String, Integer>();
+        sizes.forEach((name, size) ->
+        {
+            if (size > 0)
+            {
+                names.add(name);
+                firstMember.put(name, firstUngrouped(name, members.get(name), first));
+            }
+        });
+
+        // sort the names in the order they would be first seen, by method, then by name within the method,
+        names.sort(Comparator.<String>comparingInt(firstMember::get)
+                .thenComparingInt(name -> position(guessed.get(firstMember.get(name)), name)));
+
+        // then add them to a hash map in that order and return the first largest group in the map.
+        var map = new HashMap<String, Integer>();
+        names.forEach(name -> map.computeIfAbsent(name, sizes::get));
+        String largest = null;
+        for (var entry : map.entrySet())
+        {
+            if (largest == null || entry.getValue() > map.get(largest))
+            {
+                largest = entry.getKey();
+            }
         }
+        return largest;
+    }
 
-        // Return only the group with the most methods.
-        var largest = groups.largest();
-        var singleton = new MethodGroups();
-        singleton.add(largest);
-        return singleton;
+    /**
+     * Returns the position of the given name when iterating through the given names
+     */
+    private int position(Set<String> names, String name)
+    {
+        var position = 0;
+        for (var at : names)
+        {
+            if (at.equals(name))
+            {
+                return position;
+            }
+            position++;
+        }
+        return position;
     }
 }
@@ -0,0 +1,305 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.cache;
+
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.filesystem.Folder;
+import com.telenav.lexakai.library.Hashes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A cache of text or bytes, stored in files in a folder and keyed by a hash of the content the entry was derived from.
+ * The cache persists between runs of Lexakai.
+ *
+ * <p><b>Keys</b></p>
+ *
+ * <p>
+ * The {@link #key(String)} method hashes the given content along with the version passed to the constructor, so
+ * entries written by a different version of Lexakai are never read.
+ * </p>
+ *
+ * <p><b>Eviction</b></p>
+ *
+ * <p>
+ * Reading an entry updates its last modified time. When {@link #trim()} is called, the least recently used entries
+ * are removed until the cache is no larger than its maximum size.
+ * </p>
+ *
+ * <p><b>Threading</b></p>
+ *
+ * <p>
+ * Entries are written to a temporary file and then moved into place, so the cache can be read and written from more
+ * than one thread, or more than one process.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class ContentCache extends BaseComponent
+{
+    /** The folder where entries are stored */
+    private final Path folder;
+
+    /** The maximum size of this cache */
+    private final Bytes maximumSize;
+
+    /** The version that is included in every key */
+    private final String version;
+
+    /** The number of reads that found an entry */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** The number of reads that did not find an entry */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param folder The folder to store entries in
+     * @param maximumSize The size the cache is trimmed to by {@link #trim()}
+     * @param version A version string, which should change whenever the format of entries changes
+     */
+    public ContentCache(Folder folder, Bytes maximumSize, String version)
+    {
+        this.folder = folder.asJavaFile().toPath();
+        this.maximumSize = maximumSize;
+        this.version = version;
+    }
+
+    /**
+     * Copies the entry with the given key to the given file, replacing any existing file
+     *
+     * @return True if there was an entry to copy
+     */
+    public boolean copyTo(String key, Path target)
+    {
+        var path = path(key);
+        try
+        {
+            // Copy the entry,
+            Files.createDirectories(target.getParent());
+            Files.copy(path, target, REPLACE_EXISTING);
+
+            // mark it as recently used,
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+
+            // and count the hit.
+            hits.incrementAndGet();
+            return true;
+        }
+        catch (NoSuchFileException e)
+        {
+            misses.incrementAndGet();
+            return false;
+        }
+        catch (IOException e)
+        {
+            warning(e, "Unable to copy cache entry $ to $", path, target);
+            misses.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of reads that found an entry
+     */
+    public long hits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Returns the key for the given content
+     */
+    public String key(String content)
+    {
+        return Hashes.sha256(version + "\n" + content);
+    }
+
+    /**
+     * Returns the number of reads that did not find an entry
+     */
+    public long misses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * Returns the text stored under the given key, or null if there is no such entry. Use {@link #copyTo(String, Path)}
+     * to read an entry into a file without holding it in memory.
+     */
+    public String read(String key)
+    {
+        var bytes = readBytes(key);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the bytes stored under the given key, or null if there is no such entry
+     */
+    public byte[] readBytes(String key)
+    {
+        var path = path(key);
+        try
+        {
+            // Read the entry,
+            var bytes = Files.readAllBytes(path);
+
+            // mark it as recently used,
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+
+            // and return it.
+            hits.incrementAndGet();
+            return bytes;
+        }
+        catch (NoSuchFileException e)
+        {
+            misses.incrementAndGet();
+            return null;
+        }
+        catch (IOException e)
+        {
+            warning(e, "Unable to read cache entry: $", path);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Returns a description of the hits and misses for this cache
+     */
+    public String statistics()
+    {
+        var reads = hits() + misses();
+        var rate = reads == 0 ? 0.0 : 100.0 * hits() / reads;
+        return String.format("%d hits, %d misses (%.1f%% hit rate)", hits(), misses(), rate);
+    }
+
+    /**
+     * Removes the least recently used entries from this cache until it is no larger than its maximum size
+     */
+    public void trim()
+    {
+        if (Files.isDirectory(folder))
+        {
+            // Get the attributes of all entries in the cache,
+            var entries = new ArrayList<Entry>();
+            try (var files = Files.walk(folder))
+            {
+                for (var path : files.filter(Files::isRegularFile).collect(Collectors.toList()))
+                {
+                    entries.add(new Entry(path, Files.readAttributes(path, BasicFileAttributes.class)));
+                }
+            }
+            catch (IOException e)
+            {
+                warning(e, "Unable to list cache folder: $", folder);
+                return;
+            }
+
+            // then while the cache is too large,
+            var size = entries.stream().mapToLong(entry -> entry.attributes.size()).sum();
+            entries.sort(Comparator.comparing(entry -> entry.attributes.lastModifiedTime()));
+            for (var entry : entries)
+            {
+                if (size <= maximumSize.asBytes())
+                {
+                    break;
+                }
+
+                // remove the least recently used entry.
+                try
+                {
+                    Files.deleteIfExists(entry.path);
+                    size -= entry.attributes.size();
+                }
+                catch (IOException e)
+                {
+                    warning(e, "Unable to remove cache entry: $", entry.path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the given bytes under the given key
+     */
+    public void write(String key, byte[] bytes)
+    {
+        var path = path(key);
+        try
+        {
+            // Write the bytes to a temporary file in the entry's folder,
+            Files.createDirectories(path.getParent());
+            var temporary = Files.createTempFile(path.getParent(), key, ".tmp");
+            Files.write(temporary, bytes);
+
+            // then move the file into place.
+            Files.move(temporary, path, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            warning(e, "Unable to write cache entry: $", path);
+        }
+    }
+
+    /**
+     * Stores the given text under the given key
+     */
+    public void write(String key, String text)
+    {
+        write(key, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the path to the entry with the given key, spreading entries over subfolders by the start of their key
+     */
+    private Path path(String key)
+    {
+        return folder.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /**
+     * A cache entry and its attributes
+     */
+    private static class Entry
+    {
+        final Path path;
+
+        final BasicFileAttributes attributes;
+
+        Entry(Path path, BasicFileAttributes attributes)
+        {
+            this.path = path;
+            this.attributes = attributes;
+        }
+    }
+}
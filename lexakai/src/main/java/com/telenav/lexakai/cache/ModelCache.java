@@ -0,0 +1,252 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.cache;
+
+import com.github.javaparser.JavaParserBuild;
+import com.github.javaparser.ParserConfiguration;
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.kivakit.core.collections.list.StringList;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.filesystem.Folder;
+import com.telenav.lexakai.incremental.DiagramDependencies;
+import com.telenav.lexakai.incremental.SourceIndex;
+import com.telenav.lexakai.library.Hashes;
+import com.telenav.lexakai.model.TypeModel;
+import com.telenav.lexakai.model.TypeModelCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the {@link TypeModel}s extracted from each source file, persisted between runs, so that a file whose
+ * models can't have changed since an earlier run doesn't need to be parsed again.
+ *
+ * <p><b>Keys</b></p>
+ *
+ * <p>
+ * The key of an entry is a hash of:
+ * </p>
+ *
+ * <ul>
+ *     <li>The Lexakai version, the JavaParser version and language level, and the {@link TypeModelCodec#FORMAT}</li>
+ *     <li>The settings of the project that affect models, and the source folders that its types resolve against, in
+ *     the order they are searched</li>
+ *     <li>The path of the source file and a hash of its content</li>
+ * </ul>
+ *
+ * <p><b>Validation</b></p>
+ *
+ * <p>
+ * The names in a model are resolved against other source files, so they can change even if the file they were
+ * extracted from did not. Each entry is saved with a fingerprint of the {@link DiagramDependencies} of its models,
+ * which is a hash of the content of the files declaring the types the models refer to, and of the source files that
+ * could declare a type with each name they refer to, as {@link com.telenav.lexakai.incremental.DiagramFingerprints}
+ * computes for diagrams. An entry is only used if its fingerprint is the same when it is read. Otherwise it is stale,
+ * and counted as a miss.
+ * </p>
+ *
+ * <p><b>Eviction</b></p>
+ *
+ * <p>
+ * Entries are kept in a {@link ContentCache}, which {@link #trim()} trims to its maximum size by removing the least
+ * recently used entries.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class ModelCache extends BaseComponent
+{
+    /** The entries of this cache */
+    private final ContentCache cache;
+
+    /** The index of source files, which hashes them and finds the files that could declare a name */
+    private final SourceIndex index;
+
+    /** Hashes of the files that could declare types with each simple name, by name */
+    private final Map<String, String> nameHashes = new ConcurrentHashMap<>();
+
+    /** The number of reads that found a valid entry */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** The number of reads that found no entry or a stale one */
+    private final AtomicLong misses = new AtomicLong();
+
+    /** The number of reads that found an entry whose dependencies had changed */
+    private final AtomicLong stale = new AtomicLong();
+
+    /**
+     * @param folder The folder to store entries in
+     * @param maximumSize The size the cache is trimmed to by {@link #trim()}
+     * @param version The version of Lexakai
+     * @param configuration The configuration of the parsers that models are extracted with
+     * @param shallow True if method and initializer bodies are elided before parsing
+     * @param index An index of all source files that types may be resolved from
+     */
+    public ModelCache(Folder folder,
+                      Bytes maximumSize,
+                      String version,
+                      ParserConfiguration configuration,
+                      boolean shallow,
+                      SourceIndex index)
+    {
+        this.index = index;
+        this.cache = listenTo(new ContentCache(folder, maximumSize, "lexakai-models " + version
+                + " javaparser " + JavaParserBuild.PROJECT_VERSION
+                + " " + configuration.getLanguageLevel()
+                + " shallow " + shallow
+                + " format " + TypeModelCodec.FORMAT));
+    }
+
+    /**
+     * Returns the number of reads that found a valid entry
+     */
+    public long hits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Returns the key for the models of the given source file in a project with the given settings
+     *
+     * @param file The normalized absolute path of the source file
+     * @param settings The settings of the project that affect models, including its resolution scope
+     */
+    public String key(Path file, String settings)
+    {
+        return cache.key(settings + "\nfile " + file + " " + index.hash(file));
+    }
+
+    /**
+     * Returns the number of reads that found no entry or a stale one
+     */
+    public long misses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * Returns the models stored under the given key, or null if there is no such entry or what the models depend on has
+     * changed
+     */
+    public List<TypeModel> read(String key)
+    {
+        var bytes = cache.readBytes(key);
+        if (bytes != null)
+        {
+            try
+            {
+                // Read the fingerprint and the models,
+                var in = new DataInputStream(new ByteArrayInputStream(bytes));
+                var fingerprint = in.readUTF();
+                var models = TypeModelCodec.read(in);
+                if (in.read() != -1)
+                {
+                    throw new IOException("Unexpected data after models");
+                }
+
+                // and if nothing the models depend on has changed,
+                if (fingerprint.equals(fingerprint(models)))
+                {
+                    // return them.
+                    hits.incrementAndGet();
+                    return models;
+                }
+                stale.incrementAndGet();
+            }
+            catch (IOException | RuntimeException e)
+            {
+                warning(e, "Ignoring unreadable model cache entry: $", key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Returns a description of the hits and misses for this cache
+     */
+    public String statistics()
+    {
+        var reads = hits() + misses();
+        var rate = reads == 0 ? 0.0 : 100.0 * hits() / reads;
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d stale", hits(), misses(), rate, stale.get());
+    }
+
+    /**
+     * Removes the least recently used entries from this cache until it is no larger than its maximum size
+     */
+    public void trim()
+    {
+        cache.trim();
+    }
+
+    /**
+     * Stores the given models, which must have been extracted with their dependencies recorded, under the given key
+     */
+    public void write(String key, List<TypeModel> models)
+    {
+        try
+        {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeUTF(fingerprint(models));
+            TypeModelCodec.write(out, models);
+            out.flush();
+            cache.write(key, bytes.toByteArray());
+        }
+        catch (IOException e)
+        {
+            warning(e, "Unable to write model cache entry: $", key);
+        }
+    }
+
+    /**
+     * Returns a fingerprint of what the given models depend on
+     */
+    private String fingerprint(List<TypeModel> models)
+    {
+        // Collect the dependencies of the models,
+        var dependencies = new DiagramDependencies();
+        for (var model : models)
+        {
+            if (model.dependencies() == null)
+            {
+                throw new IllegalStateException("Dependencies of " + model + " were not recorded");
+            }
+            dependencies.addAll(model.dependencies());
+        }
+
+        // then add the files that declare types the models refer to,
+        var text = new StringList();
+        dependencies.files().forEach(at -> text.add("file " + at + " " + index.hash(at)));
+
+        // and the files that could declare types with the names the models refer to.
+        dependencies.names().forEach(at -> text.add("name " + at + " " + nameHashes.computeIfAbsent(at, name -> Hashes.sha256(index.files(name).toString()))));
+
+        return Hashes.sha256(text.join("\n"));
+    }
+}
@@ -84,6 +84,14 @@ public class Artifact implements Comparable<Artifact>
         return identifier;
     }
 
+    /**
+     * Returns the artifact id as it appears in the pom file
+     */
+    public String mavenArtifactId()
+    {
+        return artifactId;
+    }
+
     @Override
     public String toString()
     {
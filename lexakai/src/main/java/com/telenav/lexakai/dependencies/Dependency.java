@@ -61,6 +61,11 @@ public class Dependency implements Comparable<Dependency>
         return false;
     }
 
+    public Artifact from()
+    {
+        return from;
+    }
+
     @Override
     public int hashCode()
     {
@@ -73,6 +78,11 @@ public class Dependency implements Comparable<Dependency>
         return new ObjectFormatter(this).toString();
     }
 
+    public Artifact to()
+    {
+        return to;
+    }
+
     public String uml()
     {
         return Formatter.format("$ --> $", from.artifactId(), to.artifactId());
@@ -20,9 +20,10 @@ package com.telenav.lexakai.dependencies;
 
 import com.telenav.kivakit.core.collections.list.ObjectList;
 import com.telenav.kivakit.core.string.IndentingStringBuilder;
-import com.telenav.kivakit.filesystem.File;
 import com.telenav.kivakit.filesystem.Folder;
 import com.telenav.lexakai.BaseLexakaiDiagram;
+import com.telenav.lexakai.library.OutputFiles;
+import com.telenav.lexakai.rendering.RenderJob;
 
 /**
  * @author jonathanl (shibo)
@@ -42,7 +43,12 @@ public class DependencyDiagram extends BaseLexakaiDiagram
         this.tree = tree;
     }
 
-    public File save()
+    /**
+     * Saves this diagram, leaving the file untouched if its content has not changed
+     *
+     * @return The diagram to render if it needs to be rendered, or null if it is unchanged and already has an SVG file
+     */
+    public RenderJob save()
     {
         var relativeFolder = tree.projectFolder().relativeTo(root);
         var outputFolder = outputRoot.folder(relativeFolder);
@@ -52,10 +58,10 @@ public class DependencyDiagram extends BaseLexakaiDiagram
                 .folder("documentation/diagrams")
                 .file("dependencies.puml");
 
-        file.parent().mkdirs();
-        file.writer().saveText(uml(tree.title()));
-
-        return file;
+        // Save the diagram if it changed, and return it for rendering if it changed or has no SVG file.
+        var uml = uml(tree.title());
+        var changed = OutputFiles.saveIfChanged(file, uml);
+        return changed || !OutputFiles.svgFile(file).exists() ? new RenderJob(tree.artifactId(), file, uml) : null;
     }
 
     @Override
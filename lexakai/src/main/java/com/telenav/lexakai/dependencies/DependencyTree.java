@@ -20,10 +20,14 @@ package com.telenav.lexakai.dependencies;
 
 import com.telenav.kivakit.filesystem.Folder;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * @author jonathanl (shibo)
@@ -77,6 +81,45 @@ public class DependencyTree
         return dependencies;
     }
 
+    /**
+     * Returns the artifacts that this tree's project depends on, directly or indirectly, nearest first. The
+     * dependencies of each artifact are visited in order of group id, artifact id and version.
+     */
+    public List<Artifact> dependencyOrder()
+    {
+        // Find the artifacts each artifact depends on,
+        var dependsOn = new HashMap<Artifact, TreeSet<Artifact>>();
+        for (var dependency : dependencies)
+        {
+            dependsOn.computeIfAbsent(dependency.from(), ignored -> new TreeSet<>())
+                    .add(dependency.to());
+        }
+
+        // then visit them breadth-first from the project's own artifact.
+        var order = new ArrayList<Artifact>();
+        var visited = new HashSet<Artifact>();
+        var queue = new ArrayDeque<Artifact>();
+        artifacts.stream()
+                .filter(artifact -> artifact.mavenArtifactId().equals(artifactId))
+                .forEach(artifact ->
+                {
+                    visited.add(artifact);
+                    queue.add(artifact);
+                });
+        while (!queue.isEmpty())
+        {
+            for (var next : dependsOn.getOrDefault(queue.remove(), new TreeSet<>()))
+            {
+                if (visited.add(next))
+                {
+                    order.add(next);
+                    queue.add(next);
+                }
+            }
+        }
+        return order;
+    }
+
     public boolean isEmpty()
     {
         return artifacts.isEmpty();
@@ -50,13 +50,25 @@ public class MavenDependencyTreeBuilder extends BaseComponent
     {
         var mavenHome = ensureNotNull(operatingSystem().systemPropertyOrEnvironmentVariable("M2_HOME"), "Must set M2_HOME to point to maven installation");
         var output = operatingSystem()
-                .execute(this, root.asJavaFile(), mavenHome + "/bin/mvn", "-DoutputType=tgf", "dependency:tree")
-                .replaceAll("\\[INFO]", "");
+                .execute(this, root.asJavaFile(), mavenHome + "/bin/mvn", "-DoutputType=tgf", "dependency:tree");
 
-        var matcher = Pattern.compile("--- maven-dependency-plugin.*?@ (?<projectArtifactId>.*?) ---" +
+        return trees(output);
+    }
+
+    /**
+     * Returns the dependency trees in the given output of <i>mvn -DoutputType=tgf dependency:tree</i>, run in the root
+     * folder
+     */
+    public Set<DependencyTree> trees(String output)
+    {
+        var text = output.replaceAll("\\[INFO]", "");
+
+        // Match the output for each project, which newer versions of Maven head with "dependency:" instead of
+        // "maven-dependency-plugin".
+        var matcher = Pattern.compile("--- (maven-dependency-plugin|dependency:).*?@ (?<projectArtifactId>.*?) ---" +
                         "(?<dependencies>.*?)#" +
                         "(?<references>.*?)---",
-                Pattern.DOTALL).matcher(output);
+                Pattern.DOTALL).matcher(text);
 
         var artifactIdToFolder = new HashMap<String, Folder>();
         root.nestedFiles(file -> file.fileName().equals(parseFileName(this, "pom.xml")))
@@ -78,7 +90,8 @@ public class MavenDependencyTreeBuilder extends BaseComponent
 
             var tree = new DependencyTree(projectArtifactId, projectFolder);
 
-            var dependencyPattern = Pattern.compile("^(\\d+) (.*?):(.*?):jar:(.*?)(:.*$)?");
+            // Match each artifact line, which may be indented once [INFO] is removed, up to the end of its version,
+            var dependencyPattern = Pattern.compile("^\\s*(\\d+) (.*?):(.*?):jar:([^:\\s]+)(:.*)?$", Pattern.MULTILINE);
             var dependencyMatcher = dependencyPattern.matcher(dependencies);
             while (dependencyMatcher.find())
             {
@@ -90,7 +103,8 @@ public class MavenDependencyTreeBuilder extends BaseComponent
                 tree.add(artifact);
             }
 
-            var referencePattern = Pattern.compile("^(\\d+) (\\d+) (.*?)$");
+            // and each reference from one artifact to another.
+            var referencePattern = Pattern.compile("^\\s*(\\d+) (\\d+) (.*?)$", Pattern.MULTILINE);
             var referenceMatcher = referencePattern.matcher(references);
             while (referenceMatcher.find())
             {
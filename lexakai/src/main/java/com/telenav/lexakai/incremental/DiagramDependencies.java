@@ -0,0 +1,132 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.incremental;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * The source files and type names that the UML for a diagram depended on, beyond the types in the diagram itself.
+ *
+ * <p><b>Recording</b></p>
+ *
+ * <p>
+ * While {@link #record(DiagramDependencies, Supplier)} runs the code that extracts the model of a type,
+ * {@link com.telenav.lexakai.library.Names} reports each type name it tries to resolve, along with the source file of
+ * the type if it resolves to source code, with {@link #referenced(String, Path)}. The names matter because adding a
+ * source file with a referenced name can change how that name resolves, even if it did not resolve before.
+ * </p>
+ *
+ * <p><b>Diagrams</b></p>
+ *
+ * <p>
+ * The UML for a diagram is produced from the models of its types, so the dependencies of a diagram are the union of
+ * the dependencies recorded for its types, which {@link #addAll(DiagramDependencies)} collects.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class DiagramDependencies
+{
+    /** The dependencies being recorded on this thread, if any */
+    private static final ThreadLocal<DiagramDependencies> recording = new ThreadLocal<>();
+
+    /**
+     * Runs the given code, adding the dependencies it reports to the given dependencies
+     *
+     * @return The result of the code
+     */
+    public static <T> T record(DiagramDependencies dependencies, Supplier<T> code)
+    {
+        var outer = recording.get();
+        recording.set(dependencies);
+        try
+        {
+            return code.get();
+        }
+        finally
+        {
+            recording.set(outer);
+        }
+    }
+
+    /**
+     * Records the given simple name of a referenced type and the given source file declaring the type it resolved to,
+     * if dependencies are being recorded. Either may be null.
+     */
+    public static void referenced(String name, Path file)
+    {
+        var dependencies = recording.get();
+        if (dependencies != null)
+        {
+            if (name != null)
+            {
+                dependencies.names.add(name);
+            }
+            if (file != null)
+            {
+                dependencies.files.add(file);
+            }
+        }
+    }
+
+    /** The source files declaring resolved types */
+    private final Set<Path> files = new TreeSet<>();
+
+    /** The simple names of referenced types */
+    private final Set<String> names = new TreeSet<>();
+
+    public DiagramDependencies()
+    {
+    }
+
+    public DiagramDependencies(Set<Path> files, Set<String> names)
+    {
+        this.files.addAll(files);
+        this.names.addAll(names);
+    }
+
+    /**
+     * Adds the given dependencies to these dependencies
+     */
+    public DiagramDependencies addAll(DiagramDependencies that)
+    {
+        files.addAll(that.files);
+        names.addAll(that.names);
+        return this;
+    }
+
+    /**
+     * Returns the source files that declare resolved types, in sorted order
+     */
+    public Set<Path> files()
+    {
+        return files;
+    }
+
+    /**
+     * Returns the simple names of referenced types, in sorted order
+     */
+    public Set<String> names()
+    {
+        return names;
+    }
+}
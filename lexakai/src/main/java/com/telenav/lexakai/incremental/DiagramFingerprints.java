@@ -0,0 +1,256 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.incremental;
+
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.kivakit.core.collections.list.StringList;
+import com.telenav.lexakai.LexakaiClassDiagram;
+import com.telenav.lexakai.LexakaiProject;
+import com.telenav.lexakai.library.Hashes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.telenav.lexakai.library.Names.Qualification.QUALIFIED;
+import static com.telenav.lexakai.library.Names.TypeParameters.WITHOUT_TYPE_PARAMETERS;
+
+/**
+ * Fingerprints of the diagrams in a project, persisted between runs, so that diagrams whose inputs have not changed
+ * don't need to be produced again.
+ *
+ * <p><b>Fingerprints</b></p>
+ *
+ * <p>
+ * The fingerprint of a diagram is a hash of everything that its UML is derived from:
+ * </p>
+ *
+ * <ul>
+ *     <li>The Lexakai version and the project's settings</li>
+ *     <li>The source folders that types in the project resolve against, in the order they are searched</li>
+ *     <li>The project's lexakai.groups file</li>
+ *     <li>The name and title of the diagram</li>
+ *     <li>The names of the types in the diagram and the content of the files that declare them</li>
+ *     <li>The content of the files declaring the types the diagram's types refer to</li>
+ *     <li>The source files that could declare a type with the simple name of a referenced type</li>
+ * </ul>
+ *
+ * <p>
+ * The last two are the {@link DiagramDependencies} recorded when the diagram was produced, which are saved along with
+ * the fingerprint.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class DiagramFingerprints extends BaseComponent
+{
+    /** Saved fingerprints and dependencies by diagram identifier */
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    /** The file where fingerprints are saved */
+    private final Path file;
+
+    /** The index of source files */
+    private final SourceIndex index;
+
+    /** The project */
+    private final LexakaiProject project;
+
+    /** The Lexakai version and project settings that affect diagram output */
+    private final String settings;
+
+    /**
+     * @param project The project
+     * @param file The file to load fingerprints from and save them to
+     * @param index An index of all source files that types may be resolved from
+     * @param version The version of Lexakai
+     * @param resolutionScope The source folders that types in the project resolve against, in search order
+     */
+    public DiagramFingerprints(LexakaiProject project,
+                               Path file,
+                               SourceIndex index,
+                               String version,
+                               List<Path> resolutionScope)
+    {
+        this.project = project;
+        this.file = file;
+        this.index = index;
+
+        var groups = project.files().lexakaiGroups();
+        var settings = new StringList();
+        settings.add("lexakai " + version);
+        settings.add("include-object-methods " + project.includeObjectMethods());
+        settings.add("include-protected-methods " + project.includeProtectedMethods());
+        settings.add("automatic-method-groups " + project.automaticMethodGroups());
+        settings.add("package-diagrams " + project.buildPackageDiagrams());
+        settings.add("groups " + (groups.exists() ? index.hash(groups.asJavaFile().toPath()) : "default"));
+        settings.add("resolution-scope " + resolutionScope);
+        this.settings = settings.join("\n");
+
+        load();
+    }
+
+    /**
+     * Returns true if the given diagram has a saved fingerprint and its inputs have not changed since it was saved
+     */
+    public boolean isUnchanged(LexakaiClassDiagram diagram)
+    {
+        var entry = entries.get(diagram.identifier());
+        return entry != null && entry.fingerprint.equals(fingerprint(diagram, entry.dependencies));
+    }
+
+    /**
+     * Saves the fingerprints of the diagrams in this project
+     */
+    public void save()
+    {
+        var lines = new StringList();
+        entries.forEach((identifier, entry) ->
+        {
+            lines.add("diagram " + identifier);
+            lines.add("fingerprint " + entry.fingerprint);
+            entry.dependencies.files().forEach(at -> lines.add("file " + at));
+            entry.dependencies.names().forEach(at -> lines.add("name " + at));
+        });
+        try
+        {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, lines.join("\n"), StandardCharsets.UTF_8);
+        }
+        catch (IOException e)
+        {
+            warning(e, "Unable to save diagram fingerprints for $: $", project.name(), file);
+        }
+    }
+
+    /**
+     * Updates the fingerprint of the given diagram, which was produced with the given dependencies
+     */
+    public void update(LexakaiClassDiagram diagram, DiagramDependencies dependencies)
+    {
+        entries.put(diagram.identifier(), new Entry(fingerprint(diagram, dependencies), dependencies));
+    }
+
+    /**
+     * Returns the fingerprint of the given diagram, produced with the given dependencies
+     */
+    private String fingerprint(LexakaiClassDiagram diagram, DiagramDependencies dependencies)
+    {
+        var text = new StringList();
+
+        // Add settings and the identity of the diagram,
+        text.add(settings);
+        text.add("diagram " + diagram.identifier() + " " + diagram.title());
+
+        // the types in the diagram and the files that declare them,
+        var types = new TreeMap<String, String>();
+        diagram.includedQualifiedTypes().forEach(type -> types.put(type.name(QUALIFIED, WITHOUT_TYPE_PARAMETERS), type.type().sourceFile() == null
+                ? "none"
+                : type.type().sourceFile() + " " + index.hash(type.type().sourceFile())));
+        types.forEach((type, source) -> text.add("type " + type + " " + source));
+
+        // the files that declare types the diagram refers to,
+        dependencies.files().forEach(at -> text.add("file " + at + " " + index.hash(at)));
+
+        // and the files that could declare types with the names the diagram refers to.
+        dependencies.names().forEach(at -> text.add("name " + at + " " + index.files(at)));
+
+        return Hashes.sha256(text.join("\n"));
+    }
+
+    /**
+     * Loads any saved fingerprints
+     */
+    private void load()
+    {
+        if (Files.isRegularFile(file))
+        {
+            try
+            {
+                String identifier = null;
+                String fingerprint = null;
+                var files = new TreeSet<Path>();
+                var names = new TreeSet<String>();
+                for (var line : Files.readAllLines(file, StandardCharsets.UTF_8))
+                {
+                    var space = line.indexOf(' ');
+                    var key = line.substring(0, space);
+                    var value = line.substring(space + 1);
+                    switch (key)
+                    {
+                        case "diagram":
+                            if (identifier != null)
+                            {
+                                entries.put(identifier, new Entry(fingerprint, new DiagramDependencies(files, names)));
+                            }
+                            identifier = value;
+                            files.clear();
+                            names.clear();
+                            break;
+
+                        case "fingerprint":
+                            fingerprint = value;
+                            break;
+
+                        case "file":
+                            files.add(Path.of(value));
+                            break;
+
+                        case "name":
+                            names.add(value);
+                            break;
+
+                        default:
+                            throw new IllegalStateException("Unrecognized line: " + line);
+                    }
+                }
+                if (identifier != null)
+                {
+                    entries.put(identifier, new Entry(fingerprint, new DiagramDependencies(files, names)));
+                }
+            }
+            catch (Exception e)
+            {
+                warning(e, "Ignoring unreadable diagram fingerprints for $: $", project.name(), file);
+                entries.clear();
+            }
+        }
+    }
+
+    /**
+     * The fingerprint of a diagram and the dependencies it was computed with
+     */
+    private static class Entry
+    {
+        final String fingerprint;
+
+        final DiagramDependencies dependencies;
+
+        Entry(String fingerprint, DiagramDependencies dependencies)
+        {
+            this.fingerprint = fingerprint;
+            this.dependencies = dependencies;
+        }
+    }
+}
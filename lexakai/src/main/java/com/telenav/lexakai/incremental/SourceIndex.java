@@ -0,0 +1,95 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.incremental;
+
+import com.telenav.lexakai.library.Hashes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of the Java source files under a set of source folders, by simple file name, along with memoized content
+ * hashes for source files. Files are assumed not to change while Lexakai is running.
+ *
+ * @author jonathanl (shibo)
+ */
+public class SourceIndex
+{
+    /** Content hashes of files */
+    private final Map<Path, String> hashes = new ConcurrentHashMap<>();
+
+    /** Source files by name without the .java extension */
+    private final Map<String, TreeSet<Path>> files = new TreeMap<>();
+
+    /**
+     * @param sourceFolders The source folders to index
+     */
+    public SourceIndex(List<Path> sourceFolders)
+    {
+        for (var folder : sourceFolders)
+        {
+            try (var paths = Files.walk(folder))
+            {
+                paths.filter(path -> path.getFileName().toString().endsWith(".java")).forEach(path ->
+                {
+                    var name = path.getFileName().toString();
+                    files.computeIfAbsent(name.substring(0, name.length() - ".java".length()), ignored -> new TreeSet<>())
+                            .add(path.toAbsolutePath().normalize());
+                });
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException("Unable to index source folder: " + folder, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the source files that could declare a top-level type with the given simple name
+     */
+    public TreeSet<Path> files(String simpleName)
+    {
+        return files.getOrDefault(simpleName, new TreeSet<>());
+    }
+
+    /**
+     * Returns a hash of the content of the given file, or "missing" if it cannot be read
+     */
+    public String hash(Path file)
+    {
+        return hashes.computeIfAbsent(file.toAbsolutePath().normalize(), path ->
+        {
+            try
+            {
+                return Hashes.sha256(Files.readAllBytes(path));
+            }
+            catch (IOException e)
+            {
+                return "missing";
+            }
+        });
+    }
+}
@@ -206,7 +206,7 @@ public class ReadMeUpdater extends BaseComponent
         var sections = new StringList();
         var sorted = new ArrayList<>(types);
         sorted.sort(Comparator.comparing(type -> type.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS)));
-        sorted.forEach(type -> sections.addAll(javadocSections(type, project.javadocSectionPattern())));
+        sorted.forEach(type -> sections.addAll(javadocSections(type)));
         variables.put("javadoc-index", sections.join("\n"));
 
         // and the wrapped project description.
@@ -259,28 +259,15 @@ public class ReadMeUpdater extends BaseComponent
     }
 
     /**
-     * Returns the Javadoc sections matching the given pattern for the given type
+     * Returns the Javadoc sections of the given type, which were found when its model was extracted
      */
-    private StringList javadocSections(UmlType type, Pattern javadocSectionPattern)
+    private StringList javadocSections(UmlType type)
     {
         var sections = new StringList();
-        var javadocSections = new HashSet<>(type.documentationSections());
+        var javadocSections = new ArrayList<>(type.type().javadocSections());
         if (javadocSections.isEmpty())
         {
-            var javadoc = type.type().getJavadoc();
-            if (javadoc.isPresent())
-            {
-                var text = javadoc.get().toText();
-                var matcher = javadocSectionPattern.matcher(text);
-                while (matcher.find())
-                {
-                    javadocSections.add(matcher.group(1));
-                }
-            }
-            if (javadocSections.isEmpty())
-            {
-                javadocSections.add("");
-            }
+            javadocSections.add("");
         }
 
         var name = type.name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
@@ -0,0 +1,316 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.library;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import com.telenav.lexakai.annotations.UmlMethodGroup;
+import com.telenav.lexakai.annotations.visibility.UmlExcludeSuperTypes;
+import com.telenav.lexakai.annotations.visibility.UmlExcludeType;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static com.telenav.lexakai.library.Names.Qualification.UNQUALIFIED;
+import static com.telenav.lexakai.library.Names.TypeParameters.WITHOUT_TYPE_PARAMETERS;
+
+/**
+ * The annotations on a type or member, indexed by name, along with the facts about them that are used while building
+ * diagrams.
+ *
+ * <p><b>Summarizing</b></p>
+ *
+ * <p>
+ * Each type and its members are summarized by {@link #summarize(TypeDeclaration)} when the type is parsed, and the
+ * summary is stored in the node's data, so {@link #of(NodeWithAnnotations)} doesn't walk the annotations again. Nodes
+ * without annotations share one empty summary. A node that was not summarized when it was parsed gets a new summary
+ * on each call.
+ * </p>
+ *
+ * <p><b>Derived Facts</b></p>
+ *
+ * <p>
+ * Only facts that don't depend on symbol resolution are derived, like diagram names and excluded supertypes, which
+ * use unqualified names. Anything that needs a qualified name is still resolved by the caller, so the types that a
+ * diagram depends on are recorded as before. If deriving a fact fails because an annotation is malformed, the failure
+ * is thrown when the fact is asked for, as it would have been without the summary.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class AnnotationSummary
+{
+    /** Key for the summary in a node's data */
+    private static final DataKey<AnnotationSummary> KEY = new DataKey<>()
+    {
+    };
+
+    /** Summary of a node without annotations */
+    private static final AnnotationSummary EMPTY = new AnnotationSummary();
+
+    /**
+     * Returns the summary of the given type or member
+     */
+    public static AnnotationSummary of(NodeWithAnnotations<?> node)
+    {
+        var data = (Node) node;
+        return data.containsData(KEY) ? data.getData(KEY) : summary(node);
+    }
+
+    /**
+     * Summarizes the annotations on the given type and its members, storing the summaries in their nodes
+     */
+    public static void summarize(TypeDeclaration<?> type)
+    {
+        type.setData(KEY, summary(type));
+        for (var member : type.getMembers())
+        {
+            member.setData(KEY, summary(member));
+        }
+    }
+
+    /**
+     * A fact derived from annotations, or the failure to derive it
+     */
+    private record Derived<T>(T value, RuntimeException failure)
+    {
+        static <T> Derived<T> derive(Supplier<T> supplier)
+        {
+            try
+            {
+                return new Derived<>(supplier.get(), null);
+            }
+            catch (RuntimeException e)
+            {
+                return new Derived<>(null, e);
+            }
+        }
+
+        T get()
+        {
+            if (failure != null)
+            {
+                throw failure;
+            }
+            return value;
+        }
+    }
+
+    private static AnnotationSummary summary(NodeWithAnnotations<?> node)
+    {
+        return node.getAnnotations().isEmpty() ? EMPTY : new AnnotationSummary(node);
+    }
+
+    /** Annotations by name, as written */
+    private final Map<String, Set<AnnotationExpr>> annotations = new HashMap<>();
+
+    /** The first annotation with each identifier (the last part of its name) */
+    private final Map<String, AnnotationExpr> annotationsByIdentifier = new HashMap<>();
+
+    /** The first @UmlClassDiagram annotation for each diagram name */
+    private final Derived<Map<String, AnnotationExpr>> diagramAnnotations;
+
+    /** The names of the diagrams that @UmlClassDiagram annotations put the node in */
+    private final Derived<Set<String>> diagramNames;
+
+    /** True if a @UmlExcludeSuperTypes marker annotation excludes all supertypes */
+    private final boolean excludesAllSuperTypes;
+
+    /** The unqualified names of supertypes excluded by @UmlExcludeSuperTypes */
+    private final Derived<Set<String>> excludedSuperTypes;
+
+    /** True if the node is a type that @UmlExcludeType excludes */
+    private final Derived<Boolean> excludedType;
+
+    /** The names of the groups that @UmlMethodGroup annotations put the node in */
+    private final Derived<Set<String>> explicitGroups;
+
+    private AnnotationSummary()
+    {
+        diagramAnnotations = new Derived<>(Map.of(), null);
+        diagramNames = new Derived<>(Set.of(), null);
+        excludesAllSuperTypes = false;
+        excludedSuperTypes = new Derived<>(Set.of(), null);
+        excludedType = new Derived<>(false, null);
+        explicitGroups = new Derived<>(Set.of(), null);
+    }
+
+    private AnnotationSummary(NodeWithAnnotations<?> node)
+    {
+        // Index the annotations by name and identifier,
+        for (var annotation : node.getAnnotations())
+        {
+            annotations.computeIfAbsent(annotation.getName().asString(), ignored -> new HashSet<>()).add(annotation);
+            annotationsByIdentifier.putIfAbsent(annotation.getName().getIdentifier(), annotation);
+        }
+
+        // then derive facts about them.
+        diagramAnnotations = Derived.derive(this::deriveDiagramAnnotations);
+        diagramNames = Derived.derive(this::deriveDiagramNames);
+        var excludeSuperTypes = annotation(UmlExcludeSuperTypes.class);
+        excludesAllSuperTypes = excludeSuperTypes.isPresent() && excludeSuperTypes.get().isMarkerAnnotationExpr();
+        excludedSuperTypes = Derived.derive(() -> excludeSuperTypes.isPresent() && !excludesAllSuperTypes
+                ? Collections.unmodifiableSet(Annotations.classNames(excludeSuperTypes.get()))
+                : Set.of());
+        excludedType = Derived.derive(() -> node instanceof TypeDeclaration<?> type && deriveExcludedType(type));
+        explicitGroups = Derived.derive(() -> node instanceof MethodDeclaration ? deriveExplicitGroups() : Set.of());
+    }
+
+    /**
+     * Returns the first annotation of the given type, matching by simple name, as
+     * {@link NodeWithAnnotations#getAnnotationByClass(Class)} does
+     */
+    public Optional<AnnotationExpr> annotation(Class<? extends Annotation> type)
+    {
+        return Optional.ofNullable(annotationsByIdentifier.get(type.getSimpleName()));
+    }
+
+    /**
+     * Returns the annotations of the given type, matching by name as written
+     */
+    public Set<AnnotationExpr> annotations(Class<? extends Annotation> type)
+    {
+        var annotations = this.annotations.get(type.getSimpleName());
+        return annotations == null ? Set.of() : Collections.unmodifiableSet(annotations);
+    }
+
+    /**
+     * Returns the first @UmlClassDiagram annotation for each diagram name
+     */
+    public Map<String, AnnotationExpr> diagramAnnotations()
+    {
+        return Collections.unmodifiableMap(diagramAnnotations.get());
+    }
+
+    /**
+     * Returns the names of the diagrams that @UmlClassDiagram annotations put this type in
+     */
+    public Set<String> diagramNames()
+    {
+        return diagramNames.get();
+    }
+
+    /**
+     * Returns the unqualified names of the supertypes excluded by @UmlExcludeSuperTypes
+     */
+    public Set<String> excludedSuperTypes()
+    {
+        return excludedSuperTypes.get();
+    }
+
+    /**
+     * Returns true if a @UmlExcludeSuperTypes marker annotation excludes all supertypes
+     */
+    public boolean excludesAllSuperTypes()
+    {
+        return excludesAllSuperTypes;
+    }
+
+    /**
+     * Returns the names of the groups that @UmlMethodGroup annotations put this method in
+     */
+    public Set<String> explicitGroups()
+    {
+        return explicitGroups.get();
+    }
+
+    /**
+     * Returns true if this type is excluded by @UmlExcludeType
+     */
+    public boolean isExcludedType()
+    {
+        return excludedType.get();
+    }
+
+    private Map<String, AnnotationExpr> deriveDiagramAnnotations()
+    {
+        var diagrams = new HashMap<String, AnnotationExpr>();
+        for (var annotation : annotations(UmlClassDiagram.class))
+        {
+            var expression = Annotations.value(annotation, "diagram");
+            if (expression != null)
+            {
+                diagrams.putIfAbsent(Names.name(expression.asClassExpr(), UNQUALIFIED, WITHOUT_TYPE_PARAMETERS), annotation);
+            }
+        }
+        return diagrams;
+    }
+
+    private Set<String> deriveDiagramNames()
+    {
+        var diagrams = new HashSet<String>();
+        for (var annotation : annotations(UmlClassDiagram.class))
+        {
+            var expression = Annotations.value(annotation, "diagram");
+            if (expression != null)
+            {
+                var name = Names.name(expression.asClassExpr(), UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
+                if (name != null)
+                {
+                    diagrams.add(name);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(diagrams);
+    }
+
+    private boolean deriveExcludedType(TypeDeclaration<?> type)
+    {
+        var marker = false;
+        for (var annotation : annotations(UmlExcludeType.class))
+        {
+            var expression = Annotations.value(annotation, "value");
+            if (expression != null)
+            {
+                var thatTypeName = Names.name(expression.asClassExpr(), UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
+                var thisTypeName = Names.name(type, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
+                if (thisTypeName.equals(thatTypeName))
+                {
+                    return true;
+                }
+            }
+            else
+            {
+                marker = true;
+            }
+        }
+        return marker;
+    }
+
+    private Set<String> deriveExplicitGroups()
+    {
+        var groups = new HashSet<String>();
+        for (var annotation : annotations(UmlMethodGroup.class))
+        {
+            groups.add(Annotations.stringValue(annotation));
+        }
+        return Collections.unmodifiableSet(groups);
+    }
+}
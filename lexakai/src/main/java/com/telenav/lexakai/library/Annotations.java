@@ -29,11 +29,11 @@ import com.github.javaparser.ast.expr.NameExpr;
 import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
 import com.github.javaparser.ast.expr.StringLiteralExpr;
 import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
-import com.telenav.lexakai.annotations.visibility.UmlExcludeType;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.annotation.Annotation;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.telenav.lexakai.library.Names.Qualification.UNQUALIFIED;
@@ -47,21 +47,22 @@ import static com.telenav.lexakai.library.Names.TypeParameters.WITHOUT_TYPE_PARA
  */
 public class Annotations
 {
+    /**
+     * Returns the first annotation of the given type, if any
+     */
+    public static Optional<AnnotationExpr> annotation(NodeWithAnnotations<?> node,
+                                                      Class<? extends Annotation> annotationType)
+    {
+        return AnnotationSummary.of(node).annotation(annotationType);
+    }
+
     /**
      * Returns a set of all the annotations of the given type
      */
     public static Set<AnnotationExpr> annotations(NodeWithAnnotations<?> type,
                                                   Class<? extends Annotation> annotationType)
     {
-        var annotations = new HashSet<AnnotationExpr>();
-        for (var annotation : type.getAnnotations())
-        {
-            if (annotation.getName().asString().equals(annotationType.getSimpleName()))
-            {
-                annotations.add(annotation);
-            }
-        }
-        return annotations;
+        return AnnotationSummary.of(type).annotations(annotationType);
     }
 
     /**
@@ -177,25 +178,7 @@ public class Annotations
 
     public static boolean shouldExcludeType(TypeDeclaration<?> type)
     {
-        var marker = false;
-        for (var annotation : annotations(type, UmlExcludeType.class))
-        {
-            var expression = value(annotation, "value");
-            if (expression != null)
-            {
-                var thatTypeName = Names.name(expression.asClassExpr(), UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
-                var thisTypeName = Names.name(type, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS);
-                if (thisTypeName.equals(thatTypeName))
-                {
-                    return true;
-                }
-            }
-            else
-            {
-                marker = true;
-            }
-        }
-        return marker;
+        return AnnotationSummary.of(type).isExcludedType();
     }
 
     /**
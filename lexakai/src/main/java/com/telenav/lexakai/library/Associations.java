@@ -18,11 +18,10 @@
 
 package com.telenav.lexakai.library;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
-import com.github.javaparser.ast.expr.AnnotationExpr;
 import com.github.javaparser.ast.type.Type;
-import com.telenav.lexakai.annotations.associations.UmlRelation;
 import com.telenav.lexakai.associations.UmlAssociation;
+import com.telenav.lexakai.model.AssociationModel;
+import com.telenav.lexakai.model.TypeModel;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -36,7 +35,7 @@ public class Associations
     /**
      * Returns a guess as to the cardinality of the given type based on the type's name
      */
-    public static String cardinalityGuess(Type type)
+    public static String cardinalityGuess(Type type, TypeName typeName)
     {
         if (type.isArrayType())
         {
@@ -44,7 +43,7 @@ public class Associations
         }
         if (Types.hasTypeParameters(type))
         {
-            var name = Names.name(type, Names.Qualification.UNQUALIFIED, Names.TypeParameters.WITHOUT_TYPE_PARAMETERS);
+            var name = typeName.name(Names.Qualification.UNQUALIFIED, Names.TypeParameters.WITHOUT_TYPE_PARAMETERS);
             if (name != null)
             {
                 if (name.endsWith("List")
@@ -62,11 +61,11 @@ public class Associations
     /**
      * Returns the set of UML associations defined by the given type with @UmlRelation annotations
      */
-    public static List<UmlAssociation> explicitRelations(TypeDeclaration<?> type, String diagramName)
+    public static List<UmlAssociation> explicitRelations(TypeModel type, String diagramName)
     {
         // Go through each annotation,
         var relations = new ArrayList<UmlAssociation>();
-        for (var annotation : Annotations.annotations(type, UmlRelation.class))
+        for (var annotation : type.annotations().relations())
         {
             // then loop through the key value pairs,
             var relation = relation(diagramName, type, annotation);
@@ -76,10 +75,10 @@ public class Associations
             }
         }
 
-        var diagramAnnotation = Diagrams.diagramAnnotation(type, diagramName);
+        var diagramAnnotation = type.annotations().diagram(diagramName);
         if (diagramAnnotation != null)
         {
-            var relation = relation(diagramName, type, diagramAnnotation);
+            var relation = relation(diagramName, type, diagramAnnotation.relation());
             if (relation != null)
             {
                 relations.add(relation);
@@ -91,17 +90,16 @@ public class Associations
     }
 
     /**
-     * Returns the UML relation association for the given annotation from the given type in the given diagram (only).
+     * Returns the UML relation association for the given annotation values from the given type in the given diagram
+     * (only).
      */
     private static UmlAssociation relation(String diagramName,
-                                           TypeDeclaration<?> type,
-                                           AnnotationExpr annotation)
+                                           TypeModel type,
+                                           AssociationModel annotation)
     {
-        var label = Annotations.stringValue(annotation, "label");
-        var referent = Annotations.className(annotation, "referent");
-        var diagram = Annotations.className(annotation, "diagram");
-        var refereeCardinality = Annotations.stringValue(annotation, "refereeCardinality");
-        var referentCardinality = Annotations.stringValue(annotation, "referentCardinality");
+        var label = annotation.label();
+        var referent = annotation.referent();
+        var diagram = annotation.diagram();
 
         // If the diagram specified is not the given diagram,
         if (diagram != null && !diagram.equals(diagramName))
@@ -115,7 +113,8 @@ public class Associations
             if (label != null && referent != null)
             {
                 // then return the relation.
-                return UmlAssociation.umlAssociation(type, UmlAssociation.AssociationType.RELATION, referent, refereeCardinality, referentCardinality, label);
+                return UmlAssociation.umlAssociation(type.name(), UmlAssociation.AssociationType.RELATION, referent,
+                        annotation.refereeCardinality(), annotation.referentCardinality(), label);
             }
         }
         return null;
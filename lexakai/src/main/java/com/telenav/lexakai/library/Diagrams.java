@@ -18,10 +18,8 @@
 
 package com.telenav.lexakai.library;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
-import com.github.javaparser.ast.expr.AnnotationExpr;
 import com.telenav.kivakit.annotations.code.quality.CodeQuality;
-import com.telenav.lexakai.annotations.UmlClassDiagram;
+import com.telenav.lexakai.model.TypeModel;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -38,48 +36,16 @@ import static com.telenav.kivakit.annotations.code.quality.Testing.TESTING_NOT_N
              documentation = DOCUMENTATION_COMPLETE)
 public interface Diagrams
 {
-    /**
-     * Returns the @UmlClassDiagram annotation with the given lowercase hyphenated diagram name
-     */
-    static AnnotationExpr diagramAnnotation(TypeDeclaration<?> type, String diagramName)
-    {
-        for (var annotation : Annotations.annotations(type, UmlClassDiagram.class))
-        {
-            var expression = Annotations.value(annotation, "diagram");
-            if (expression != null)
-            {
-                if (diagramName.equals(Names.name(expression.asClassExpr(), Names.Qualification.UNQUALIFIED, Names.TypeParameters.WITHOUT_TYPE_PARAMETERS)))
-                {
-                    return annotation;
-                }
-            }
-        }
-        return null;
-    }
-
     /**
      * Returns the set of diagrams that the given type belongs to
      */
-    static Set<String> diagrams(TypeDeclaration<?> type, boolean includePackageDiagram)
+    static Set<String> diagrams(TypeModel type, boolean includePackageDiagram)
     {
-        var diagrams = new HashSet<String>();
-        for (var annotation : Annotations.annotations(type, UmlClassDiagram.class))
-        {
-            var expression = Annotations.value(annotation, "diagram");
-            if (expression != null)
-            {
-                var name = Names.name(expression.asClassExpr(), Names.Qualification.UNQUALIFIED, Names.TypeParameters.WITHOUT_TYPE_PARAMETERS);
-                if (name != null)
-                {
-                    diagrams.add(name);
-                }
-            }
-        }
+        var diagrams = new HashSet<>(type.annotations().diagramNames());
 
-        if (includePackageDiagram)
+        if (includePackageDiagram && type.qualifiedName() != null)
         {
-            var qualifiedName = type.getFullyQualifiedName();
-            qualifiedName.ifPresent(it -> diagrams.add(Names.packageName(it)));
+            diagrams.add(Names.packageName(type.qualifiedName()));
         }
         return diagrams;
     }
@@ -37,15 +37,15 @@ public class Fields
      */
     public static UmlAssociation.AssociationType associationType(FieldDeclaration field)
     {
-        if (field.getAnnotationByClass(UmlRelation.class).isPresent())
+        if (Annotations.annotation(field, UmlRelation.class).isPresent())
         {
             return UmlAssociation.AssociationType.RELATION;
         }
-        if (field.getAnnotationByClass(UmlComposition.class).isPresent())
+        if (Annotations.annotation(field, UmlComposition.class).isPresent())
         {
             return UmlAssociation.AssociationType.COMPOSITION;
         }
-        if (field.getAnnotationByClass(UmlAggregation.class).isPresent())
+        if (Annotations.annotation(field, UmlAggregation.class).isPresent())
         {
             return UmlAssociation.AssociationType.AGGREGATION;
         }
@@ -57,6 +57,6 @@ public class Fields
      */
     public static boolean isExcluded(FieldDeclaration field)
     {
-        return field.getAnnotationByClass(UmlExcludeMember.class).isPresent();
+        return Annotations.annotation(field, UmlExcludeMember.class).isPresent();
     }
 }
@@ -0,0 +1,161 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.library;
+
+import java.util.Arrays;
+
+/**
+ * A set of <i>long</i> values that doesn't box them, using open addressing with linear probing. Used with
+ * {@link #pair(int, int)} to hold pairs of {@link TypeSymbols}, like the ends of inheritance arrows.
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class LongHashSet
+{
+    /** The value that marks an empty slot */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * Returns the given pair of ints as a single long
+     */
+    public static long pair(int first, int second)
+    {
+        return ((long) first << 32) | (second & 0xFFFF_FFFFL);
+    }
+
+    /** True if the set contains the value that marks empty slots */
+    private boolean containsEmpty;
+
+    /** The number of values in the set */
+    private int size;
+
+    /** The slots of the table, which has a power of two size */
+    private long[] slots = newSlots(16);
+
+    /**
+     * Adds the given value to this set
+     *
+     * @return True if the value was added, false if it was already in the set
+     */
+    public boolean add(long value)
+    {
+        if (value == EMPTY)
+        {
+            if (containsEmpty)
+            {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        // Find the value or the empty slot where it belongs,
+        var index = index(slots, value);
+        if (slots[index] == value)
+        {
+            return false;
+        }
+
+        // store it there,
+        slots[index] = value;
+        size++;
+
+        // and grow the table if it is more than half full.
+        if (size * 2 > slots.length)
+        {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Removes all values from this set
+     */
+    public void clear()
+    {
+        Arrays.fill(slots, EMPTY);
+        containsEmpty = false;
+        size = 0;
+    }
+
+    /**
+     * Returns true if this set contains the given value
+     */
+    public boolean contains(long value)
+    {
+        if (value == EMPTY)
+        {
+            return containsEmpty;
+        }
+        return slots[index(slots, value)] == value;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the slot in the given table holding the given value, or the empty slot where it belongs
+     */
+    private static int index(long[] slots, long value)
+    {
+        var mask = slots.length - 1;
+        var hash = value * 0x9E37_79B9_7F4A_7C15L;
+        var index = (int) (hash ^ (hash >>> 32)) & mask;
+        while (slots[index] != EMPTY && slots[index] != value)
+        {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static long[] newSlots(int size)
+    {
+        var slots = new long[size];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    /**
+     * Doubles the size of the table, moving each value to its slot in the new table
+     */
+    private void grow()
+    {
+        var grown = newSlots(slots.length * 2);
+        for (var value : slots)
+        {
+            if (value != EMPTY)
+            {
+                grown[index(grown, value)] = value;
+            }
+        }
+        slots = grown;
+    }
+}
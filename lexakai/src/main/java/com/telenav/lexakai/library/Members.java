@@ -37,7 +37,7 @@ public class Members
                                            Class<? extends Annotation> annotation,
                                            String key)
     {
-        var expression = member.getAnnotationByClass(annotation);
+        var expression = Annotations.annotation(member, annotation);
         return expression.map(expr -> Annotations.stringValue(expr, key)).orElse(null);
     }
 
@@ -46,19 +46,19 @@ public class Members
      */
     public static String associationString(NodeWithAnnotations<?> member, String key)
     {
-        var aggregation = member.getAnnotationByClass(UmlAggregation.class);
+        var aggregation = Annotations.annotation(member, UmlAggregation.class);
         if (aggregation.isPresent())
         {
             return Annotations.stringValue(aggregation.get(), key);
         }
 
-        var composition = member.getAnnotationByClass(UmlComposition.class);
+        var composition = Annotations.annotation(member, UmlComposition.class);
         if (composition.isPresent())
         {
             return Annotations.stringValue(composition.get(), key);
         }
 
-        var relation = member.getAnnotationByClass(UmlRelation.class);
+        var relation = Annotations.annotation(member, UmlRelation.class);
         return relation.map(expr -> Annotations.stringValue(expr, key)).orElse(null);
     }
 }
@@ -20,12 +20,10 @@ package com.telenav.lexakai.library;
 
 import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
-import com.telenav.lexakai.annotations.UmlMethodGroup;
 import com.telenav.lexakai.annotations.associations.UmlRelation;
 import com.telenav.lexakai.annotations.visibility.UmlExcludeMember;
 import com.telenav.lexakai.associations.UmlAssociation;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -40,7 +38,7 @@ public class Methods
      */
     public static UmlAssociation.AssociationType associationType(MethodDeclaration method)
     {
-        if (method.getAnnotationByClass(UmlRelation.class).isPresent())
+        if (Annotations.annotation(method, UmlRelation.class).isPresent())
         {
             return UmlAssociation.AssociationType.RELATION;
         }
@@ -52,12 +50,7 @@ public class Methods
      */
     public static Set<String> explicitGroups(MethodDeclaration method)
     {
-        var groups = new HashSet<String>();
-        for (var annotation : Annotations.annotations(method, UmlMethodGroup.class))
-        {
-            groups.add(Annotations.stringValue(annotation));
-        }
-        return groups;
+        return AnnotationSummary.of(method).explicitGroups();
     }
 
     /**
@@ -65,7 +58,7 @@ public class Methods
      */
     public static boolean isExcluded(ConstructorDeclaration constructor)
     {
-        return constructor.getAnnotationByClass(UmlExcludeMember.class).isPresent();
+        return Annotations.annotation(constructor, UmlExcludeMember.class).isPresent();
     }
 
     /**
@@ -73,6 +66,6 @@ public class Methods
      */
     public static boolean isExcluded(MethodDeclaration method)
     {
-        return method.getAnnotationByClass(UmlExcludeMember.class).isPresent();
+        return Annotations.annotation(method, UmlExcludeMember.class).isPresent();
     }
 }
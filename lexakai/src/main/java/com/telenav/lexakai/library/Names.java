@@ -18,28 +18,40 @@
 
 package com.telenav.lexakai.library;
 
+import com.github.javaparser.ast.DataKey;
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.expr.ClassExpr;
 import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.Type;
-import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import com.telenav.kivakit.core.collections.list.StringList;
-import com.telenav.kivakit.core.string.CaseFormat;
-import com.telenav.kivakit.core.string.Strings;
+import com.telenav.lexakai.incremental.DiagramDependencies;
+import com.telenav.lexakai.parsing.TypeResolver;
+import com.telenav.lexakai.parsing.TypeResolver.Resolution;
 
+import java.nio.file.Path;
+
+import static com.telenav.lexakai.library.Names.Qualification.QUALIFIED;
 import static com.telenav.lexakai.library.Names.Qualification.UNQUALIFIED;
 import static com.telenav.lexakai.library.Names.TypeParameters.WITHOUT_TYPE_PARAMETERS;
+import static com.telenav.lexakai.library.Names.TypeParameters.WITH_TYPE_PARAMETERS;
 
 /**
  * This class contains utility methods for working with JavaParser names. Names can be produced with or without package
- * qualification and with or without type parameters. The package name for a type can be deduced with {@link
- * #packageName(String)}.
+ * qualification and with or without type parameters, using the interned forms of {@link TypeName}. The package name
+ * for a type can be deduced with {@link #packageName(String)}. Types are resolved with {@link TypeResolver}, which
+ * remembers what each type resolved to, and the name of each type node is kept in the node's data, so asking for it
+ * again doesn't look anything up.
  *
  * @author jonathanl (shibo)
  */
 public class Names
 {
+    /** Key for the name of a type node, and what it depended on, in its data */
+    private static final DataKey<NamedType> KEY = new DataKey<>()
+    {
+    };
+
     /**
      * Returns the name of the given type with or without qualification or type parameters
      */
@@ -47,27 +59,7 @@ public class Names
                               Qualification qualification,
                               TypeParameters parameters)
     {
-        // If the type is a class or interface,
-        if (type.isClassOrInterfaceType())
-        {
-            // get the qualified name using the scope recursively,
-            var classOrInterface = type.asClassOrInterfaceType();
-            if (classOrInterface.getScope().isPresent())
-            {
-                return qualifiedName(classOrInterface);
-            }
-        }
-
-        // otherwise try resolving the type to some type in the set of projects that the parser knows about,
-        var resolved = resolve(type);
-        if (resolved != null)
-        {
-            // and return that if it's found,
-            return name(resolved, qualification, parameters);
-        }
-
-        // and finally, use an unqualified simple name if we can't figure anything out
-        return apply(simpleName(type), qualification, parameters);
+        return typeName(type).name(qualification, parameters);
     }
 
     /**
@@ -77,13 +69,7 @@ public class Names
                               Qualification qualification,
                               TypeParameters parameters)
     {
-        // Get the fully qualified type name,
-        var qualifiedName = type.getFullyQualifiedName();
-
-        // but just return the simple name if we can't do that.
-        var name = qualifiedName.orElseGet(() -> simpleName(type));
-        var typeParameters = typeParameters(type);
-        return apply(name + Strings.notNull(typeParameters), qualification, parameters);
+        return TypeName.typeName(type).name(qualification, parameters);
     }
 
     /**
@@ -101,7 +87,7 @@ public class Names
         var resolved = resolve(expression.getType());
         if (resolved != null)
         {
-            return name(resolved, qualification, parameters);
+            return apply(resolved.qualifiedName(), qualification, parameters);
         }
 
         return expression.getType().asString();
@@ -122,6 +108,26 @@ public class Names
         return node.getName().asString();
     }
 
+    /**
+     * Returns the name of the given type, resolving it once for all combinations of qualification and type parameters.
+     * The name is kept in the type's data, so this should be called on the thread that parsed the type.
+     */
+    public static TypeName typeName(Type type)
+    {
+        // If the type hasn't been named yet,
+        var named = type.containsData(KEY) ? type.getData(KEY) : null;
+        if (named == null)
+        {
+            // name it and keep the name in its data,
+            named = namedType(type);
+            type.setData(KEY, named);
+        }
+
+        // then record what the name depended on for incremental builds, and return it.
+        DiagramDependencies.referenced(named.referencedName(), named.file());
+        return named.name();
+    }
+
     /**
      * Returns any type parameters of the given type as a string
      */
@@ -144,12 +150,7 @@ public class Names
      */
     public static String withoutQualification(String qualifiedClassName)
     {
-        var components = StringList.split(qualifiedClassName, ".");
-        while (!components.isEmpty() && !CaseFormat.isCapitalized(components.get(0)))
-        {
-            components.remove(0);
-        }
-        return components.join(".");
+        return TypeName.typeName(qualifiedClassName).name(UNQUALIFIED, WITH_TYPE_PARAMETERS);
     }
 
     /**
@@ -157,7 +158,7 @@ public class Names
      */
     public static String withoutTypeParameters(String typeName)
     {
-        return typeName.replaceAll("<.*>", "");
+        return TypeName.typeName(typeName).name(QUALIFIED, WITHOUT_TYPE_PARAMETERS);
     }
 
     /**
@@ -184,27 +185,37 @@ public class Names
 
     private static String apply(String name, Qualification qualification, TypeParameters parameters)
     {
-        // Un-qualify the name if desired,
-        if (qualification == UNQUALIFIED)
+        // Un-qualify the name and remove type parameters as desired.
+        return TypeName.typeName(name).name(qualification, parameters);
+    }
+
+    /**
+     * Returns the name of the given type, along with what it depended on
+     */
+    private static NamedType namedType(Type type)
+    {
+        // If the type is a class or interface,
+        if (type.isClassOrInterfaceType())
         {
-            name = withoutQualification(name);
+            // get the qualified name using the scope recursively,
+            var classOrInterface = type.asClassOrInterfaceType();
+            if (classOrInterface.getScope().isPresent())
+            {
+                return new NamedType(TypeName.fixedName(qualifiedName(classOrInterface)), null, null);
+            }
         }
 
-        // and remove type parameters if desired,
-        if (parameters == WITHOUT_TYPE_PARAMETERS)
+        // otherwise try resolving the type to some type in the set of projects that the parser knows about,
+        var referencedName = referencedName(type);
+        var resolved = TypeResolver.resolve(type);
+        if (resolved != null)
         {
-            name = withoutTypeParameters(name);
+            // and return that if it's found,
+            return new NamedType(TypeName.typeName(resolved.qualifiedName()), referencedName, resolved.file());
         }
 
-        return name;
-    }
-
-    private static String name(ResolvedReferenceType referenceType,
-                               Qualification qualification,
-                               TypeParameters parameters)
-    {
-        var name = referenceType.asReferenceType().getQualifiedName();
-        return apply(name, qualification, parameters);
+        // and finally, use an unqualified simple name if we can't figure anything out
+        return new NamedType(TypeName.typeName(simpleName(type)), referencedName, null);
     }
 
     private static String qualifiedName(ClassOrInterfaceType classOrInterface)
@@ -217,19 +228,31 @@ public class Names
         return name + classOrInterface.getNameAsString();
     }
 
-    private static ResolvedReferenceType resolve(Type type)
+    /**
+     * Returns the simple name that the given type refers to, since adding a type with this name could change how it
+     * resolves, or null if it isn't a class or interface type
+     */
+    private static String referencedName(Type type)
+    {
+        var element = type.getElementType();
+        return element.isClassOrInterfaceType() ? element.asClassOrInterfaceType().getNameAsString() : null;
+    }
+
+    private static Resolution resolve(Type type)
+    {
+        // Resolve the type,
+        var resolution = TypeResolver.resolve(type);
+
+        // and record the name it refers to and any file that declares it for incremental builds.
+        DiagramDependencies.referenced(referencedName(type), resolution != null ? resolution.file() : null);
+        return resolution;
+    }
+
+    /**
+     * The name of a type node, along with the simple name it refers to and the source file declaring the type it
+     * resolved to, either of which may be null
+     */
+    private record NamedType(TypeName name, String referencedName, Path file)
     {
-        try
-        {
-            var resolved = type.resolve();
-            if (resolved.isReferenceType())
-            {
-                return resolved.asReferenceType();
-            }
-        }
-        catch (Exception ignored)
-        {
-        }
-        return null;
     }
 }
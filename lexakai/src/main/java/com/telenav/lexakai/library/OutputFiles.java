@@ -0,0 +1,59 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.library;
+
+import com.telenav.kivakit.filesystem.File;
+
+/**
+ * Utility methods for writing output files.
+ *
+ * @author jonathanl (shibo)
+ */
+public class OutputFiles
+{
+    /**
+     * Writes the given text to the given file, unless the file already has exactly that content, in which case it is
+     * left untouched, including its last modified time
+     *
+     * @return True if the file was written
+     */
+    public static boolean saveIfChanged(File file, String text)
+    {
+        // If the file already exists with the same content,
+        if (file.exists() && text.equals(file.reader().asString()))
+        {
+            // leave it alone,
+            return false;
+        }
+
+        // otherwise, write the text to it.
+        file.parent().mkdirs();
+        file.writer().saveText(text);
+        return true;
+    }
+
+    /**
+     * Returns the .svg file that PlantUML produces for the given .puml file
+     */
+    public static File svgFile(File puml)
+    {
+        var name = puml.fileName().name();
+        return puml.parent().file(name.substring(0, name.length() - ".puml".length()) + ".svg");
+    }
+}
@@ -0,0 +1,263 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.library;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.telenav.kivakit.core.collections.list.StringList;
+import com.telenav.kivakit.core.string.CaseFormat;
+import com.telenav.kivakit.core.string.Strings;
+import com.telenav.lexakai.library.Names.Qualification;
+import com.telenav.lexakai.library.Names.TypeParameters;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.telenav.lexakai.library.Names.Qualification.QUALIFIED;
+import static com.telenav.lexakai.library.Names.TypeParameters.WITH_TYPE_PARAMETERS;
+
+/**
+ * A type name in all four combinations of {@link Qualification} and {@link TypeParameters}, computed once.
+ *
+ * <p><b>Interning</b></p>
+ *
+ * <p>
+ * Type names are interned by {@link #typeName(String)}, so each distinct name is only split and stripped of type
+ * parameters once, no matter how often {@link Names} is asked for one of its forms. The forms are computed with the
+ * same rules as before, so {@link Names#withoutQualification(String)} and {@link Names#withoutTypeParameters(String)}
+ * return the same strings that they always have.
+ * </p>
+ *
+ * <p>
+ * Names are interned for one run of Lexakai, which calls {@link #clear()} when it starts, so a JVM that runs Lexakai
+ * more than once only keeps the names of its latest run, which the projects and diagrams of that run still refer to.
+ * </p>
+ *
+ * <p><b>Declarations</b></p>
+ *
+ * <p>
+ * The name of a type declaration doesn't depend on symbol resolution, so {@link #cache(TypeDeclaration)} stores it in
+ * the declaration's data when the declaration is parsed, and {@link #typeName(TypeDeclaration)} finds it there.
+ * </p>
+ *
+ * <p><b>Fixed Names</b></p>
+ *
+ * <p>
+ * A name written with a scope, like <i>Map.Entry</i>, is used as written no matter which form is asked for, so
+ * {@link #fixedName(String)} returns a name whose four forms are all the same string. {@link #isFixed()} tells such a
+ * name apart from one that {@link #typeName(String)} split into the same four forms, so a name can be interned again
+ * the same way, as it is when models are read from the model cache.
+ * </p>
+ *
+ * <p><b>Symbols</b></p>
+ *
+ * <p>
+ * The {@link TypeSymbols} of the name without type parameters, qualified and unqualified, are looked up the first time
+ * they are asked for and kept, so sets of types can be tested without hashing the name again.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public final class TypeName
+{
+    /** Key for the name of a type declaration in its data */
+    private static final DataKey<TypeName> KEY = new DataKey<>()
+    {
+    };
+
+    /** Interned fixed names */
+    private static final Map<String, TypeName> fixedNames = new ConcurrentHashMap<>();
+
+    /** Interned type names */
+    private static final Map<String, TypeName> names = new ConcurrentHashMap<>();
+
+    /**
+     * Stores the name of the given type declaration in its data. This should be called on the thread that parsed the
+     * declaration, before it is shared with other threads.
+     */
+    public static void cache(TypeDeclaration<?> type)
+    {
+        type.setData(KEY, declaredName(type));
+    }
+
+    /**
+     * Forgets all interned names, and the symbols given to them, so the names of one run aren't kept by the next
+     */
+    public static void clear()
+    {
+        names.clear();
+        fixedNames.clear();
+        TypeSymbols.clear();
+    }
+
+    /**
+     * Returns the interned name that is the given string in all four forms
+     */
+    public static TypeName fixedName(String name)
+    {
+        return fixedNames.computeIfAbsent(name, ignored -> new TypeName(name, name, name, name));
+    }
+
+    /**
+     * Returns the interned type name for the given name, which may have a package qualifier and type parameters
+     */
+    public static TypeName typeName(String name)
+    {
+        var existing = names.get(name);
+        if (existing != null)
+        {
+            return existing;
+        }
+        var created = new TypeName(name);
+        var previous = names.putIfAbsent(name, created);
+        return previous != null ? previous : created;
+    }
+
+    /**
+     * Returns the name of the given type declaration
+     */
+    public static TypeName typeName(TypeDeclaration<?> type)
+    {
+        return type.containsData(KEY) ? type.getData(KEY) : declaredName(type);
+    }
+
+    private static TypeName declaredName(TypeDeclaration<?> type)
+    {
+        // Get the fully qualified type name, or the simple name if we can't do that.
+        var name = type.getFullyQualifiedName().orElseGet(() -> Names.simpleName(type));
+        return typeName(name + Strings.notNull(Names.typeParameters(type)));
+    }
+
+    /**
+     * Returns the given qualified class name without the package qualifier
+     */
+    private static String withoutQualification(String qualifiedClassName)
+    {
+        var components = StringList.split(qualifiedClassName, ".");
+        while (!components.isEmpty() && !CaseFormat.isCapitalized(components.get(0)))
+        {
+            components.remove(0);
+        }
+        return components.join(".");
+    }
+
+    /**
+     * Returns the given type name without type parameters
+     */
+    private static String withoutTypeParameters(String typeName)
+    {
+        return typeName.replaceAll("<.*>", "");
+    }
+
+    /** True if this name is used as written in all four forms */
+    private final boolean fixed;
+
+    /** The name as given */
+    private final String qualified;
+
+    /** The name without type parameters */
+    private final String qualifiedWithoutTypeParameters;
+
+    /** The name without a package qualifier */
+    private final String unqualified;
+
+    /** The name without a package qualifier or type parameters */
+    private final String unqualifiedWithoutTypeParameters;
+
+    /** The symbol of the name without type parameters, or -1 if it hasn't been looked up */
+    private volatile int qualifiedSymbol = -1;
+
+    /** The symbol of the name without a package qualifier or type parameters, or -1 if it hasn't been looked up */
+    private volatile int unqualifiedSymbol = -1;
+
+    private TypeName(String name)
+    {
+        fixed = false;
+        qualified = name;
+        qualifiedWithoutTypeParameters = withoutTypeParameters(name);
+        unqualified = withoutQualification(name);
+        unqualifiedWithoutTypeParameters = withoutTypeParameters(unqualified);
+    }
+
+    private TypeName(String qualified,
+                     String qualifiedWithoutTypeParameters,
+                     String unqualified,
+                     String unqualifiedWithoutTypeParameters)
+    {
+        fixed = true;
+        this.qualified = qualified;
+        this.qualifiedWithoutTypeParameters = qualifiedWithoutTypeParameters;
+        this.unqualified = unqualified;
+        this.unqualifiedWithoutTypeParameters = unqualifiedWithoutTypeParameters;
+    }
+
+    /**
+     * Returns this name with or without qualification or type parameters
+     */
+    /**
+     * Returns true if this name was interned by {@link #fixedName(String)}
+     */
+    public boolean isFixed()
+    {
+        return fixed;
+    }
+
+    public String name(Qualification qualification, TypeParameters parameters)
+    {
+        if (qualification == QUALIFIED)
+        {
+            return parameters == WITH_TYPE_PARAMETERS ? qualified : qualifiedWithoutTypeParameters;
+        }
+        return parameters == WITH_TYPE_PARAMETERS ? unqualified : unqualifiedWithoutTypeParameters;
+    }
+
+    /**
+     * Returns the symbol of this name without type parameters
+     */
+    public int symbol()
+    {
+        return symbol(QUALIFIED);
+    }
+
+    /**
+     * Returns the symbol of this name without type parameters, with or without qualification
+     */
+    public int symbol(Qualification qualification)
+    {
+        if (qualification == QUALIFIED)
+        {
+            if (qualifiedSymbol < 0)
+            {
+                qualifiedSymbol = TypeSymbols.symbol(qualifiedWithoutTypeParameters);
+            }
+            return qualifiedSymbol;
+        }
+        if (unqualifiedSymbol < 0)
+        {
+            unqualifiedSymbol = TypeSymbols.symbol(unqualifiedWithoutTypeParameters);
+        }
+        return unqualifiedSymbol;
+    }
+
+    @Override
+    public String toString()
+    {
+        return qualified;
+    }
+}
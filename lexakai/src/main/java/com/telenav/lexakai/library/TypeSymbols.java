@@ -0,0 +1,92 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.library;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A table that gives each type name in a run a small integer, its symbol, so that sets of types can be kept in
+ * {@link java.util.BitSet}s and pairs of types in a {@link LongHashSet}, without hashing names again.
+ *
+ * <p><b>Symbols</b></p>
+ *
+ * <p>
+ * Symbols are dense, starting at zero, in the order that names are first asked for. Two names have the same symbol if
+ * and only if they are the same string, so a test of a symbol answers the same question as a test of the name. Since
+ * the order depends on which thread gets to a name first, symbols should only be used for membership, never for
+ * ordering output.
+ * </p>
+ *
+ * <p>
+ * The symbols of a {@link TypeName} are looked up once and kept in the name, by {@link TypeName#symbol()} and
+ * {@link TypeName#symbol(Names.Qualification)}.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public final class TypeSymbols
+{
+    /** The next symbol to give out */
+    private static final AtomicInteger next = new AtomicInteger();
+
+    /** Symbols by name */
+    private static final Map<String, Integer> symbols = new ConcurrentHashMap<>();
+
+    /**
+     * Forgets all symbols, so the next symbol given out is zero again. This should only be called by
+     * {@link TypeName#clear()}, since a name keeps its symbols once they are looked up.
+     */
+    static void clear()
+    {
+        symbols.clear();
+        next.set(0);
+    }
+
+    /**
+     * Returns the symbol of the given name, or -1 if no symbol has been given to it, in which case no set of
+     * symbols can contain it
+     */
+    public static int find(String name)
+    {
+        var symbol = symbols.get(name);
+        return symbol == null ? -1 : symbol;
+    }
+
+    /**
+     * Returns the number of symbols given out
+     */
+    public static int size()
+    {
+        return next.get();
+    }
+
+    /**
+     * Returns the symbol of the given name, giving it the next symbol if it doesn't have one yet
+     */
+    public static int symbol(String name)
+    {
+        return symbols.computeIfAbsent(name, ignored -> next.getAndIncrement());
+    }
+
+    private TypeSymbols()
+    {
+    }
+}
@@ -20,8 +20,6 @@ package com.telenav.lexakai.library;
 
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.type.Type;
-import com.telenav.lexakai.LexakaiClassDiagram;
-import com.telenav.lexakai.annotations.visibility.UmlExcludeSuperTypes;
 import com.telenav.lexakai.annotations.visibility.UmlNotPublicApi;
 
 import java.util.List;
@@ -65,39 +63,6 @@ public class Types
         return false;
     }
 
-    /**
-     * Returns true if the given supertype is excluded by a @UmlExcludeSuperTypes annotation
-     */
-    public static boolean isExcludedSuperType(TypeDeclaration<?> type,
-                                              LexakaiClassDiagram diagram,
-                                              String supertype)
-    {
-        if (supertype != null)
-        {
-            var annotation = type.getAnnotationByClass(UmlExcludeSuperTypes.class);
-            if (annotation.isPresent())
-            {
-                if (annotation.get().isMarkerAnnotationExpr())
-                {
-                    return true;
-                }
-                var classes = Annotations.classNames(annotation.get());
-                if (classes.contains(supertype))
-                {
-                    return true;
-                }
-            }
-
-            var diagramAnnotation = Diagrams.diagramAnnotation(type, diagram.name());
-            if (diagramAnnotation != null)
-            {
-                var excludeAll = Annotations.booleanValue(diagramAnnotation.asAnnotationExpr(), "excludeAllSuperTypes", false);
-                return excludeAll || Annotations.classNames(diagramAnnotation, "excludeSuperTypes").contains(supertype);
-            }
-        }
-        return false;
-    }
-
     /**
      * Returns true if the given type is an interface
      */
@@ -111,7 +76,7 @@ public class Types
      */
     public static boolean isNotPublicApi(TypeDeclaration<?> type)
     {
-        return type.getAnnotationByClass(UmlNotPublicApi.class).isPresent();
+        return Annotations.annotation(type, UmlNotPublicApi.class).isPresent();
     }
 
     /**
@@ -136,6 +101,19 @@ public class Types
         return false;
     }
 
+    /**
+     * Returns true if the given type, which has the given name, is a valid reference type, as
+     * {@link #isReference(Type)} would, without resolving the type again
+     */
+    public static boolean isReference(Type type, TypeName name)
+    {
+        if (!type.isUnknownType() && !type.isWildcardType() && !type.isPrimitiveType())
+        {
+            return !excludedTypes.contains(name.name(Names.Qualification.UNQUALIFIED, Names.TypeParameters.WITHOUT_TYPE_PARAMETERS));
+        }
+        return false;
+    }
+
     /**
      * Returns the type of the declaration: interface, abstract class, class, enum or annotation.
      */
@@ -18,8 +18,7 @@
 
 package com.telenav.lexakai.members;
 
-import com.github.javaparser.ast.body.ConstructorDeclaration;
-import com.telenav.lexakai.library.Methods;
+import com.telenav.lexakai.model.ConstructorModel;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -29,10 +28,10 @@ import org.jetbrains.annotations.NotNull;
  */
 public class UmlConstructor implements Comparable<UmlConstructor>
 {
-    /** The constructor declaration */
-    private final ConstructorDeclaration constructor;
+    /** The constructor */
+    private final ConstructorModel constructor;
 
-    public UmlConstructor(ConstructorDeclaration constructor)
+    public UmlConstructor(ConstructorModel constructor)
     {
         this.constructor = constructor;
     }
@@ -40,12 +39,12 @@ public class UmlConstructor implements Comparable<UmlConstructor>
     @Override
     public int compareTo(@NotNull UmlConstructor that)
     {
-        return constructor.getDeclarationAsString().compareTo(that.constructor.getDeclarationAsString());
+        return constructor.declaration().compareTo(that.constructor.declaration());
     }
 
     public boolean isExcluded()
     {
-        return Methods.isExcluded(constructor);
+        return constructor.isExcluded();
     }
 
     public boolean isProtected()
@@ -58,13 +57,8 @@ public class UmlConstructor implements Comparable<UmlConstructor>
         return constructor.isPublic();
     }
 
-    public String name()
-    {
-        return constructor.getName().asString();
-    }
-
     public String uml()
     {
-        return (isPublic() ? "+" : "#") + constructor.getDeclarationAsString(false, false, false);
+        return (isPublic() ? "+" : "#") + constructor.signature();
     }
 }
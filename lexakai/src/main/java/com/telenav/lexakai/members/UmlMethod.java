@@ -18,12 +18,10 @@
 
 package com.telenav.lexakai.members;
 
-import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
 import com.telenav.kivakit.core.collections.list.StringList;
 import com.telenav.kivakit.core.string.Strings;
-import com.telenav.lexakai.library.Methods;
-import com.telenav.lexakai.library.Names;
+import com.telenav.lexakai.model.MethodModel;
+import com.telenav.lexakai.model.TypeModel;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Objects;
@@ -37,20 +35,18 @@ import java.util.Set;
 public class UmlMethod implements Comparable<UmlMethod>
 {
     /** The parent in which this method is declared */
-    private final ClassOrInterfaceDeclaration parent;
+    private final TypeModel parent;
 
-    /** The method declaration */
-    private final MethodDeclaration method;
+    /** The method */
+    private final MethodModel method;
 
-    /** The set of method groups that this method belongs to */
-    private final Set<String> explicitGroups;
+    /** The UML for this method */
+    private String uml;
 
-    public UmlMethod(ClassOrInterfaceDeclaration parent, MethodDeclaration method)
+    public UmlMethod(TypeModel parent, MethodModel method)
     {
         this.parent = parent;
         this.method = method;
-
-        explicitGroups = Methods.explicitGroups(method);
     }
 
     @Override
@@ -79,7 +75,7 @@ public class UmlMethod implements Comparable<UmlMethod>
      */
     public Set<String> explicitGroupNames()
     {
-        return explicitGroups;
+        return method.explicitGroups();
     }
 
     @Override
@@ -93,12 +89,12 @@ public class UmlMethod implements Comparable<UmlMethod>
      */
     public boolean isExcluded()
     {
-        return Methods.isExcluded(method);
+        return method.isExcluded();
     }
 
     public boolean isOverride()
     {
-        return method.getAnnotationByClass(Override.class).isPresent();
+        return method.isOverride();
     }
 
     public boolean isProtected()
@@ -111,17 +107,17 @@ public class UmlMethod implements Comparable<UmlMethod>
         return method.isPublic();
     }
 
-    public MethodDeclaration method()
+    public MethodModel method()
     {
         return method;
     }
 
     public String name()
     {
-        return method.getName().asString();
+        return method.name();
     }
 
-    public ClassOrInterfaceDeclaration parent()
+    public TypeModel parent()
     {
         return parent;
     }
@@ -131,12 +127,12 @@ public class UmlMethod implements Comparable<UmlMethod>
      */
     public String returnType()
     {
-        return method.getType().asString();
+        return method.returnType().text();
     }
 
     public String simpleName()
     {
-        return Names.simpleName(method);
+        return method.name();
     }
 
     @Override
@@ -145,22 +141,35 @@ public class UmlMethod implements Comparable<UmlMethod>
         return uml();
     }
 
+    /**
+     * Returns the UML signature of this method
+     */
     public String uml()
+    {
+        if (uml == null)
+        {
+            uml = buildUml();
+        }
+        return uml;
+    }
+
+    /**
+     * Builds the UML signature of this method
+     */
+    private String buildUml()
     {
         var methodName = name();
         var override = isOverride() ? "^" : "";
         var protection = (parent.isInterface() || isPublic()) ? "+" : "#";
-        var returnType = method.getType();
-        var parameters = method.getParameters();
         var list = new StringList();
-        for (var parameter : parameters)
+        for (var parameter : method.parameters())
         {
-            var parameterType = parameter.getType().asString();
+            var parameterType = parameter.type();
             if (parameter.isVarArgs())
             {
                 parameterType += "...";
             }
-            var parameterName = parameter.getName().asString();
+            var parameterName = parameter.name();
             if (Strings.containsIgnoreCase(parameterType, parameterName))
             {
                 list.add(parameterType);
@@ -170,7 +179,7 @@ public class UmlMethod implements Comparable<UmlMethod>
                 list.add(parameterType + " " + parameterName);
             }
         }
-        return protection + override + returnType.asString() + " " + methodName + "(" + list.join(", ") + ")";
+        return protection + override + returnType() + " " + methodName + "(" + list.join(", ") + ")";
     }
 
     private int sortOrder()
@@ -0,0 +1,66 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.metrics;
+
+/**
+ * The phases of a Lexakai run that are measured by {@link RunMetrics}.
+ *
+ * @author jonathanl (shibo)
+ */
+public enum Phase
+{
+    DISCOVERY("discovery", "project folders"),
+    POM_LOADING("pom-loading", "pom files"),
+    DEPENDENCY_TREES("dependency-trees", "trees"),
+    PACKAGE_INDEXING("package-indexing", "source folders"),
+    PARSING("parsing", "source files"),
+    SYMBOL_RESOLUTION("symbol-resolution", "types"),
+    METHOD_GROUPING("method-grouping", "types"),
+    UML_EMISSION("uml-emission", "diagrams"),
+    README_UPDATE("readme-update", "projects"),
+    SVG_RENDERING("svg-rendering", "diagrams");
+
+    /** The name of this phase in reports */
+    private final String key;
+
+    /** What the items counted for this phase are */
+    private final String items;
+
+    Phase(String key, String items)
+    {
+        this.key = key;
+        this.items = items;
+    }
+
+    /**
+     * Returns a description of the items counted for this phase
+     */
+    public String items()
+    {
+        return items;
+    }
+
+    /**
+     * Returns the name of this phase in reports
+     */
+    public String key()
+    {
+        return key;
+    }
+}
@@ -0,0 +1,99 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals for one {@link Phase} of a Lexakai run, which can be added to from any thread.
+ *
+ * @author jonathanl (shibo)
+ */
+public class PhaseMetrics
+{
+    /** The phase */
+    private final Phase phase;
+
+    /** The number of times the phase was entered */
+    private final LongAdder invocations = new LongAdder();
+
+    /** The number of items processed */
+    private final LongAdder items = new LongAdder();
+
+    /** Wall time in nanoseconds */
+    private final LongAdder wallNanoseconds = new LongAdder();
+
+    /** CPU time in nanoseconds */
+    private final LongAdder cpuNanoseconds = new LongAdder();
+
+    /** Bytes allocated */
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    PhaseMetrics(Phase phase)
+    {
+        this.phase = phase;
+    }
+
+    public long allocatedBytes()
+    {
+        return allocatedBytes.sum();
+    }
+
+    public long cpuNanoseconds()
+    {
+        return cpuNanoseconds.sum();
+    }
+
+    public long invocations()
+    {
+        return invocations.sum();
+    }
+
+    public long items()
+    {
+        return items.sum();
+    }
+
+    public Phase phase()
+    {
+        return phase;
+    }
+
+    public long wallNanoseconds()
+    {
+        return wallNanoseconds.sum();
+    }
+
+    void addInvocation(long wallNanoseconds)
+    {
+        invocations.increment();
+        this.wallNanoseconds.add(wallNanoseconds);
+    }
+
+    void addItems(long count)
+    {
+        items.add(count);
+    }
+
+    void addWork(long cpuNanoseconds, long allocatedBytes)
+    {
+        this.cpuNanoseconds.add(cpuNanoseconds);
+        this.allocatedBytes.add(allocatedBytes);
+    }
+}
@@ -0,0 +1,337 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.metrics;
+
+import com.telenav.kivakit.core.collections.list.StringList;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Measures the time and memory spent in each {@link Phase} of a Lexakai run. Each run has its own metrics, which it
+ * creates when it starts.
+ *
+ * <p><b>Measuring</b></p>
+ *
+ * <p>
+ * Code in a phase is run with {@link #measure(Phase, Supplier)}, which records wall time, CPU time and the bytes
+ * allocated by the calling thread. Phases can be nested, as when UML emission resolves symbols, and each phase is
+ * charged only for the time not spent in the phases nested inside it, so the totals for all phases add up to the
+ * measured part of the run. Work that a phase hands to other threads, like parsing files in parallel, is measured
+ * with {@link #measureWork(Phase, Supplier)}, which adds CPU time and allocation to the phase but not wall time,
+ * since the thread that is waiting for the work is already being timed. Items processed in a phase, like files or
+ * diagrams, are counted with {@link #count(Phase, long)}.
+ * </p>
+ *
+ * <p><b>Disabling</b></p>
+ *
+ * <p>
+ * Reading the thread CPU time and allocation counters costs more than some of the code being measured, so metrics
+ * that are not enabled just run the code, without reading any counters or recording anything.
+ * </p>
+ *
+ * <p><b>Accuracy</b></p>
+ *
+ * <p>
+ * Allocation is measured with the JVM's per-thread allocation counters, which are estimates. Phases that overlap,
+ * like rendering in a pipeline or projects output in parallel, each record their own wall time, so the wall times of
+ * all phases can add up to more than the elapsed time. Work done in a child process, like forked PlantUML rendering,
+ * is included in wall time only.
+ * </p>
+ *
+ * <p><b>Reporting</b></p>
+ *
+ * <p>
+ * The {@link #summary()} method returns lines for the summary shown at the end of a run, and {@link #save(Path, String,
+ * Map)} writes a JSON report that can be archived and graphed by a build server.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class RunMetrics
+{
+    /** Thread CPU time and allocation counters */
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** True if the JVM can measure thread CPU time */
+    private static final boolean cpuMeasured = threads.isCurrentThreadCpuTimeSupported();
+
+    /** True if the JVM can measure thread allocation */
+    private static final boolean allocationMeasured = threads.isThreadAllocatedMemorySupported();
+
+    /** True if phases are measured */
+    private final boolean enabled;
+
+    /** The phases each thread is currently in, innermost first */
+    private final ThreadLocal<ArrayDeque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /** Totals for each phase */
+    private final Map<Phase, PhaseMetrics> phases = new EnumMap<>(Phase.class);
+
+    /** When the run started */
+    private final Instant started = Instant.now();
+
+    /** When the run started, in nanoseconds */
+    private final long startedNanoseconds = System.nanoTime();
+
+    /**
+     * @param enabled True to measure phases, false to just run the code in them
+     */
+    public RunMetrics(boolean enabled)
+    {
+        this.enabled = enabled;
+
+        for (var phase : Phase.values())
+        {
+            phases.put(phase, new PhaseMetrics(phase));
+        }
+
+        // If we're measuring, make sure the JVM's counters are turned on.
+        if (enabled)
+        {
+            if (cpuMeasured && !threads.isThreadCpuTimeEnabled())
+            {
+                threads.setThreadCpuTimeEnabled(true);
+            }
+            if (allocationMeasured && !threads.isThreadAllocatedMemoryEnabled())
+            {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+    }
+
+    /**
+     * Adds the given number of items to the count for the given phase
+     */
+    public void count(Phase phase, long items)
+    {
+        if (enabled)
+        {
+            phases.get(phase).addItems(items);
+        }
+    }
+
+    /**
+     * Returns true if phases are being measured
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Runs the given code in the given phase, returning its result
+     */
+    public <T> T measure(Phase phase, Supplier<T> code)
+    {
+        return enabled ? measure(phase, false, code) : code.get();
+    }
+
+    /**
+     * Runs the given code in the given phase
+     */
+    public void measure(Phase phase, Runnable code)
+    {
+        if (enabled)
+        {
+            measure(phase, false, () ->
+            {
+                code.run();
+                return null;
+            });
+        }
+        else
+        {
+            code.run();
+        }
+    }
+
+    /**
+     * Runs the given code on behalf of the given phase, on a thread other than the one that is timing the phase,
+     * adding its CPU time and allocation to the phase
+     */
+    public <T> T measureWork(Phase phase, Supplier<T> code)
+    {
+        return enabled ? measure(phase, true, code) : code.get();
+    }
+
+    /**
+     * Returns the totals for the given phase, which are zero if phases are not being measured
+     */
+    public PhaseMetrics metrics(Phase phase)
+    {
+        return phases.get(phase);
+    }
+
+    /**
+     * Writes a JSON report of the run so far to the given file
+     *
+     * @param file The file to write
+     * @param version The version of Lexakai
+     * @param counters Other totals to include in the report
+     */
+    public void save(Path file, String version, Map<String, Long> counters) throws IOException
+    {
+        var json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"version\": \"").append(version).append("\",\n");
+        json.append("  \"started\": \"").append(started).append("\",\n");
+        json.append("  \"elapsedMilliseconds\": ").append(milliseconds(System.nanoTime() - startedNanoseconds)).append(",\n");
+        json.append("  \"cpuMeasured\": ").append(cpuMeasured).append(",\n");
+        json.append("  \"allocationMeasured\": ").append(allocationMeasured).append(",\n");
+
+        // Add the counters,
+        json.append("  \"counters\": {");
+        var separator = "\n";
+        for (var entry : counters.entrySet())
+        {
+            json.append(separator).append("    \"").append(entry.getKey()).append("\": ").append(entry.getValue());
+            separator = ",\n";
+        }
+        json.append("\n  },\n");
+
+        // and the totals for each phase.
+        json.append("  \"phases\": [");
+        separator = "\n";
+        for (var metrics : phases.values())
+        {
+            json.append(separator)
+                    .append("    { \"phase\": \"").append(metrics.phase().key())
+                    .append("\", \"invocations\": ").append(metrics.invocations())
+                    .append(", \"items\": ").append(metrics.items())
+                    .append(", \"wallMilliseconds\": ").append(milliseconds(metrics.wallNanoseconds()))
+                    .append(", \"cpuMilliseconds\": ").append(milliseconds(metrics.cpuNanoseconds()))
+                    .append(", \"allocatedBytes\": ").append(metrics.allocatedBytes())
+                    .append(" }");
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a line for each phase that has been entered, for the summary of a run
+     */
+    public StringList summary()
+    {
+        var lines = new StringList();
+        for (var metrics : phases.values())
+        {
+            if (metrics.invocations() > 0 || metrics.cpuNanoseconds() > 0)
+            {
+                lines.add(String.format("%s: %,d ms (%,d ms cpu, %,.1f MB allocated, %,d %s)",
+                        metrics.phase().key(),
+                        milliseconds(metrics.wallNanoseconds()),
+                        milliseconds(metrics.cpuNanoseconds()),
+                        metrics.allocatedBytes() / (1024.0 * 1024.0),
+                        metrics.items(),
+                        metrics.phase().items()));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far, or zero if this can't be measured
+     */
+    private static long allocated()
+    {
+        return allocationMeasured ? threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Returns the CPU time used by the current thread so far, or zero if this can't be measured
+     */
+    private static long cpu()
+    {
+        return cpuMeasured ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    private <T> T measure(Phase phase, boolean workOnly, Supplier<T> code)
+    {
+        // Enter the phase,
+        var stack = frames.get();
+        var frame = new Frame();
+        stack.push(frame);
+        try
+        {
+            // and run the code.
+            return code.get();
+        }
+        finally
+        {
+            // When it's done, leave the phase,
+            stack.pop();
+            var wall = System.nanoTime() - frame.wall;
+            var cpu = cpu() - frame.cpu;
+            var allocated = allocated() - frame.allocated;
+
+            // charge the phase for what wasn't spent in nested phases,
+            var metrics = phases.get(phase);
+            if (!workOnly)
+            {
+                metrics.addInvocation(wall - frame.nestedWall);
+            }
+            metrics.addWork(cpu - frame.nestedCpu, allocated - frame.nestedAllocated);
+
+            // and tell any enclosing phase what was spent in this one.
+            var enclosing = stack.peek();
+            if (enclosing != null)
+            {
+                enclosing.nestedWall += wall;
+                enclosing.nestedCpu += cpu;
+                enclosing.nestedAllocated += allocated;
+            }
+        }
+    }
+
+    private static long milliseconds(long nanoseconds)
+    {
+        return nanoseconds / 1_000_000;
+    }
+
+    /**
+     * The measurements at the start of a phase that a thread is in, and the totals of the phases nested inside it
+     */
+    private static class Frame
+    {
+        final long wall = System.nanoTime();
+
+        final long cpu = cpu();
+
+        final long allocated = allocated();
+
+        long nestedWall;
+
+        long nestedCpu;
+
+        long nestedAllocated;
+    }
+}
@@ -0,0 +1,53 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.metrics.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the writing of a .puml file
+ *
+ * @author jonathanl (shibo)
+ */
+@Name("com.telenav.lexakai.DiagramWrite")
+@Label("Diagram Write")
+@Description("Writing of a .puml file")
+public class DiagramWriteEvent extends LexakaiEvent
+{
+    @Label("Changed")
+    boolean changed;
+
+    public DiagramWriteEvent(String project)
+    {
+        super(project);
+    }
+
+    /**
+     * Records whether the file changed
+     *
+     * @return The given value, so the call can wrap the write
+     */
+    public boolean changed(boolean changed)
+    {
+        this.changed = changed;
+        return changed;
+    }
+}
@@ -0,0 +1,122 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.metrics.events;
+
+import java.util.function.Supplier;
+
+/**
+ * Records {@link LexakaiEvent}s for Java Flight Recorder.
+ *
+ * <p><b>Context</b></p>
+ *
+ * <p>
+ * Code that produces a diagram runs inside {@link #inDiagram(String, String, Supplier)}, and events recorded on the
+ * same thread that don't name a project or diagram themselves are given those of the diagram.
+ * </p>
+ *
+ * <p><b>Overhead</b></p>
+ *
+ * <p>
+ * When no recording has the event enabled, {@link #record(LexakaiEvent, Supplier, Supplier)} just runs the code. The
+ * name of the type is only computed for events that are committed.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class Events
+{
+    /** The project and diagram being produced by the current thread */
+    private static final ThreadLocal<String[]> context = new ThreadLocal<>();
+
+    /**
+     * Runs the given code, which produces the given diagram
+     */
+    public static <T> T inDiagram(String project, String diagram, Supplier<T> code)
+    {
+        var outer = context.get();
+        context.set(new String[] { project, diagram });
+        try
+        {
+            return code.get();
+        }
+        finally
+        {
+            context.set(outer);
+        }
+    }
+
+    /**
+     * Runs the given code, recording the given event for it
+     *
+     * @param event The event
+     * @param type Supplies the name of the type the work is for, or null if it's not for a type
+     * @param code The code to run
+     */
+    public static void record(LexakaiEvent event, Supplier<String> type, Runnable code)
+    {
+        record(event, type, () ->
+        {
+            code.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the given code, recording the given event for it
+     *
+     * @param event The event
+     * @param type Supplies the name of the type the work is for, or null if it's not for a type
+     * @param code The code to run
+     * @return The result of the code
+     */
+    public static <T> T record(LexakaiEvent event, Supplier<String> type, Supplier<T> code)
+    {
+        // If the event is not enabled, just run the code,
+        if (!event.isEnabled())
+        {
+            return code.get();
+        }
+
+        // otherwise, time the code,
+        event.begin();
+        try
+        {
+            return code.get();
+        }
+        finally
+        {
+            // and if the event should be committed,
+            event.end();
+            if (event.shouldCommit())
+            {
+                // fill in any missing project and diagram from the context,
+                var current = context.get();
+                if (current != null)
+                {
+                    event.project = event.project != null ? event.project : current[0];
+                    event.diagram = event.diagram != null ? event.diagram : current[1];
+                }
+
+                // add the type, and commit the event.
+                event.type = type != null ? type.get() : null;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.metrics.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class for Java Flight Recorder events that record work Lexakai does, identifying the project, diagram and type
+ * the work was for. Any of these may be empty if the work was not for one particular project, diagram or type.
+ * Events are recorded with {@link Events#record(LexakaiEvent, java.util.function.Supplier,
+ * java.util.function.Supplier)}.
+ *
+ * @author jonathanl (shibo)
+ */
+@Category("Lexakai")
+@StackTrace(false)
+public abstract class LexakaiEvent extends jdk.jfr.Event
+{
+    @Label("Project")
+    String project;
+
+    @Label("Diagram")
+    String diagram;
+
+    @Label("Type")
+    String type;
+
+    protected LexakaiEvent()
+    {
+    }
+
+    protected LexakaiEvent(String project)
+    {
+        this.project = project;
+    }
+}
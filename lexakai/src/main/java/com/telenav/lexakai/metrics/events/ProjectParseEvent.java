@@ -0,0 +1,43 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.metrics.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the parsing of the source files in a project
+ *
+ * @author jonathanl (shibo)
+ */
+@Name("com.telenav.lexakai.ProjectParse")
+@Label("Project Parse")
+@Description("Parsing of the source files in a project")
+public class ProjectParseEvent extends LexakaiEvent
+{
+    @Label("Files")
+    int files;
+
+    public ProjectParseEvent(String project, int files)
+    {
+        super(project);
+        this.files = files;
+    }
+}
@@ -0,0 +1,40 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.metrics.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the rendering of a diagram to an SVG file in this process
+ *
+ * @author jonathanl (shibo)
+ */
+@Name("com.telenav.lexakai.SvgRender")
+@Label("SVG Render")
+@Description("Rendering of a diagram to an SVG file in this process")
+public class SvgRenderEvent extends LexakaiEvent
+{
+    public SvgRenderEvent(String project, String diagram)
+    {
+        super(project);
+        this.diagram = diagram;
+    }
+}
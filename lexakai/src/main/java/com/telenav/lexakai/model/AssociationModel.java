@@ -0,0 +1,42 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+import com.telenav.lexakai.associations.UmlAssociation.AssociationType;
+
+/**
+ * The values of a <i>@UmlRelation</i>, <i>@UmlAggregation</i> or <i>@UmlComposition</i> annotation, or of the relation
+ * members of a <i>@UmlClassDiagram</i> annotation. Any value that was not given is null.
+ *
+ * @param type The kind of association
+ * @param diagram The diagram the association is limited to
+ * @param referent The explicit referent type
+ * @param refereeCardinality The cardinality of the from end of the arrow
+ * @param referentCardinality The cardinality of the to end of the arrow
+ * @param label The arrow label
+ * @author jonathanl (shibo)
+ */
+public record AssociationModel(AssociationType type,
+                               String diagram,
+                               String referent,
+                               String refereeCardinality,
+                               String referentCardinality,
+                               String label)
+{
+}
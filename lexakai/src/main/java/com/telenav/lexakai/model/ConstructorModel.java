@@ -0,0 +1,32 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+/**
+ * A public or protected constructor.
+ *
+ * @param declaration The declaration of the constructor, with modifiers, parameter names and any throws clause
+ * @param signature The declaration of the constructor without modifiers or a throws clause
+ * @param isPublic True if the constructor is public
+ * @param isExcluded True if the constructor has a <i>@UmlExcludeMember</i> annotation
+ * @author jonathanl (shibo)
+ */
+public record ConstructorModel(String declaration, String signature, boolean isPublic, boolean isExcluded)
+{
+}
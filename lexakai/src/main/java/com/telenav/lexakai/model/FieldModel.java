@@ -0,0 +1,31 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+/**
+ * A field with an association annotation.
+ *
+ * @param isExcluded True if the field has a <i>@UmlExcludeMember</i> annotation
+ * @param association The values of the field's association annotation
+ * @param type The type of the field
+ * @author jonathanl (shibo)
+ */
+public record FieldModel(boolean isExcluded, AssociationModel association, TypeReference type)
+{
+}
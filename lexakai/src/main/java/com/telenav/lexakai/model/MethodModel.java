@@ -0,0 +1,66 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A method that can appear in a diagram.
+ *
+ * @param name The name of the method
+ * @param isPublic True if the method is public
+ * @param isProtected True if the method is protected
+ * @param isOverride True if the method has an <i>@Override</i> annotation
+ * @param isExcluded True if the method has a <i>@UmlExcludeMember</i> annotation
+ * @param explicitGroups The names of the groups that <i>@UmlMethodGroup</i> annotations put the method in
+ * @param diagram The diagram that any association annotation on the method is limited to, or null
+ * @param relation The values of any <i>@UmlRelation</i> annotation on the method, or null if it has none
+ * @param returnType The return type of the method
+ * @param parameters The parameters of the method
+ * @author jonathanl (shibo)
+ */
+public record MethodModel(String name,
+                          boolean isPublic,
+                          boolean isProtected,
+                          boolean isOverride,
+                          boolean isExcluded,
+                          Set<String> explicitGroups,
+                          String diagram,
+                          AssociationModel relation,
+                          TypeReference returnType,
+                          List<ParameterModel> parameters)
+{
+    public MethodModel
+    {
+        parameters = List.copyOf(parameters);
+    }
+
+    /**
+     * A method parameter.
+     *
+     * @param type The type of the parameter as written
+     * @param name The name of the parameter
+     * @param isVarArgs True if the parameter takes a variable number of arguments
+     * @author jonathanl (shibo)
+     */
+    public record ParameterModel(String type, String name, boolean isVarArgs)
+    {
+    }
+}
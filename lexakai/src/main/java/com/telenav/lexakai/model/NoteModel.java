@@ -0,0 +1,31 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+/**
+ * The values of a <i>@UmlNote</i> annotation on a type or one of its methods.
+ *
+ * @param method The name of the method the note is on, or null if it is on the type
+ * @param align The alignment of the note, or null if none was given
+ * @param text The text of the note
+ * @author jonathanl (shibo)
+ */
+public record NoteModel(String method, String align, String text)
+{
+}
@@ -0,0 +1,100 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The facts about a type that come from its Lexakai annotations.
+ *
+ * @param isExcluded True if <i>@UmlExcludeType</i> excludes the type
+ * @param isNotPublicApi True if the type has a <i>@UmlNotPublicApi</i> annotation
+ * @param diagramNames The names of the diagrams that <i>@UmlClassDiagram</i> annotations put the type in
+ * @param excludesAllSuperTypes True if a <i>@UmlExcludeSuperTypes</i> marker annotation excludes all supertypes
+ * @param excludedSuperTypes The unqualified names of the supertypes excluded by <i>@UmlExcludeSuperTypes</i>
+ * @param includesProtectedMethods False if the first <i>@UmlClassDiagram</i> annotation excludes protected methods
+ * @param relations The values of the <i>@UmlRelation</i> annotations on the type, in no particular order
+ * @param diagrams The first <i>@UmlClassDiagram</i> annotation for each diagram name
+ * @author jonathanl (shibo)
+ */
+public record TypeAnnotations(boolean isExcluded,
+                              boolean isNotPublicApi,
+                              Set<String> diagramNames,
+                              boolean excludesAllSuperTypes,
+                              Set<String> excludedSuperTypes,
+                              boolean includesProtectedMethods,
+                              List<AssociationModel> relations,
+                              Map<String, DiagramAnnotation> diagrams)
+{
+    public TypeAnnotations
+    {
+        relations = List.copyOf(relations);
+        diagrams = Map.copyOf(diagrams);
+    }
+
+    /**
+     * Returns the <i>@UmlClassDiagram</i> annotation for the given diagram, or null if there is none
+     */
+    public DiagramAnnotation diagram(String diagramName)
+    {
+        return diagrams.get(diagramName);
+    }
+
+    /**
+     * Returns true if the given unqualified supertype name is excluded from the given diagram, either by
+     * <i>@UmlExcludeSuperTypes</i> or by the type's <i>@UmlClassDiagram</i> annotation for the diagram
+     */
+    public boolean excludesSuperType(String diagramName, String supertype)
+    {
+        if (supertype != null)
+        {
+            if (excludesAllSuperTypes || excludedSuperTypes.contains(supertype))
+            {
+                return true;
+            }
+
+            var diagram = diagram(diagramName);
+            if (diagram != null)
+            {
+                return diagram.excludeAllSuperTypes() || diagram.excludedSuperTypes().contains(supertype);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The values of a <i>@UmlClassDiagram</i> annotation.
+     *
+     * @param includeMembers True if the diagram shows the members of the type
+     * @param includeOverrides True if the diagram shows methods that override other methods
+     * @param excludeAllSuperTypes True if the diagram leaves out all supertypes of the type
+     * @param excludedSuperTypes The names of the supertypes that the diagram leaves out
+     * @param relation Any relation given by the annotation
+     * @author jonathanl (shibo)
+     */
+    public record DiagramAnnotation(boolean includeMembers,
+                                    boolean includeOverrides,
+                                    boolean excludeAllSuperTypes,
+                                    Set<String> excludedSuperTypes,
+                                    AssociationModel relation)
+    {
+    }
+}
@@ -0,0 +1,136 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+import com.telenav.lexakai.incremental.DiagramDependencies;
+import com.telenav.lexakai.library.Names.Qualification;
+import com.telenav.lexakai.library.Names.TypeParameters;
+import com.telenav.lexakai.library.TypeName;
+import com.telenav.lexakai.quality.CodeQualityOfType;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The model of a type declaration that diagrams, indexes and code quality reports are produced from. A model has
+ * everything Lexakai needs to know about a type, with names already resolved, and holds no references to the
+ * JavaParser syntax tree it was extracted from, so the tree can be garbage collected once the model exists.
+ *
+ * <p><b>Detail</b></p>
+ *
+ * <p>
+ * Types that are not in any diagram only need a name and a code quality, so their models have no members, notes or
+ * supertypes. Of the members of a type, only those that could be shown are kept: methods that are public or
+ * protected, that override another method or that are declared by an interface, public and protected constructors,
+ * and fields with an association annotation.
+ * </p>
+ *
+ * @param name The name of the type
+ * @param simpleName The simple name of the type
+ * @param qualifiedName The fully qualified name of the type, or null if it has none
+ * @param sourceFile The normalized absolute path of the file that declares the type, or null if it is unknown
+ * @param kind The kind of type
+ * @param declaration The leading modifiers of the type in UML, like "-abstract class", or null if the type is not a
+ * class, interface, enum or annotation
+ * @param annotations The facts that come from the type's annotations
+ * @param extendedTypes The types that the type extends
+ * @param implementedTypes The interfaces that the type implements
+ * @param methods The methods that could be shown, in declaration order
+ * @param constructors The public and protected constructors, in declaration order
+ * @param fields The fields with association annotations, in declaration order
+ * @param enumConstants The names of the constants of an enum type, in declaration order
+ * @param notes The notes on the type and its methods, with any note on the type first
+ * @param javadocSections The documentation sections of the type, or the Javadoc sections found in its Javadoc comment
+ * @param quality The code quality of the type, or null if it isn't counted in code quality reports
+ * @param dependencies The dependencies recorded while the model was extracted, or null if they weren't recorded
+ * @author jonathanl (shibo)
+ */
+public record TypeModel(TypeName name,
+                        String simpleName,
+                        String qualifiedName,
+                        Path sourceFile,
+                        Kind kind,
+                        String declaration,
+                        TypeAnnotations annotations,
+                        List<TypeReference> extendedTypes,
+                        List<TypeReference> implementedTypes,
+                        List<MethodModel> methods,
+                        List<ConstructorModel> constructors,
+                        List<FieldModel> fields,
+                        List<String> enumConstants,
+                        List<NoteModel> notes,
+                        List<String> javadocSections,
+                        CodeQualityOfType quality,
+                        DiagramDependencies dependencies)
+{
+    /**
+     * The kinds of type declaration.
+     *
+     * @author jonathanl (shibo)
+     */
+    public enum Kind
+    {
+        CLASS,
+        INTERFACE,
+        ENUM,
+        ANNOTATION,
+        OTHER
+    }
+
+    public TypeModel
+    {
+        extendedTypes = List.copyOf(extendedTypes);
+        implementedTypes = List.copyOf(implementedTypes);
+        methods = List.copyOf(methods);
+        constructors = List.copyOf(constructors);
+        fields = List.copyOf(fields);
+        enumConstants = List.copyOf(enumConstants);
+        notes = List.copyOf(notes);
+    }
+
+    /**
+     * Returns true if this is a class or an interface
+     */
+    public boolean isClassOrInterface()
+    {
+        return kind == Kind.CLASS || kind == Kind.INTERFACE;
+    }
+
+    /**
+     * Returns true if this is an interface
+     */
+    public boolean isInterface()
+    {
+        return kind == Kind.INTERFACE;
+    }
+
+    /**
+     * Returns the name of this type with or without qualification or type parameters
+     */
+    public String name(Qualification qualification, TypeParameters parameters)
+    {
+        return name.name(qualification, parameters);
+    }
+
+    @Override
+    public String toString()
+    {
+        return name.toString();
+    }
+}
@@ -0,0 +1,433 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+import com.telenav.kivakit.annotations.code.quality.Audience;
+import com.telenav.kivakit.annotations.code.quality.Documentation;
+import com.telenav.kivakit.annotations.code.quality.Stability;
+import com.telenav.kivakit.annotations.code.quality.Testing;
+import com.telenav.lexakai.associations.UmlAssociation.AssociationType;
+import com.telenav.lexakai.incremental.DiagramDependencies;
+import com.telenav.lexakai.library.TypeName;
+import com.telenav.lexakai.model.MethodModel.ParameterModel;
+import com.telenav.lexakai.model.TypeAnnotations.DiagramAnnotation;
+import com.telenav.lexakai.quality.CodeQualityOfType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes {@link TypeModel}s to a stream and reads them back, so the models extracted from a source file can be kept in
+ * the model cache between runs.
+ *
+ * <p><b>Format</b></p>
+ *
+ * <p>
+ * Models are written field by field with a {@link DataOutputStream}, in the order of their record components. A value
+ * that can be null is preceded by a flag saying whether it is present. {@link #FORMAT} is part of the key of every
+ * cache entry, so it must change whenever the format does.
+ * </p>
+ *
+ * <p><b>Names</b></p>
+ *
+ * <p>
+ * Type names are interned again when they are read, with {@link TypeName#fixedName(String)} or
+ * {@link TypeName#typeName(String)}, as they were when they were extracted. Sets and maps are read back in the order
+ * they were written, so a model that is read iterates over its members in the same order as the model that was
+ * written.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class TypeModelCodec
+{
+    /** The version of the format, which changes whenever the format does */
+    public static final int FORMAT = 1;
+
+    /**
+     * Returns the models read from the given stream, as written by {@link #write(DataOutputStream, List)}
+     */
+    public static List<TypeModel> read(DataInputStream in) throws IOException
+    {
+        return list(in, TypeModelCodec::typeModel);
+    }
+
+    /**
+     * Writes the given models to the given stream
+     *
+     * @throws IOException If a model can't be written, like one with a string that is too long
+     */
+    public static void write(DataOutputStream out, List<TypeModel> models) throws IOException
+    {
+        writeList(out, models, TypeModelCodec::writeTypeModel);
+    }
+
+    /**
+     * Reads a value from a data stream
+     */
+    private interface Reader<T>
+    {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * Writes a value to a data stream
+     */
+    private interface Writer<T>
+    {
+        void write(DataOutputStream out, T value) throws IOException;
+    }
+
+    private static AssociationModel associationModel(DataInputStream in) throws IOException
+    {
+        return new AssociationModel(enumValue(in, AssociationType.class),
+                string(in),
+                string(in),
+                string(in),
+                string(in),
+                string(in));
+    }
+
+    private static ConstructorModel constructorModel(DataInputStream in) throws IOException
+    {
+        return new ConstructorModel(in.readUTF(), in.readUTF(), in.readBoolean(), in.readBoolean());
+    }
+
+    private static DiagramAnnotation diagramAnnotation(DataInputStream in) throws IOException
+    {
+        return new DiagramAnnotation(in.readBoolean(),
+                in.readBoolean(),
+                in.readBoolean(),
+                set(in),
+                nullable(in, TypeModelCodec::associationModel));
+    }
+
+    private static DiagramDependencies dependencies(DataInputStream in) throws IOException
+    {
+        var files = new TreeSet<Path>();
+        for (var file : strings(in))
+        {
+            files.add(Path.of(file));
+        }
+        return new DiagramDependencies(files, new TreeSet<>(strings(in)));
+    }
+
+    private static <E extends Enum<E>> E enumValue(DataInputStream in, Class<E> type) throws IOException
+    {
+        var name = string(in);
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    private static FieldModel fieldModel(DataInputStream in) throws IOException
+    {
+        return new FieldModel(in.readBoolean(), associationModel(in), typeReference(in));
+    }
+
+    private static <T> List<T> list(DataInputStream in, Reader<T> reader) throws IOException
+    {
+        var size = in.readInt();
+        var list = new ArrayList<T>(size);
+        for (int index = 0; index < size; index++)
+        {
+            list.add(reader.read(in));
+        }
+        return list;
+    }
+
+    private static MethodModel methodModel(DataInputStream in) throws IOException
+    {
+        return new MethodModel(in.readUTF(),
+                in.readBoolean(),
+                in.readBoolean(),
+                in.readBoolean(),
+                in.readBoolean(),
+                nullable(in, TypeModelCodec::set),
+                string(in),
+                nullable(in, TypeModelCodec::associationModel),
+                typeReference(in),
+                list(in, TypeModelCodec::parameterModel));
+    }
+
+    private static NoteModel noteModel(DataInputStream in) throws IOException
+    {
+        return new NoteModel(string(in), string(in), string(in));
+    }
+
+    private static <T> T nullable(DataInputStream in, Reader<T> reader) throws IOException
+    {
+        return in.readBoolean() ? reader.read(in) : null;
+    }
+
+    private static ParameterModel parameterModel(DataInputStream in) throws IOException
+    {
+        return new ParameterModel(in.readUTF(), in.readUTF(), in.readBoolean());
+    }
+
+    private static CodeQualityOfType quality(DataInputStream in) throws IOException
+    {
+        return CodeQualityOfType.quality(string(in),
+                enumValue(in, Documentation.class),
+                enumValue(in, Stability.class),
+                enumValue(in, Testing.class),
+                enumValue(in, Audience.class));
+    }
+
+    private static Set<String> set(DataInputStream in) throws IOException
+    {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(strings(in)));
+    }
+
+    private static String string(DataInputStream in) throws IOException
+    {
+        return nullable(in, at -> at.readUTF());
+    }
+
+    private static List<String> strings(DataInputStream in) throws IOException
+    {
+        return list(in, at -> at.readUTF());
+    }
+
+    private static TypeAnnotations typeAnnotations(DataInputStream in) throws IOException
+    {
+        var isExcluded = in.readBoolean();
+        var isNotPublicApi = in.readBoolean();
+        var diagramNames = set(in);
+        var excludesAllSuperTypes = in.readBoolean();
+        var excludedSuperTypes = set(in);
+        var includesProtectedMethods = in.readBoolean();
+        var relations = list(in, TypeModelCodec::associationModel);
+        var diagrams = new LinkedHashMap<String, DiagramAnnotation>();
+        for (int index = in.readInt(); index > 0; index--)
+        {
+            diagrams.put(in.readUTF(), diagramAnnotation(in));
+        }
+        return new TypeAnnotations(isExcluded, isNotPublicApi, diagramNames, excludesAllSuperTypes, excludedSuperTypes,
+                includesProtectedMethods, relations, diagrams);
+    }
+
+    private static TypeModel typeModel(DataInputStream in) throws IOException
+    {
+        return new TypeModel(typeName(in),
+                in.readUTF(),
+                string(in),
+                nullable(in, at -> Path.of(at.readUTF())),
+                enumValue(in, TypeModel.Kind.class),
+                string(in),
+                typeAnnotations(in),
+                list(in, TypeModelCodec::typeReference),
+                list(in, TypeModelCodec::typeReference),
+                list(in, TypeModelCodec::methodModel),
+                list(in, TypeModelCodec::constructorModel),
+                list(in, TypeModelCodec::fieldModel),
+                strings(in),
+                list(in, TypeModelCodec::noteModel),
+                Collections.unmodifiableList(strings(in)),
+                nullable(in, TypeModelCodec::quality),
+                nullable(in, TypeModelCodec::dependencies));
+    }
+
+    private static TypeName typeName(DataInputStream in) throws IOException
+    {
+        var fixed = in.readBoolean();
+        var name = in.readUTF();
+        return fixed ? TypeName.fixedName(name) : TypeName.typeName(name);
+    }
+
+    private static TypeReference typeReference(DataInputStream in) throws IOException
+    {
+        return new TypeReference(in.readUTF(),
+                in.readUTF(),
+                typeName(in),
+                in.readBoolean(),
+                in.readBoolean(),
+                string(in),
+                list(in, TypeModelCodec::typeReference));
+    }
+
+    private static void writeAssociationModel(DataOutputStream out, AssociationModel association) throws IOException
+    {
+        writeEnum(out, association.type());
+        writeString(out, association.diagram());
+        writeString(out, association.referent());
+        writeString(out, association.refereeCardinality());
+        writeString(out, association.referentCardinality());
+        writeString(out, association.label());
+    }
+
+    private static void writeConstructorModel(DataOutputStream out, ConstructorModel constructor) throws IOException
+    {
+        out.writeUTF(constructor.declaration());
+        out.writeUTF(constructor.signature());
+        out.writeBoolean(constructor.isPublic());
+        out.writeBoolean(constructor.isExcluded());
+    }
+
+    private static void writeDependencies(DataOutputStream out, DiagramDependencies dependencies) throws IOException
+    {
+        writeList(out, dependencies.files(), (at, file) -> at.writeUTF(file.toString()));
+        writeList(out, dependencies.names(), DataOutputStream::writeUTF);
+    }
+
+    private static void writeDiagramAnnotation(DataOutputStream out, DiagramAnnotation diagram) throws IOException
+    {
+        out.writeBoolean(diagram.includeMembers());
+        out.writeBoolean(diagram.includeOverrides());
+        out.writeBoolean(diagram.excludeAllSuperTypes());
+        writeList(out, diagram.excludedSuperTypes(), DataOutputStream::writeUTF);
+        writeNullable(out, diagram.relation(), TypeModelCodec::writeAssociationModel);
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException
+    {
+        writeString(out, value == null ? null : value.name());
+    }
+
+    private static void writeFieldModel(DataOutputStream out, FieldModel field) throws IOException
+    {
+        out.writeBoolean(field.isExcluded());
+        writeAssociationModel(out, field.association());
+        writeTypeReference(out, field.type());
+    }
+
+    private static <T> void writeList(DataOutputStream out, Collection<T> values, Writer<T> writer) throws IOException
+    {
+        out.writeInt(values.size());
+        for (var value : values)
+        {
+            writer.write(out, value);
+        }
+    }
+
+    private static void writeMethodModel(DataOutputStream out, MethodModel method) throws IOException
+    {
+        out.writeUTF(method.name());
+        out.writeBoolean(method.isPublic());
+        out.writeBoolean(method.isProtected());
+        out.writeBoolean(method.isOverride());
+        out.writeBoolean(method.isExcluded());
+        writeNullable(out, method.explicitGroups(), (at, groups) -> writeList(at, groups, DataOutputStream::writeUTF));
+        writeString(out, method.diagram());
+        writeNullable(out, method.relation(), TypeModelCodec::writeAssociationModel);
+        writeTypeReference(out, method.returnType());
+        writeList(out, method.parameters(), TypeModelCodec::writeParameterModel);
+    }
+
+    private static void writeNoteModel(DataOutputStream out, NoteModel note) throws IOException
+    {
+        writeString(out, note.method());
+        writeString(out, note.align());
+        writeString(out, note.text());
+    }
+
+    private static <T> void writeNullable(DataOutputStream out, T value, Writer<T> writer) throws IOException
+    {
+        out.writeBoolean(value != null);
+        if (value != null)
+        {
+            writer.write(out, value);
+        }
+    }
+
+    private static void writeParameterModel(DataOutputStream out, ParameterModel parameter) throws IOException
+    {
+        out.writeUTF(parameter.type());
+        out.writeUTF(parameter.name());
+        out.writeBoolean(parameter.isVarArgs());
+    }
+
+    private static void writeQuality(DataOutputStream out, CodeQualityOfType quality) throws IOException
+    {
+        writeString(out, quality.typeName());
+        writeEnum(out, quality.documentation());
+        writeEnum(out, quality.stability());
+        writeEnum(out, quality.testing());
+        writeEnum(out, quality.audience());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        writeNullable(out, value, DataOutputStream::writeUTF);
+    }
+
+    private static void writeTypeAnnotations(DataOutputStream out, TypeAnnotations annotations) throws IOException
+    {
+        out.writeBoolean(annotations.isExcluded());
+        out.writeBoolean(annotations.isNotPublicApi());
+        writeList(out, annotations.diagramNames(), DataOutputStream::writeUTF);
+        out.writeBoolean(annotations.excludesAllSuperTypes());
+        writeList(out, annotations.excludedSuperTypes(), DataOutputStream::writeUTF);
+        out.writeBoolean(annotations.includesProtectedMethods());
+        writeList(out, annotations.relations(), TypeModelCodec::writeAssociationModel);
+        out.writeInt(annotations.diagrams().size());
+        for (Map.Entry<String, DiagramAnnotation> entry : annotations.diagrams().entrySet())
+        {
+            out.writeUTF(entry.getKey());
+            writeDiagramAnnotation(out, entry.getValue());
+        }
+    }
+
+    private static void writeTypeModel(DataOutputStream out, TypeModel model) throws IOException
+    {
+        writeTypeName(out, model.name());
+        out.writeUTF(model.simpleName());
+        writeString(out, model.qualifiedName());
+        writeNullable(out, model.sourceFile(), (at, file) -> at.writeUTF(file.toString()));
+        writeEnum(out, model.kind());
+        writeString(out, model.declaration());
+        writeTypeAnnotations(out, model.annotations());
+        writeList(out, model.extendedTypes(), TypeModelCodec::writeTypeReference);
+        writeList(out, model.implementedTypes(), TypeModelCodec::writeTypeReference);
+        writeList(out, model.methods(), TypeModelCodec::writeMethodModel);
+        writeList(out, model.constructors(), TypeModelCodec::writeConstructorModel);
+        writeList(out, model.fields(), TypeModelCodec::writeFieldModel);
+        writeList(out, model.enumConstants(), DataOutputStream::writeUTF);
+        writeList(out, model.notes(), TypeModelCodec::writeNoteModel);
+        writeList(out, model.javadocSections(), DataOutputStream::writeUTF);
+        writeNullable(out, model.quality(), TypeModelCodec::writeQuality);
+        writeNullable(out, model.dependencies(), TypeModelCodec::writeDependencies);
+    }
+
+    private static void writeTypeName(DataOutputStream out, TypeName name) throws IOException
+    {
+        out.writeBoolean(name.isFixed());
+        out.writeUTF(name.toString());
+    }
+
+    private static void writeTypeReference(DataOutputStream out, TypeReference reference) throws IOException
+    {
+        out.writeUTF(reference.text());
+        out.writeUTF(reference.identifier());
+        writeTypeName(out, reference.name());
+        out.writeBoolean(reference.isReference());
+        out.writeBoolean(reference.isObject());
+        writeString(out, reference.cardinality());
+        writeList(out, reference.typeArguments(), TypeModelCodec::writeTypeReference);
+    }
+}
@@ -0,0 +1,381 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+import com.github.javaparser.ast.type.Type;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import com.telenav.lexakai.annotations.UmlNote;
+import com.telenav.lexakai.annotations.associations.UmlRelation;
+import com.telenav.lexakai.associations.UmlAssociation;
+import com.telenav.lexakai.incremental.DiagramDependencies;
+import com.telenav.lexakai.library.AnnotationSummary;
+import com.telenav.lexakai.library.Annotations;
+import com.telenav.lexakai.library.Associations;
+import com.telenav.lexakai.library.Fields;
+import com.telenav.lexakai.library.Members;
+import com.telenav.lexakai.library.Methods;
+import com.telenav.lexakai.library.Names;
+import com.telenav.lexakai.library.TypeName;
+import com.telenav.lexakai.library.Types;
+import com.telenav.lexakai.model.MethodModel.ParameterModel;
+import com.telenav.lexakai.model.TypeAnnotations.DiagramAnnotation;
+import com.telenav.lexakai.model.TypeModel.Kind;
+import com.telenav.lexakai.quality.CodeQualityOfType;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.telenav.lexakai.associations.UmlAssociation.AssociationType.RELATION;
+
+/**
+ * Extracts the {@link TypeModel} of a type declaration from its JavaParser syntax tree.
+ *
+ * <p><b>Extraction</b></p>
+ *
+ * <p>
+ * Models are extracted by {@link #extract(TypeDeclaration)} on the thread that parsed the type, right after its
+ * annotations have been summarized. Every name in the model is resolved during extraction, with the same
+ * {@link Names} methods that were used when diagrams were built from syntax trees, so the diagrams built from models
+ * are the same.
+ * </p>
+ *
+ * <p><b>Dependencies</b></p>
+ *
+ * <p>
+ * If dependencies are being recorded for incremental builds, the source files and type names that each type's names
+ * were resolved from are recorded with {@link DiagramDependencies} and kept in the model.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class TypeModelExtractor
+{
+    /** True if each package gets a diagram of the types in it */
+    private final boolean buildPackageDiagrams;
+
+    /** The pattern for finding the names of Javadoc sections, or null if sections aren't found */
+    private final Pattern javadocSectionPattern;
+
+    /** True to record the dependencies of each type */
+    private final boolean recordDependencies;
+
+    /**
+     * @param buildPackageDiagrams True if each package gets a diagram of the types in it
+     * @param javadocSectionPattern The pattern for finding the names of Javadoc sections, or null for none
+     * @param recordDependencies True to record the dependencies of each type for incremental builds
+     */
+    public TypeModelExtractor(boolean buildPackageDiagrams, Pattern javadocSectionPattern, boolean recordDependencies)
+    {
+        this.buildPackageDiagrams = buildPackageDiagrams;
+        this.javadocSectionPattern = javadocSectionPattern;
+        this.recordDependencies = recordDependencies;
+    }
+
+    /**
+     * Returns the model of the given type declaration, which must have been summarized by
+     * {@link AnnotationSummary#summarize(TypeDeclaration)}
+     */
+    public TypeModel extract(TypeDeclaration<?> type)
+    {
+        if (recordDependencies)
+        {
+            var dependencies = new DiagramDependencies();
+            return DiagramDependencies.record(dependencies, () -> extract(type, dependencies));
+        }
+        return extract(type, null);
+    }
+
+    private static AssociationModel association(NodeWithAnnotations<?> member, UmlAssociation.AssociationType type)
+    {
+        return new AssociationModel(type,
+                Members.associationString(member, "diagram"),
+                Members.associationString(member, "referent"),
+                Members.associationString(member, "refereeCardinality"),
+                Members.associationString(member, "referentCardinality"),
+                Members.associationString(member, "label"));
+    }
+
+    private static ConstructorModel constructor(ConstructorDeclaration constructor)
+    {
+        return new ConstructorModel(constructor.getDeclarationAsString(),
+                constructor.getDeclarationAsString(false, false, false),
+                constructor.isPublic(),
+                Methods.isExcluded(constructor));
+    }
+
+    private static DiagramAnnotation diagram(AnnotationExpr annotation)
+    {
+        return new DiagramAnnotation(Annotations.booleanValue(annotation, "includeMembers", true),
+                Annotations.booleanValue(annotation, "includeOverrides", false),
+                Annotations.booleanValue(annotation, "excludeAllSuperTypes", false),
+                Annotations.classNames(annotation, "excludeSuperTypes"),
+                relation(annotation));
+    }
+
+    private static Kind kind(TypeDeclaration<?> type)
+    {
+        if (type.isClassOrInterfaceDeclaration())
+        {
+            return Types.isInterface(type) ? Kind.INTERFACE : Kind.CLASS;
+        }
+        if (type.isEnumDeclaration())
+        {
+            return Kind.ENUM;
+        }
+        if (type.isAnnotationDeclaration())
+        {
+            return Kind.ANNOTATION;
+        }
+        return Kind.OTHER;
+    }
+
+    private static MethodModel method(MethodDeclaration method)
+    {
+        // Get the parameters of the method,
+        var parameters = new ArrayList<ParameterModel>();
+        for (var parameter : method.getParameters())
+        {
+            parameters.add(new ParameterModel(parameter.getType().asString(), parameter.getName().asString(), parameter.isVarArgs()));
+        }
+
+        // and any relation it has,
+        var relation = Annotations.annotation(method, UmlRelation.class).isPresent()
+                ? new AssociationModel(Methods.associationType(method),
+                null,
+                Members.associationString(method, UmlRelation.class, "referent"),
+                Members.associationString(method, UmlRelation.class, "refereeCardinality"),
+                Members.associationString(method, UmlRelation.class, "referentCardinality"),
+                Members.associationString(method, UmlRelation.class, "label"))
+                : null;
+
+        // then return the model.
+        return new MethodModel(method.getName().asString(),
+                method.isPublic(),
+                method.isProtected(),
+                Annotations.annotation(method, Override.class).isPresent(),
+                Methods.isExcluded(method),
+                Methods.explicitGroups(method),
+                Members.associationString(method, "diagram"),
+                relation,
+                reference(method.getType(), true),
+                parameters);
+    }
+
+    private static NoteModel note(NodeWithAnnotations<?> node, String method)
+    {
+        return Annotations.annotation(node, UmlNote.class)
+                .map(note -> new NoteModel(method, Annotations.stringValue(note, "align"), Annotations.stringValue(note, "text")))
+                .orElse(null);
+    }
+
+    /**
+     * Returns the reference to the given type, with its reference type arguments if asked for
+     */
+    private static TypeReference reference(Type type, boolean withArguments)
+    {
+        // Resolve the name of the type,
+        var name = Names.typeName(type);
+
+        // then get any type arguments that are references, as Types.typeParameters(Type) would,
+        var arguments = new ArrayList<TypeReference>();
+        if (withArguments && Types.isObject(type) && type.isClassOrInterfaceType())
+        {
+            type.asClassOrInterfaceType().getTypeArguments().ifPresent(at -> at.forEach(argument ->
+            {
+                var reference = reference(argument, false);
+                if (reference.isReference())
+                {
+                    arguments.add(reference);
+                }
+            }));
+        }
+
+        // and return the reference.
+        var identifier = type.isClassOrInterfaceType() ? type.asClassOrInterfaceType().getNameAsString() : type.asString();
+        return new TypeReference(type.asString(),
+                identifier,
+                name,
+                Types.isReference(type, name),
+                Types.isObject(type),
+                Associations.cardinalityGuess(type, name),
+                arguments);
+    }
+
+    private static AssociationModel relation(AnnotationExpr annotation)
+    {
+        return new AssociationModel(RELATION,
+                Annotations.className(annotation, "diagram"),
+                Annotations.className(annotation, "referent"),
+                Annotations.stringValue(annotation, "refereeCardinality"),
+                Annotations.stringValue(annotation, "referentCardinality"),
+                Annotations.stringValue(annotation, "label"));
+    }
+
+    private static Path sourceFile(TypeDeclaration<?> type)
+    {
+        return type.findCompilationUnit()
+                .flatMap(CompilationUnit::getStorage)
+                .map(CompilationUnit.Storage::getPath)
+                .orElse(null);
+    }
+
+    private TypeAnnotations annotations(TypeDeclaration<?> type)
+    {
+        var summary = AnnotationSummary.of(type);
+
+        // Get the relations on the type,
+        var relations = new ArrayList<AssociationModel>();
+        for (var annotation : Annotations.annotations(type, UmlRelation.class))
+        {
+            relations.add(relation(annotation));
+        }
+
+        // and its diagram annotations,
+        var diagrams = new HashMap<String, DiagramAnnotation>();
+        summary.diagramAnnotations().forEach((name, annotation) -> diagrams.put(name, diagram(annotation)));
+
+        // then return the annotations.
+        var includesProtectedMethods = Annotations.annotation(type, UmlClassDiagram.class)
+                .map(annotation -> Annotations.booleanValue(annotation, "includeProtectedMethods", true))
+                .orElse(true);
+        return new TypeAnnotations(summary.isExcludedType(),
+                Types.isNotPublicApi(type),
+                summary.diagramNames(),
+                summary.excludesAllSuperTypes(),
+                summary.excludedSuperTypes(),
+                includesProtectedMethods,
+                relations,
+                diagrams);
+    }
+
+    private TypeModel extract(TypeDeclaration<?> type, DiagramDependencies dependencies)
+    {
+        var name = TypeName.typeName(type);
+        var qualifiedName = type.getFullyQualifiedName().orElse(null);
+        var kind = kind(type);
+
+        // Get the code quality of public and protected types that aren't tests,
+        var quality = qualifiedName != null && (type.isPublic() || type.isProtected()) && !qualifiedName.endsWith("Test")
+                ? CodeQualityOfType.quality(qualifiedName, type)
+                : null;
+
+        // and if the type isn't in any diagram,
+        var diagramNames = AnnotationSummary.of(type).diagramNames();
+        if (diagramNames.isEmpty() && !(buildPackageDiagrams && qualifiedName != null))
+        {
+            // that's all we need.
+            var annotations = new TypeAnnotations(false, false, diagramNames, false, Set.of(), true, List.of(), Map.of());
+            return new TypeModel(name, Names.simpleName(type), qualifiedName, sourceFile(type), kind, null, annotations,
+                    List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), quality, dependencies);
+        }
+
+        // Otherwise, get the supertypes of classes and interfaces,
+        var extendedTypes = new ArrayList<TypeReference>();
+        var implementedTypes = new ArrayList<TypeReference>();
+        if (type.isClassOrInterfaceDeclaration())
+        {
+            var classOrInterface = type.asClassOrInterfaceDeclaration();
+            classOrInterface.getExtendedTypes().forEach(at -> extendedTypes.add(reference(at, false)));
+            classOrInterface.getImplementedTypes().forEach(at -> implementedTypes.add(reference(at, false)));
+        }
+
+        // the methods that could be shown and the notes on the type and its methods,
+        var methods = new ArrayList<MethodModel>();
+        var notes = new ArrayList<NoteModel>();
+        notes.add(note(type, null));
+        for (var method : type.getMethods())
+        {
+            if (Types.isInterface(type) || method.isPublic() || method.isProtected()
+                    || Annotations.annotation(method, Override.class).isPresent())
+            {
+                methods.add(method(method));
+            }
+            notes.add(note(method, method.getName().asString()));
+        }
+        notes.removeIf(Objects::isNull);
+
+        // the public and protected constructors,
+        var constructors = type.getConstructors()
+                .stream()
+                .filter(constructor -> constructor.isPublic() || constructor.isProtected())
+                .map(TypeModelExtractor::constructor)
+                .toList();
+
+        // the fields with associations,
+        var fields = new ArrayList<FieldModel>();
+        for (FieldDeclaration field : type.getFields())
+        {
+            var associationType = Fields.associationType(field);
+            if (associationType != null)
+            {
+                fields.add(new FieldModel(Fields.isExcluded(field), association(field, associationType), reference(field.getCommonType(), true)));
+            }
+        }
+
+        // and any enum constants,
+        var enumConstants = type.isEnumDeclaration()
+                ? type.asEnumDeclaration().getEntries().stream().map(entry -> entry.getName().asString()).toList()
+                : List.<String>of();
+
+        // then return the model.
+        return new TypeModel(name, Names.simpleName(type), qualifiedName, sourceFile(type), kind,
+                kind == Kind.OTHER ? null : Types.typeDeclarationModifiers(type), annotations(type),
+                extendedTypes, implementedTypes, methods, constructors, fields, enumConstants, notes,
+                javadocSections(type), quality, dependencies);
+    }
+
+    /**
+     * Returns the documentation sections of the given type, or if it has none, the names of the sections in its
+     * Javadoc comment that match the Javadoc section pattern
+     */
+    private List<String> javadocSections(TypeDeclaration<?> type)
+    {
+        Set<String> sections = new HashSet<>(Annotations.annotation(type, UmlClassDiagram.class)
+                .map(annotation -> Annotations.stringValues(annotation, "documentationSections"))
+                .orElseGet(Set::of));
+        if (sections.isEmpty() && javadocSectionPattern != null)
+        {
+            var javadoc = type.getJavadoc();
+            if (javadoc.isPresent())
+            {
+                var matcher = javadocSectionPattern.matcher(javadoc.get().toText());
+                while (matcher.find())
+                {
+                    sections.add(matcher.group(1));
+                }
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(sections));
+    }
+}
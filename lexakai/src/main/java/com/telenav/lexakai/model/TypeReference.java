@@ -0,0 +1,62 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.model;
+
+import com.telenav.lexakai.library.Names.Qualification;
+import com.telenav.lexakai.library.Names.TypeParameters;
+import com.telenav.lexakai.library.TypeName;
+
+import java.util.List;
+
+/**
+ * A use of a type, like the type of a field, the return type of a method or a supertype, with its name already
+ * resolved.
+ *
+ * @param text The type as written in the source code
+ * @param identifier The last identifier of a class or interface type as written, or the text of any other type
+ * @param name The resolved name of the type
+ * @param isReference True if the type is a reference that can be part of an association (see
+ * {@link com.telenav.lexakai.library.Types#isReference(com.github.javaparser.ast.type.Type)})
+ * @param isObject True if the type is a reference type that is not an array
+ * @param cardinality A guess at the cardinality of the type, "1" or "*"
+ * @param typeArguments The type arguments of an object type that are references, which have no type arguments of
+ * their own in this model
+ * @author jonathanl (shibo)
+ */
+public record TypeReference(String text,
+                            String identifier,
+                            TypeName name,
+                            boolean isReference,
+                            boolean isObject,
+                            String cardinality,
+                            List<TypeReference> typeArguments)
+{
+    public TypeReference
+    {
+        typeArguments = List.copyOf(typeArguments);
+    }
+
+    /**
+     * Returns the name of this type with or without qualification or type parameters
+     */
+    public String name(Qualification qualification, TypeParameters parameters)
+    {
+        return name.name(qualification, parameters);
+    }
+}
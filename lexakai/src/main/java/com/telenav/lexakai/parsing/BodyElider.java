@@ -0,0 +1,344 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.parsing;
+
+import java.util.Set;
+
+/**
+ * Removes the statements from method, constructor and initializer bodies in Java source code, leaving only the
+ * declarations that Lexakai reads: types, signatures, fields, annotations and Javadoc.
+ *
+ * <p><b>Elision</b></p>
+ *
+ * <p>
+ * Each body is replaced with an empty block, keeping any line breaks it contained, so the declarations that remain
+ * are on the same lines as in the original source. The bodies of nested types are scanned like any other type body,
+ * but the class bodies of enum constants are elided like method bodies, since Lexakai doesn't show their members.
+ * Braces that are part of an expression, like an array or anonymous class in a field initializer, or an annotation
+ * value, are copied as they are.
+ * </p>
+ *
+ * <p><b>Failure</b></p>
+ *
+ * <p>
+ * The scanner is not a parser, and it only tracks comments, literals, parentheses and braces. If it finds unbalanced
+ * braces, {@link #elide(String)} returns null, and the caller should parse the original source instead.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class BodyElider
+{
+    /** Keywords that introduce a type body when followed by a name */
+    private static final Set<String> TYPE_KEYWORDS = Set.of("class", "interface", "enum", "record");
+
+    /**
+     * Returns the given source code with method, constructor and initializer bodies removed, or null if the source
+     * could not be scanned
+     */
+    public static String elide(String source)
+    {
+        try
+        {
+            return new BodyElider(source).elide();
+        }
+        catch (IllegalStateException e)
+        {
+            return null;
+        }
+    }
+
+    /** The source code */
+    private final String source;
+
+    /** The source code with bodies removed */
+    private final StringBuilder output;
+
+    /** The current position in the source */
+    private int at;
+
+    private BodyElider(String source)
+    {
+        this.source = source;
+        this.output = new StringBuilder(source.length());
+    }
+
+    /**
+     * Copies a block with balanced braces from the current position, which must be an open brace
+     */
+    private void copyBlock()
+    {
+        var start = at;
+        skipBlock();
+        output.append(source, start, at);
+    }
+
+    private String elide()
+    {
+        members(true);
+        return output.toString();
+    }
+
+    /**
+     * Elides the block at the current position, which must be an open brace, keeping only line breaks
+     */
+    private void elideBlock()
+    {
+        var start = at;
+        skipBlock();
+        output.append('{');
+        for (int i = start; i < at; i++)
+        {
+            var next = source.charAt(i);
+            if (next == '\n' || next == '\r')
+            {
+                output.append(next);
+            }
+        }
+        output.append('}');
+    }
+
+    /**
+     * Scans the members of a type body, or the top level of a compilation unit
+     *
+     * @param topLevel True if the members are at the top level of the compilation unit
+     */
+    private void members(boolean topLevel)
+    {
+        // State of the header for the current member
+        int parentheses = 0;
+        boolean assignment = false;
+        boolean typeHeader = false;
+        String lastToken = null;
+        String tokenBeforeLast = null;
+
+        while (at < source.length())
+        {
+            var next = source.charAt(at);
+
+            // If we're at a comment or a literal,
+            if (skipCommentOrLiteral())
+            {
+                // copy it without changing the header state,
+                continue;
+            }
+
+            // if we're at a name or keyword,
+            if (Character.isJavaIdentifierStart(next))
+            {
+                // copy it,
+                var start = at;
+                while (at < source.length() && Character.isJavaIdentifierPart(source.charAt(at)))
+                {
+                    at++;
+                }
+                var word = source.substring(start, at);
+                output.append(word);
+
+                // and if it names a type after a type keyword that isn't a class literal, this is a type header.
+                if (parentheses == 0 && lastToken != null && TYPE_KEYWORDS.contains(lastToken) && !".".equals(tokenBeforeLast))
+                {
+                    typeHeader = true;
+                }
+                tokenBeforeLast = lastToken;
+                lastToken = word;
+                continue;
+            }
+
+            switch (next)
+            {
+                case '{':
+                    if (parentheses > 0 || assignment || "default".equals(lastToken))
+                    {
+                        // Braces in an annotation, an initializer expression or an annotation default are copied,
+                        copyBlock();
+                        tokenBeforeLast = lastToken;
+                        lastToken = "}";
+                    }
+                    else
+                    {
+                        // a type body is scanned for members,
+                        if (typeHeader)
+                        {
+                            output.append(next);
+                            at++;
+                            members(false);
+                        }
+                        else
+                        {
+                            // and any other block is a body, which is elided.
+                            elideBlock();
+                        }
+
+                        // The block ends the member.
+                        parentheses = 0;
+                        assignment = false;
+                        typeHeader = false;
+                        lastToken = null;
+                        tokenBeforeLast = null;
+                    }
+                    continue;
+
+                case '}':
+                    if (parentheses > 0 || topLevel)
+                    {
+                        throw new IllegalStateException("Unbalanced braces");
+                    }
+                    output.append(next);
+                    at++;
+                    return;
+
+                case '(':
+                    parentheses++;
+                    break;
+
+                case ')':
+                    parentheses--;
+                    break;
+
+                case '=':
+                    if (parentheses == 0)
+                    {
+                        assignment = true;
+                    }
+                    break;
+
+                case ';':
+                    if (parentheses == 0)
+                    {
+                        assignment = false;
+                        typeHeader = false;
+                    }
+                    break;
+
+                default:
+                    break;
+            }
+
+            // Copy anything else,
+            output.append(next);
+            at++;
+
+            // and remember it if it is not whitespace.
+            if (!Character.isWhitespace(next))
+            {
+                tokenBeforeLast = lastToken;
+                lastToken = String.valueOf(next);
+            }
+        }
+
+        if (!topLevel)
+        {
+            throw new IllegalStateException("Unterminated type body");
+        }
+    }
+
+    /**
+     * Skips a block with balanced braces from the current position, which must be an open brace
+     */
+    private void skipBlock()
+    {
+        int depth = 0;
+        var copied = output.length();
+        while (at < source.length())
+        {
+            if (skipCommentOrLiteral())
+            {
+                continue;
+            }
+            var next = source.charAt(at++);
+            if (next == '{')
+            {
+                depth++;
+            }
+            if (next == '}' && --depth == 0)
+            {
+                output.setLength(copied);
+                return;
+            }
+        }
+        throw new IllegalStateException("Unterminated block");
+    }
+
+    /**
+     * If the current position is the start of a comment or a string, text block or character literal, copies it to
+     * the output and returns true
+     */
+    private boolean skipCommentOrLiteral()
+    {
+        var start = at;
+        if (source.startsWith("//", at))
+        {
+            var end = source.indexOf('\n', at);
+            at = end < 0 ? source.length() : end;
+        }
+        else if (source.startsWith("/*", at))
+        {
+            var end = source.indexOf("*/", at + 2);
+            if (end < 0)
+            {
+                throw new IllegalStateException("Unterminated comment");
+            }
+            at = end + 2;
+        }
+        else if (source.startsWith("\"\"\"", at))
+        {
+            skipLiteral(3, "\"\"\"");
+        }
+        else if (source.charAt(at) == '"')
+        {
+            skipLiteral(1, "\"");
+        }
+        else if (source.charAt(at) == '\'')
+        {
+            skipLiteral(1, "'");
+        }
+        else
+        {
+            return false;
+        }
+        output.append(source, start, at);
+        return true;
+    }
+
+    /**
+     * Skips over a literal with the given opening length and closing delimiter, allowing for escape sequences
+     */
+    private void skipLiteral(int opening, String closing)
+    {
+        at += opening;
+        while (at < source.length())
+        {
+            if (source.charAt(at) == '\\')
+            {
+                at += 2;
+            }
+            else if (source.startsWith(closing, at))
+            {
+                at += closing.length();
+                return;
+            }
+            else
+            {
+                at++;
+            }
+        }
+        throw new IllegalStateException("Unterminated literal");
+    }
+}
@@ -0,0 +1,299 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.parsing;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.cache.Cache;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The compilation units parsed in a run, shared by the projects that document them and the type solvers that resolve
+ * types in them, so that each source file is parsed once.
+ *
+ * <p><b>Parsing</b></p>
+ *
+ * <p>
+ * Files are parsed by the {@link ParserPool} that this store is given to, with {@link #parse(Path)}, which parses each
+ * file the first time it is asked for and returns the same result after that. Files are keyed by their normalized
+ * absolute path, so a file has the same storage path no matter who asks for it first. If two threads ask for the same
+ * file at the same time, one parses it while the other waits.
+ * </p>
+ *
+ * <p><b>Type Solving</b></p>
+ *
+ * <p>
+ * A store is also a JavaParser {@link Cache} of parsed files, so {@link #typeSolver(Path, ParserConfiguration)} can
+ * create a {@link JavaParserTypeSolver} that finds source files in the store, instead of parsing them again and
+ * holding them in a cache of its own. Files that the solver looks for and that don't exist are not stored. The
+ * solver's caches of directories and found types are {@link SoftCache}s, so they don't hold on to units either.
+ * </p>
+ *
+ * <p><b>Eviction</b></p>
+ *
+ * <p>
+ * Projects keep compact models of their types rather than syntax trees, so a unit is only needed while its file is
+ * being documented or while it is used to resolve types. Parse results are held with soft references, which lets the
+ * garbage collector drop units when memory is low. A unit that was dropped is parsed again the next time it is asked
+ * for. Units that were dropped by the garbage collector or removed through the {@link Cache} interface are counted as
+ * evictions, so they show up in the run report.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class CompilationUnitStore implements Cache<Path, Optional<CompilationUnit>>
+{
+    /** Parse results by normalized absolute path */
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    /** The number of units removed from this store */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** The number of requests for a file that had already been parsed */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** The number of files parsed */
+    private final AtomicLong parses = new AtomicLong();
+
+    /** The pool that parses files for this store */
+    private ParserPool parsers;
+
+    @Override
+    public boolean contains(Path path)
+    {
+        var entry = entries.get(key(path));
+        if (entry == null)
+        {
+            return false;
+        }
+        synchronized (entry)
+        {
+            return entry.isParsed();
+        }
+    }
+
+    /**
+     * Returns the number of units removed from this store
+     */
+    public long evictions()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Parses the file at the given path if it hasn't been parsed yet. A file that doesn't exist or can't be read is
+     * reported as having no unit, without being stored.
+     * </p>
+     */
+    @Override
+    public Optional<Optional<CompilationUnit>> get(Path path)
+    {
+        if (!Files.isRegularFile(path))
+        {
+            return Optional.of(Optional.empty());
+        }
+        try
+        {
+            return Optional.of(parse(path).getResult());
+        }
+        catch (IOException e)
+        {
+            return Optional.of(Optional.empty());
+        }
+    }
+
+    /**
+     * Returns the number of requests for a file that had already been parsed
+     */
+    public long hits()
+    {
+        return hits.get();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the result of parsing the given file, parsing it if this is the first time it has been asked for
+     */
+    public ParseResult<CompilationUnit> parse(Path path) throws IOException
+    {
+        var key = key(path);
+        var entry = entries.computeIfAbsent(key, ignored -> new Entry());
+        synchronized (entry)
+        {
+            // If the file hasn't been parsed yet, or its unit was dropped by the garbage collector,
+            var result = entry.result();
+            if (result == null && entry.failure == null)
+            {
+                if (entry.result != null)
+                {
+                    evictions.incrementAndGet();
+                }
+
+                // parse it, remembering any failure to read it,
+                parses.incrementAndGet();
+                try
+                {
+                    result = parsers.parseFile(key);
+                    entry.result = new SoftReference<>(result);
+                }
+                catch (IOException e)
+                {
+                    entry.failure = e;
+                }
+            }
+            else
+            {
+                hits.incrementAndGet();
+            }
+
+            // and return the result.
+            if (entry.failure != null)
+            {
+                throw entry.failure;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the number of files parsed
+     */
+    public long parses()
+    {
+        return parses.get();
+    }
+
+    @Override
+    public void put(Path path, Optional<CompilationUnit> unit)
+    {
+        unit.ifPresent(value ->
+        {
+            var entry = entries.computeIfAbsent(key(path), ignored -> new Entry());
+            synchronized (entry)
+            {
+                if (!entry.isParsed())
+                {
+                    entry.result = new SoftReference<>(new ParseResult<>(value, List.of(), null));
+                }
+            }
+        });
+    }
+
+    @Override
+    public void remove(Path path)
+    {
+        if (entries.remove(key(path)) != null)
+        {
+            evictions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void removeAll()
+    {
+        evictions.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    @Override
+    public long size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns a description of the units in this store and how they were shared
+     */
+    public String statistics()
+    {
+        return String.format("%d stored, %d parsed, %d shared, %d evicted", size(), parses(), hits(), evictions());
+    }
+
+    /**
+     * Returns a type solver for the given source folder that finds parsed files in this store
+     *
+     * @param sourceFolder The source folder
+     * @param configuration The configuration to parse with, which is only used for files the store can't provide
+     */
+    public TypeSolver typeSolver(Path sourceFolder, ParserConfiguration configuration)
+    {
+        return new JavaParserTypeSolver(sourceFolder, new JavaParser(configuration), this, new SoftCache<>(), new SoftCache<>());
+    }
+
+    /**
+     * Sets the pool that parses files for this store
+     */
+    void parsers(ParserPool parsers)
+    {
+        this.parsers = parsers;
+    }
+
+    /**
+     * The result of parsing a file, or the failure to read it
+     */
+    private static class Entry
+    {
+        /** The parse result, or null if the file hasn't been parsed */
+        SoftReference<ParseResult<CompilationUnit>> result;
+
+        /** Any failure to read the file */
+        IOException failure;
+
+        /**
+         * Returns true if this entry has a parse result that hasn't been dropped, or a failure
+         */
+        boolean isParsed()
+        {
+            return result() != null || failure != null;
+        }
+
+        /**
+         * Returns the parse result, or null if the file hasn't been parsed or its result was dropped
+         */
+        ParseResult<CompilationUnit> result()
+        {
+            return result == null ? null : result.get();
+        }
+    }
+
+    private static Path key(Path path)
+    {
+        return path.toAbsolutePath().normalize();
+    }
+}
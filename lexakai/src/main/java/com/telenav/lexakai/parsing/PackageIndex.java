@@ -0,0 +1,359 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.parsing;
+
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.kivakit.core.collections.list.StringList;
+import com.telenav.kivakit.core.messaging.Listener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An index of the packages in a set of source folders, used by {@link RoutingTypeSolver} to send each type lookup only
+ * to the source folders that could declare the type.
+ *
+ * <p><b>Indexing</b></p>
+ *
+ * <p>
+ * A package is in a source folder if the folder for the package contains at least one Java source file, other than a
+ * module or package info file. Source folders are scanned in parallel when the index is created. A type name like
+ * <i>a.b.C.D</i> could be declared in package <i>a.b.C</i>, <i>a.b</i>, <i>a</i> or the default package, since
+ * JavaParser looks for the type both in the file named after it and in the other files in the same folder, so
+ * {@link #sourceFolders(String)} returns the source folders that contain any of those packages.
+ * </p>
+ *
+ * <p><b>Persistence</b></p>
+ *
+ * <p>
+ * The index is saved between runs, along with the last-modified time of every folder under each source folder. Adding,
+ * removing or renaming a file or folder changes the last-modified time of the folder containing it, so a saved source
+ * folder is used again as long as none of its folders have changed, and is scanned again otherwise. Checking the times
+ * of the folders is much cheaper than listing their contents. A run indexes the source folders of all its root
+ * folders, so the saved index of a source folder that isn't in this run, because an earlier run was given other root
+ * folders, is kept when the index is saved.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class PackageIndex extends BaseComponent
+{
+    /** The file where the index is saved between runs */
+    private final Path file;
+
+    /** The number of source folders whose saved index was used */
+    private final AtomicLong loaded = new AtomicLong();
+
+    /** The number of lookups */
+    private final AtomicLong lookups = new AtomicLong();
+
+    /** The number of lookups for names that no source folder could declare */
+    private final AtomicLong misses = new AtomicLong();
+
+    /** Source folders by the packages they contain */
+    private final Map<String, Set<Path>> packages = new HashMap<>();
+
+    /** The number of source folders that were scanned */
+    private final AtomicLong scanned = new AtomicLong();
+
+    /** The index of each source folder, in the order they were given */
+    private final Map<Path, SourceFolder> sourceFolders = new LinkedHashMap<>();
+
+    /**
+     * @param listener The listener to tell about problems loading, scanning or saving the index, which starts when the
+     * index is created
+     * @param folders The source folders to index
+     * @param file The file to load a saved index from and save the index to
+     */
+    public PackageIndex(Listener listener, List<Path> folders, Path file)
+    {
+        this.file = file;
+        addListener(listener);
+
+        // Load the saved index,
+        var saved = load();
+
+        // then use the saved index of each source folder that hasn't changed, scanning the others in parallel,
+        var indexes = folders.parallelStream()
+                .map(PackageIndex::key)
+                .distinct()
+                .map(folder -> isCurrent(saved.get(folder)) ? loaded(saved.get(folder)) : scan(folder))
+                .filter(Objects::nonNull)
+                .toList();
+
+        // and index source folders by the packages they contain.
+        for (var index : indexes)
+        {
+            sourceFolders.put(index.folder(), index);
+            index.packages().forEach(name -> packages.computeIfAbsent(name, ignored -> new HashSet<>()).add(index.folder()));
+        }
+
+        // If any source folder was scanned, save the index for the next run.
+        if (scanned.get() > 0)
+        {
+            save(saved);
+        }
+    }
+
+    /**
+     * Returns true if the given source folder was indexed. A source folder that could not be scanned is not indexed,
+     * and every lookup should go to it.
+     */
+    public boolean isIndexed(Path sourceFolder)
+    {
+        return sourceFolders.containsKey(key(sourceFolder));
+    }
+
+    /**
+     * Returns the indexed source folders that could declare a type with the given name, which may be qualified
+     */
+    public Set<Path> sourceFolders(String typeName)
+    {
+        lookups.incrementAndGet();
+
+        // Go through the packages the type could be in, from the default package down to its qualifier,
+        var folders = new HashSet<Path>();
+        var end = -1;
+        do
+        {
+            // adding the source folders that contain each package.
+            var in = packages.get(end < 0 ? "" : typeName.substring(0, end));
+            if (in != null)
+            {
+                folders.addAll(in);
+            }
+            end = typeName.indexOf('.', end + 1);
+        }
+        while (end > 0);
+
+        if (folders.isEmpty())
+        {
+            misses.incrementAndGet();
+        }
+        return folders;
+    }
+
+    /**
+     * Returns a description of this index and the lookups it has answered
+     */
+    public String statistics()
+    {
+        return String.format("%d packages in %d source folders (%d loaded, %d scanned), %d lookups, %d with no source folder",
+                packages.size(), sourceFolders.size(), loaded.get(), scanned.get(), lookups.get(), misses.get());
+    }
+
+    /**
+     * The packages in a source folder, and the last-modified time of each folder under it
+     *
+     * @param folder The source folder
+     * @param directories Last-modified times in milliseconds by path relative to the source folder
+     * @param packages The names of the packages that contain Java source files
+     */
+    private record SourceFolder(Path folder, Map<String, Long> directories, Set<String> packages)
+    {
+    }
+
+    private static Path key(Path path)
+    {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns true if the given file is a Java source file that can declare types, which module and package info files
+     * can't
+     */
+    private static boolean isTypeSource(Path path)
+    {
+        var name = path.getFileName().toString();
+        return name.endsWith(".java") && !name.equals("module-info.java") && !name.equals("package-info.java");
+    }
+
+    private static long lastModified(Path path) throws IOException
+    {
+        return Files.getLastModifiedTime(path).toMillis();
+    }
+
+    private static String relative(Path folder, Path path)
+    {
+        return folder.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Returns true if the given saved index exists and none of the folders in it have changed
+     */
+    private boolean isCurrent(SourceFolder saved)
+    {
+        if (saved == null)
+        {
+            return false;
+        }
+        try
+        {
+            for (var entry : saved.directories().entrySet())
+            {
+                if (lastModified(saved.folder().resolve(entry.getKey())) != entry.getValue())
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Loads any saved index, returning source folders by path
+     */
+    private Map<Path, SourceFolder> load()
+    {
+        var saved = new HashMap<Path, SourceFolder>();
+        if (file != null && Files.isRegularFile(file))
+        {
+            try
+            {
+                SourceFolder folder = null;
+                for (var line : Files.readAllLines(file, StandardCharsets.UTF_8))
+                {
+                    var space = line.indexOf(' ');
+                    var key = line.substring(0, space);
+                    var value = line.substring(space + 1);
+                    switch (key)
+                    {
+                        case "source-folder":
+                            folder = new SourceFolder(Path.of(value), new TreeMap<>(), new TreeSet<>());
+                            saved.put(folder.folder(), folder);
+                            break;
+
+                        case "directory":
+                            var separator = value.indexOf(' ');
+                            Objects.requireNonNull(folder).directories().put(value.substring(separator + 1),
+                                    Long.parseLong(value.substring(0, separator)));
+                            break;
+
+                        case "package":
+                            Objects.requireNonNull(folder).packages().add(value);
+                            break;
+
+                        default:
+                            throw new IllegalStateException("Unrecognized line: " + line);
+                    }
+                }
+            }
+            catch (Exception e)
+            {
+                warning(e, "Ignoring unreadable package index: $", file);
+                saved.clear();
+            }
+        }
+        return saved;
+    }
+
+    private SourceFolder loaded(SourceFolder saved)
+    {
+        loaded.incrementAndGet();
+        return saved;
+    }
+
+    /**
+     * Saves the index, along with the given saved index of each source folder that wasn't indexed this time and still
+     * exists
+     */
+    private void save(Map<Path, SourceFolder> saved)
+    {
+        // Keep the saved source folders that still exist, replacing those that were indexed,
+        var folders = new TreeMap<Path, SourceFolder>();
+        saved.forEach((path, folder) ->
+        {
+            if (Files.isDirectory(path))
+            {
+                folders.put(path, folder);
+            }
+        });
+        folders.putAll(sourceFolders);
+
+        // and write them out.
+        var lines = new StringList();
+        folders.values().forEach(folder ->
+        {
+            lines.add("source-folder " + folder.folder());
+            folder.directories().forEach((path, modified) -> lines.add("directory " + modified + " " + path));
+            folder.packages().forEach(name -> lines.add("package " + name));
+        });
+        try
+        {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, lines.join("\n"), StandardCharsets.UTF_8);
+        }
+        catch (IOException e)
+        {
+            warning(e, "Unable to save package index: $", file);
+        }
+    }
+
+    /**
+     * Scans the given source folder for folders and the packages that contain Java source files
+     *
+     * @return The index of the source folder, or null if it could not be scanned
+     */
+    private SourceFolder scan(Path folder)
+    {
+        var index = new SourceFolder(folder, new TreeMap<>(), new TreeSet<>());
+        try (var paths = Files.walk(folder, FileVisitOption.FOLLOW_LINKS))
+        {
+            for (var path : (Iterable<Path>) paths::iterator)
+            {
+                // Record the last-modified time of each folder,
+                if (Files.isDirectory(path))
+                {
+                    index.directories().put(relative(folder, path), lastModified(path));
+                }
+
+                // and the package of each folder with a Java source file that can declare types.
+                else if (isTypeSource(path))
+                {
+                    index.packages().add(relative(folder, path.getParent()).replace('/', '.'));
+                }
+            }
+            scanned.incrementAndGet();
+            return index;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            warning(e, "Unable to index source folder, so all lookups will go to it: $", folder);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.parsing;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.lexakai.metrics.RunMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.telenav.lexakai.metrics.Phase.PARSING;
+
+/**
+ * A pool of {@link JavaParser}s that can parse source files on more than one thread.
+ *
+ * <p><b>Threading</b></p>
+ *
+ * <p>
+ * JavaParser instances are not thread-safe, so each thread gets its own parser from {@link #parser()}. All parsers
+ * share the same {@link ParserConfiguration}, including its symbol resolver, which should be thread-safe, like
+ * {@link ScopedTypeSolvers.Scope#symbolResolver()}.
+ * </p>
+ *
+ * <p><b>Shallow Parsing</b></p>
+ *
+ * <p>
+ * Lexakai never reads statements, so when the pool is shallow, {@link #parse(File)} removes method, constructor and
+ * initializer bodies with {@link BodyElider} before parsing. This makes parse time and the size of the resulting AST
+ * depend on the size of the API instead of the size of the implementation. If the elided source can't be parsed, the
+ * original source is parsed instead.
+ * </p>
+ *
+ * <p><b>Sharing</b></p>
+ *
+ * <p>
+ * If the pool has a {@link CompilationUnitStore}, {@link #parse(File)} gets files from the store, which parses each
+ * file once with this pool, so the same compilation unit is shared by the projects that document it and the type
+ * solvers that resolve types in it.
+ * </p>
+ *
+ * <p><b>Resolution</b></p>
+ *
+ * <p>
+ * If the pool has a {@link TypeResolver}, it is attached to each compilation unit that is parsed successfully, so that
+ * types in the unit are resolved through it.
+ * </p>
+ *
+ * <p><b>Ordering</b></p>
+ *
+ * <p>
+ * The {@link #parse(List, Function)} method returns results in the same order as the list of files it was given, no
+ * matter which thread parsed which file or in what order they finished, so output stays deterministic.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class ParserPool
+{
+    /** Configuration shared by all parsers */
+    private final ParserConfiguration configuration;
+
+    /** Executor for parsing, or null if parsing happens on the calling thread */
+    private final ExecutorService executor;
+
+    /** The measurements of the run, which parsing work on other threads is added to */
+    private final RunMetrics metrics;
+
+    /** A parser for each thread */
+    private final ThreadLocal<JavaParser> parsers;
+
+    /** True if method bodies should be removed before parsing */
+    private final boolean shallow;
+
+    /** Resolver to attach to parsed compilation units, or null if there is none */
+    private final TypeResolver resolver;
+
+    /** Store of parsed compilation units, or null if files are parsed each time they are asked for */
+    private final CompilationUnitStore units;
+
+    /**
+     * @param configuration The configuration to use for all parsers
+     * @param threads The number of threads to parse with
+     * @param shallow True to parse only declarations, skipping method and initializer bodies
+     * @param resolver Any resolver for types in parsed compilation units, or null for none
+     * @param units Any store to share parsed compilation units through, or null for none
+     * @param metrics The measurements of the run
+     */
+    public ParserPool(ParserConfiguration configuration,
+                      int threads,
+                      boolean shallow,
+                      TypeResolver resolver,
+                      CompilationUnitStore units,
+                      RunMetrics metrics)
+    {
+        this.configuration = configuration;
+        this.shallow = shallow;
+        this.resolver = resolver;
+        this.units = units;
+        this.metrics = metrics;
+
+        parsers = ThreadLocal.withInitial(() -> new JavaParser(configuration));
+
+        if (units != null)
+        {
+            units.parsers(this);
+        }
+
+        if (threads > 1)
+        {
+            var number = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable ->
+            {
+                var thread = new Thread(runnable, "lexakai-parser-" + number.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        else
+        {
+            executor = null;
+        }
+    }
+
+    /**
+     * Stops any parser threads
+     */
+    public void close()
+    {
+        if (executor != null)
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns the configuration shared by all parsers in this pool
+     */
+    public ParserConfiguration configuration()
+    {
+        return configuration;
+    }
+
+    /**
+     * Parses the given file with the parser for the calling thread, skipping bodies if this pool is shallow. If the
+     * pool has a store of compilation units, the file is only parsed the first time it is asked for.
+     */
+    public ParseResult<CompilationUnit> parse(File file) throws IOException
+    {
+        var path = file.asJavaFile().toPath();
+        return units != null ? units.parse(path) : parseFile(path);
+    }
+
+    /**
+     * Applies the given parse function to each file, returning the results in the same order as the files
+     */
+    public <T> List<T> parse(List<File> files, Function<File, T> parse)
+    {
+        var results = new ArrayList<T>();
+
+        // If we have only one thread,
+        if (executor == null)
+        {
+            // parse the files on the calling thread,
+            files.forEach(file -> results.add(parse.apply(file)));
+        }
+        else
+        {
+            // otherwise, submit a parse task for each file,
+            var futures = new ArrayList<Future<T>>();
+            for (var file : files)
+            {
+                futures.add(executor.submit(() -> metrics.measureWork(PARSING, () -> parse.apply(file))));
+            }
+
+            // and collect the results in the original order.
+            for (var future : futures)
+            {
+                try
+                {
+                    results.add(future.get());
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while parsing", e);
+                }
+                catch (ExecutionException e)
+                {
+                    throw new IllegalStateException("Parse task failed", e.getCause());
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns the parser for the calling thread
+     */
+    public JavaParser parser()
+    {
+        return parsers.get();
+    }
+
+    /**
+     * Parses the given file with the parser for the calling thread, skipping bodies if this pool is shallow, and
+     * attaches any resolver to the resulting compilation unit
+     */
+    ParseResult<CompilationUnit> parseFile(Path path) throws IOException
+    {
+        // Parse the file,
+        var result = parseSource(path);
+
+        // and attach any resolver to the compilation unit.
+        if (resolver != null && result.isSuccessful())
+        {
+            result.getResult().ifPresent(resolver::attach);
+        }
+        return result;
+    }
+
+    private ParseResult<CompilationUnit> parseSource(Path path) throws IOException
+    {
+        // If we are parsing shallowly,
+        if (shallow)
+        {
+            // remove the bodies from the source code,
+            var source = Files.readString(path, configuration.getCharacterEncoding());
+            var elided = BodyElider.elide(source);
+            if (elided != null)
+            {
+                // and if the result parses,
+                var result = parser().parse(elided);
+                if (result.isSuccessful())
+                {
+                    // give the compilation unit the file's location, as a full parse would, and return the result.
+                    result.getResult().ifPresent(unit -> unit.setStorage(path, configuration.getCharacterEncoding()));
+                    return result;
+                }
+            }
+        }
+
+        // Otherwise, parse the whole file, which is read with the configuration's character encoding.
+        return parser().parse(path);
+    }
+}
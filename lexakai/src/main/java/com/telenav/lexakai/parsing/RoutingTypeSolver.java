@@ -0,0 +1,106 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.parsing;
+
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link TypeSolver} that combines the solvers for a list of source folders, like a {@link CombinedTypeSolver}, but
+ * uses a {@link PackageIndex} to ask only the solvers for source folders that could declare a type, instead of asking
+ * each solver in turn. Solvers are still asked in the order they were added, so the first source folder that declares
+ * a type wins, just as it would with a combined solver. Names that no source folder could declare, like most names of
+ * JDK and library types, are rejected without asking any solver.
+ *
+ * @author jonathanl (shibo)
+ */
+public class RoutingTypeSolver implements TypeSolver
+{
+    /** The index of the packages in each source folder */
+    private final PackageIndex index;
+
+    /** The solvers for each source folder, in the order they are asked */
+    private final List<Route> routes = new ArrayList<>();
+
+    /** Any parent of this solver */
+    private TypeSolver parent;
+
+    /**
+     * @param index The index of the packages in the source folders of the solvers that will be added
+     */
+    public RoutingTypeSolver(PackageIndex index)
+    {
+        this.index = index;
+    }
+
+    /**
+     * Adds the solver for the given source folder, making it a child of this solver
+     */
+    public void add(Path sourceFolder, TypeSolver solver)
+    {
+        routes.add(new Route(sourceFolder, index.isIndexed(sourceFolder), solver));
+        solver.setParent(this);
+    }
+
+    @Override
+    public TypeSolver getParent()
+    {
+        return parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent)
+    {
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name)
+    {
+        // Find the source folders that could declare the type,
+        var folders = index.sourceFolders(name);
+
+        // and ask the solver for each of them, plus any that weren't indexed, in order.
+        for (var route : routes)
+        {
+            if (!route.isIndexed() || folders.contains(route.sourceFolder()))
+            {
+                var reference = route.solver().tryToSolveType(name);
+                if (reference.isSolved())
+                {
+                    return reference;
+                }
+            }
+        }
+        return SymbolReference.unsolved(ResolvedReferenceTypeDeclaration.class);
+    }
+
+    /**
+     * A source folder and its solver
+     */
+    private record Route(Path sourceFolder, boolean isIndexed, TypeSolver solver)
+    {
+    }
+}
@@ -0,0 +1,284 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.parsing;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.SymbolResolver;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The type solvers for the source folders in a run. Each source folder can be given a scope of its own, which is the
+ * list of source folders that types in the folder can resolve to, like the folder itself followed by the source
+ * folders of its project's dependencies, nearest first. Source folders without a scope of their own share the default
+ * scope, which is all source folders.
+ *
+ * <p><b>Solvers</b></p>
+ *
+ * <p>
+ * Each scope has its own chain of {@link CompilationUnitStore#typeSolver(Path, ParserConfiguration)} solvers, combined
+ * in the order of the scope's folders by a {@link RoutingTypeSolver}. The routing solver uses the {@link PackageIndex}
+ * of all source folders to ask only the solvers for folders that could declare a type. Solvers are not shared between
+ * scopes, because JavaParser remembers the root of a solver's chain the first time the solver is used. Parsed
+ * compilation units are shared between all solvers through the store, so a file is still parsed only once. Scopes with
+ * the same folders in the same order share the same solvers.
+ * </p>
+ *
+ * <p><b>Threads</b></p>
+ *
+ * <p>
+ * JavaParser's solvers and the caches it keeps for each solver are not thread-safe, so each thread that resolves types
+ * in a scope gets a chain of its own the first time it asks for {@link Scope#solver()}. Threads resolve types at the
+ * same time, even in the same scope, at the cost of each chain filling its own caches. The store they read units from
+ * is thread-safe. {@link Scope#symbolResolver()} hands each call to the symbol resolver of the calling thread's chain,
+ * so it can be set on compilation units that are shared between threads.
+ * </p>
+ *
+ * <p><b>Lookup</b></p>
+ *
+ * <p>
+ * The scope for a source file is the scope of the nearest source folder containing it, found with {@link #scope(Path)}.
+ * The symbol resolver of each parsed compilation unit should be set to {@link Scope#symbolResolver()} for its scope,
+ * which {@link TypeResolver} does when it is attached to the unit.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class ScopedTypeSolvers
+{
+    /** The configuration for any file the store can't provide */
+    private final ParserConfiguration configuration;
+
+    /** The index of the packages in the source folders */
+    private final PackageIndex index;
+
+    /** Scopes by the list of source folders they contain */
+    private final Map<List<Path>, Scope> scopes = new HashMap<>();
+
+    /** Scopes by the source folder they are for */
+    private final Map<Path, Scope> sourceFolderScopes = new HashMap<>();
+
+    /** The store of parsed compilation units */
+    private final CompilationUnitStore units;
+
+    /** The scope of source folders without their own scope */
+    private Scope defaultScope;
+
+    /**
+     * @param units The store that solvers read parsed compilation units from
+     * @param configuration The configuration for any file the store can't provide
+     * @param index The index of the packages in the source folders
+     */
+    public ScopedTypeSolvers(CompilationUnitStore units, ParserConfiguration configuration, PackageIndex index)
+    {
+        this.units = units;
+        this.configuration = configuration;
+        this.index = index;
+    }
+
+    /**
+     * Sets the scope of source folders that have no scope of their own
+     *
+     * @param sourceFolders The source folders in the default scope, in the order they should be searched
+     */
+    public synchronized Scope defaultScope(List<Path> sourceFolders)
+    {
+        defaultScope = scope(sourceFolders);
+        return defaultScope;
+    }
+
+    /**
+     * Returns the scope for the given source file, which is the scope of the nearest source folder containing it, or
+     * the default scope if no source folder with a scope of its own contains it
+     */
+    public synchronized Scope scope(Path file)
+    {
+        for (var at = key(file); at != null; at = at.getParent())
+        {
+            var scope = sourceFolderScopes.get(at);
+            if (scope != null)
+            {
+                return scope;
+            }
+        }
+        return defaultScope;
+    }
+
+    /**
+     * Gives the given source folder a scope of its own
+     *
+     * @param sourceFolder The source folder
+     * @param visibleFolders The source folders that types in the source folder can resolve to, in the order they
+     * should be searched
+     */
+    public synchronized void scope(Path sourceFolder, List<Path> visibleFolders)
+    {
+        sourceFolderScopes.put(key(sourceFolder), scope(visibleFolders));
+    }
+
+    /**
+     * Returns a description of the scopes
+     */
+    public synchronized String statistics()
+    {
+        var folders = scopes.values().stream().mapToInt(scope -> scope.sourceFolders().size()).sum();
+        var average = scopes.isEmpty() ? 0.0 : (double) folders / scopes.size();
+        var chains = scopes.values().stream().mapToInt(Scope::chains).sum();
+        return String.format("%d scopes, %d source folders with their own scope, %.1f source folders per scope, %d solver chains",
+                scopes.size(), sourceFolderScopes.size(), average, chains);
+    }
+
+    /**
+     * The source folders that types can resolve to, and the solvers that resolve them.
+     *
+     * @author jonathanl (shibo)
+     */
+    public static class Scope
+    {
+        /** The number of solver chains created for threads */
+        private final AtomicInteger chains = new AtomicInteger();
+
+        /** The identifier of this scope, which is unique within its set of solvers */
+        private final int identifier;
+
+        /** The solver chain of each thread */
+        private final ThreadLocal<Chain> solvers;
+
+        /** The source folders in this scope, in the order they are searched */
+        private final List<Path> sourceFolders;
+
+        /** The symbol resolver for compilation units in this scope */
+        private final SymbolResolver symbolResolver = new ThreadSymbolResolver();
+
+        Scope(int identifier, List<Path> sourceFolders, Supplier<TypeSolver> newSolver)
+        {
+            this.identifier = identifier;
+            this.sourceFolders = sourceFolders;
+            this.solvers = ThreadLocal.withInitial(() ->
+            {
+                chains.incrementAndGet();
+                var solver = newSolver.get();
+                return new Chain(solver, new JavaSymbolSolver(solver));
+            });
+        }
+
+        /**
+         * Returns the number of solver chains created for threads
+         */
+        public int chains()
+        {
+            return chains.get();
+        }
+
+        /**
+         * Returns the identifier of this scope, which is unique within its set of solvers
+         */
+        public int identifier()
+        {
+            return identifier;
+        }
+
+        /**
+         * Returns the solver chain of the calling thread
+         */
+        public TypeSolver solver()
+        {
+            return solvers.get().solver();
+        }
+
+        /**
+         * Returns the source folders in this scope, in the order they are searched
+         */
+        public List<Path> sourceFolders()
+        {
+            return sourceFolders;
+        }
+
+        /**
+         * Returns the symbol resolver for compilation units in this scope, which resolves with the calling thread's
+         * solver chain
+         */
+        public SymbolResolver symbolResolver()
+        {
+            return symbolResolver;
+        }
+
+        /**
+         * The solver chain of a thread, and the symbol resolver that resolves with it
+         */
+        private record Chain(TypeSolver solver, JavaSymbolSolver symbolResolver)
+        {
+        }
+
+        /**
+         * A symbol resolver that hands each call to the symbol resolver of the calling thread's solver chain
+         */
+        private class ThreadSymbolResolver implements SymbolResolver
+        {
+            @Override
+            public ResolvedType calculateType(Expression expression)
+            {
+                return solvers.get().symbolResolver().calculateType(expression);
+            }
+
+            @Override
+            public <T> T resolveDeclaration(Node node, Class<T> type)
+            {
+                return solvers.get().symbolResolver().resolveDeclaration(node, type);
+            }
+
+            @Override
+            public <T> T toResolvedType(Type type, Class<T> resultType)
+            {
+                return solvers.get().symbolResolver().toResolvedType(type, resultType);
+            }
+        }
+    }
+
+    private static Path key(Path path)
+    {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns the scope for the given source folders, creating it if there isn't one yet
+     */
+    private Scope scope(List<Path> sourceFolders)
+    {
+        var folders = sourceFolders.stream().map(ScopedTypeSolvers::key).distinct().toList();
+        return scopes.computeIfAbsent(folders, ignored -> new Scope(scopes.size(), folders, () ->
+        {
+            // Route lookups to a new solver for each folder in the scope.
+            var solver = new RoutingTypeSolver(index);
+            folders.forEach(folder -> solver.add(folder, units.typeSolver(folder, configuration)));
+            return solver;
+        }));
+    }
+}
@@ -0,0 +1,93 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.parsing;
+
+import com.github.javaparser.symbolsolver.cache.Cache;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JavaParser {@link Cache} that holds its values with soft references, so the garbage collector can drop them when
+ * memory is low. A value that was dropped is reported as missing, which makes the owner of the cache compute it again.
+ * Used for the caches of type solvers, which hold on to the syntax trees of the types they have found.
+ *
+ * @author jonathanl (shibo)
+ */
+public class SoftCache<K, V> implements Cache<K, V>
+{
+    /** Values by key */
+    private final Map<K, SoftReference<V>> values = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean contains(K key)
+    {
+        return get(key).isPresent();
+    }
+
+    @Override
+    public Optional<V> get(K key)
+    {
+        var reference = values.get(key);
+        if (reference == null)
+        {
+            return Optional.empty();
+        }
+
+        // If the value was dropped, remove its reference.
+        var value = reference.get();
+        if (value == null)
+        {
+            values.remove(key, reference);
+        }
+        return Optional.ofNullable(value);
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public void put(K key, V value)
+    {
+        values.put(key, new SoftReference<>(value));
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        values.remove(key);
+    }
+
+    @Override
+    public void removeAll()
+    {
+        values.clear();
+    }
+
+    @Override
+    public long size()
+    {
+        return values.size();
+    }
+}
@@ -0,0 +1,374 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.parsing;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.stmt.LocalClassDeclarationStmt;
+import com.github.javaparser.ast.stmt.LocalRecordDeclarationStmt;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.declarations.AssociableToAST;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFactory;
+import com.telenav.lexakai.metrics.RunMetrics;
+import com.telenav.lexakai.parsing.ScopedTypeSolvers.Scope;
+import com.telenav.lexakai.metrics.events.Events;
+import com.telenav.lexakai.metrics.events.SymbolResolutionEvent;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.telenav.lexakai.metrics.Phase.SYMBOL_RESOLUTION;
+
+/**
+ * Resolves types to reference types with a type solver, remembering the result for each type in each scope, whether
+ * or not the type could be resolved. The result is a {@link Resolution}, which has the qualified name of the reference
+ * type and the source file declaring it, but no references to the symbol solver's model, so remembering it doesn't
+ * keep the compilation unit that declares the type in memory.
+ *
+ * <p><b>Attaching</b></p>
+ *
+ * <p>
+ * A resolver is attached to each parsed compilation unit by {@link #attach(CompilationUnit)}, along with the unit's
+ * package and imports and the {@link ScopedTypeSolvers.Scope} of the source folder it is in, so {@link #resolve(Type)}
+ * can find the resolver and solver for any type in the unit. Attaching also sets the unit's symbol resolver to the one
+ * for its scope. Types in units without a resolver are resolved directly, without remembering the result.
+ * </p>
+ *
+ * <p><b>Memoization</b></p>
+ *
+ * <p>
+ * Results are keyed by the compilation unit, which fixes the scope, package and imports, along with the qualified name
+ * of the type declaring the type, any type parameters of an enclosing method or constructor and the text of the type,
+ * which is everything that can change what a name refers to in declarations. Each unit is identified by a number
+ * given to it when it is attached, so keys don't hold copies of its imports. Types in local or anonymous classes are
+ * not remembered, since those classes have no qualified name to key them by.
+ * </p>
+ *
+ * <p><b>Pre-checking</b></p>
+ *
+ * <p>
+ * Most types from the JDK and from libraries can't be resolved from source folders. Rather than letting JavaParser
+ * throw an exception for each of them, the name of a class or interface type is first looked up in its context with
+ * the solver's non-throwing lookup, and the type is only resolved if the name is found. Types that are not class or
+ * interface types can't resolve to a reference type, so they are rejected without resolving.
+ * </p>
+ *
+ * <p><b>Threads</b></p>
+ *
+ * <p>
+ * JavaParser's solvers and caches are not thread-safe, so types are resolved with the calling thread's own solver
+ * chain for the scope, from {@link ScopedTypeSolvers.Scope#solver()}, and threads resolve types at the same time
+ * without locking. Results are shared between threads through a concurrent map. Types in units without a resolver are
+ * resolved one at a time.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class TypeResolver
+{
+    /** Key for the resolver and imports of a compilation unit in its data */
+    private static final DataKey<Unit> KEY = new DataKey<>()
+    {
+    };
+
+    /** Lock held while resolving types in compilation units that have no resolver attached */
+    private static final Object unattachedLock = new Object();
+
+    /**
+     * Resolves the given type to a reference type with the resolver attached to its compilation unit, if any
+     *
+     * @return The resolution, or null if the type is not a reference type or could not be resolved
+     */
+    public static Resolution resolve(Type type)
+    {
+        // If the type isn't a class or interface type, it can't be a reference type,
+        if (!type.isClassOrInterfaceType())
+        {
+            return null;
+        }
+
+        // otherwise, resolve it with the resolver for its compilation unit, if it has one.
+        var unit = type.findCompilationUnit()
+                .filter(at -> at.containsData(KEY))
+                .map(at -> at.getData(KEY));
+        return unit.isPresent()
+                ? unit.get().resolver().resolve(type.asClassOrInterfaceType(), unit.get())
+                : resolveUnattached(type);
+    }
+
+    /** The number of resolutions found in memory */
+    private final AtomicLong cached = new AtomicLong();
+
+    /** The number of types that could not be resolved */
+    private final AtomicLong failed = new AtomicLong();
+
+    /** The measurements of the run */
+    private final RunMetrics metrics;
+
+    /** The number of types that were resolved */
+    private final AtomicLong resolved = new AtomicLong();
+
+    /** Resolved types, or empty if a type could not be resolved, by key */
+    private final Map<Key, Optional<Resolution>> resolutions = new ConcurrentHashMap<>();
+
+    /** The solvers for the source folders of attached compilation units */
+    private final ScopedTypeSolvers solvers;
+
+    /** The number of compilation units attached, which identifies the next one */
+    private final AtomicInteger units = new AtomicInteger();
+
+    /**
+     * @param solvers The solvers for the source folders of the compilation units this resolver is attached to
+     * @param metrics The measurements of the run, which symbol resolution is added to
+     */
+    public TypeResolver(ScopedTypeSolvers solvers, RunMetrics metrics)
+    {
+        this.solvers = solvers;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Attaches this resolver to the given compilation unit. This should be called on the thread that parsed the unit,
+     * before it is shared with other threads.
+     */
+    public void attach(CompilationUnit unit)
+    {
+        // Find the scope of the unit's source folder and use its symbol resolver,
+        var scope = solvers.scope(unit.getStorage()
+                .map(CompilationUnit.Storage::getPath)
+                .orElse(Path.of("")));
+        unit.setData(Node.SYMBOL_RESOLVER_KEY, scope.symbolResolver());
+
+        // then attach this resolver and the scope, with a number that identifies the unit.
+        unit.setData(KEY, new Unit(this, scope, units.getAndIncrement()));
+    }
+
+    /**
+     * Returns the number of resolutions found in memory
+     */
+    public long cached()
+    {
+        return cached.get();
+    }
+
+    /**
+     * Returns the number of types that could not be resolved
+     */
+    public long failed()
+    {
+        return failed.get();
+    }
+
+    /**
+     * Returns the number of types that were resolved
+     */
+    public long resolved()
+    {
+        return resolved.get();
+    }
+
+    /**
+     * Returns a description of the resolutions, failures and memoized results for this resolver
+     */
+    public String statistics()
+    {
+        var lookups = cached() + failed() + resolved();
+        var rate = lookups == 0 ? 0.0 : 100.0 * cached() / lookups;
+        return String.format("%d resolved, %d failed, %d cached (%.1f%% hit rate)", resolved(), failed(), cached(), rate);
+    }
+
+    /**
+     * What a type resolved to: the qualified name of the reference type, and the normalized absolute path of the
+     * source file that declares it, or null if it isn't declared in source code.
+     *
+     * @author jonathanl (shibo)
+     */
+    public record Resolution(String qualifiedName, Path file)
+    {
+        static Resolution of(ResolvedReferenceType type)
+        {
+            var file = type.getTypeDeclaration()
+                    .filter(declaration -> declaration instanceof AssociableToAST)
+                    .flatMap(declaration -> ((AssociableToAST<?>) declaration).toAst())
+                    .flatMap(Node::findCompilationUnit)
+                    .flatMap(CompilationUnit::getStorage)
+                    .map(storage -> storage.getPath().toAbsolutePath().normalize())
+                    .orElse(null);
+            return new Resolution(type.getQualifiedName(), file);
+        }
+    }
+
+    /**
+     * The key of a remembered resolution: the number of the compilation unit, the scope of names in the unit that the
+     * type is in and the text of the type
+     */
+    private record Key(int unit, String scope, String type)
+    {
+    }
+
+    /** The resolver and scope of a compilation unit, and the number that identifies it */
+    private record Unit(TypeResolver resolver, Scope scope, int identifier)
+    {
+    }
+
+    /**
+     * Resolves the given type with the symbol resolver of its compilation unit
+     *
+     * @return The resolution, or null if the type could not be resolved to a reference type
+     */
+    private static Resolution referenceType(Type type)
+    {
+        try
+        {
+            var resolved = type.resolve();
+            if (resolved.isReferenceType())
+            {
+                return Resolution.of(resolved.asReferenceType());
+            }
+        }
+        catch (Exception ignored)
+        {
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the given type in a compilation unit without a resolver, one type at a time, since the symbol solver's
+     * caches are not thread-safe
+     */
+    private static Resolution resolveUnattached(Type type)
+    {
+        synchronized (unattachedLock)
+        {
+            return referenceType(type);
+        }
+    }
+
+    /**
+     * Returns the scope in which the names in the given type are resolved, or null if the scope has no name
+     */
+    private static String scope(Type type)
+    {
+        var scope = new StringBuilder();
+        Node child = type;
+        for (var at = type.getParentNode().orElse(null); at != null; child = at, at = at.getParentNode().orElse(null))
+        {
+            // If we're in a local or anonymous class, the scope has no name,
+            if (at instanceof LocalClassDeclarationStmt
+                    || at instanceof LocalRecordDeclarationStmt
+                    || at instanceof ObjectCreationExpr
+                    || at instanceof EnumConstantDeclaration)
+            {
+                return null;
+            }
+
+            // if we're in a method or constructor, add any type parameters it has,
+            if (at instanceof CallableDeclaration<?> callable)
+            {
+                callable.getTypeParameters().forEach(parameter -> scope.append('<').append(parameter.getNameAsString()));
+            }
+
+            // and if we reach the declaring type,
+            if (at instanceof TypeDeclaration<?> declaration)
+            {
+                // add its qualified name, and whether the type is in its body or in its header.
+                var name = declaration.getFullyQualifiedName();
+                return name.isEmpty()
+                        ? null
+                        : name.get() + (child instanceof BodyDeclaration ? "" : "^") + scope;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the given class or interface type, remembering the result if the type's scope has a name
+     */
+    private Resolution resolve(ClassOrInterfaceType type, Unit unit)
+    {
+        // If the type's scope has no name, resolve the type without remembering it,
+        var scope = scope(type);
+        if (scope == null)
+        {
+            return tryToResolve(type, unit.scope());
+        }
+
+        // otherwise, look for the result in memory,
+        var key = new Key(unit.identifier(), scope, type.asString());
+        var resolution = resolutions.get(key);
+        if (resolution != null)
+        {
+            cached.incrementAndGet();
+            return resolution.orElse(null);
+        }
+
+        // and if it isn't there, resolve the type and remember the result.
+        var resolved = tryToResolve(type, unit.scope());
+        resolutions.put(key, Optional.ofNullable(resolved));
+        return resolved;
+    }
+
+    /**
+     * Returns true if the name of the given type can be found in its context, without throwing an exception if it
+     * can't
+     */
+    private boolean isFound(ClassOrInterfaceType type, Scope scope)
+    {
+        try
+        {
+            return JavaParserFactory.getContext(type, scope.solver()).solveType(type.getNameWithScope()).isSolved();
+        }
+        catch (Exception ignored)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the given resolution code in the symbol resolution phase
+     */
+    private Resolution measured(Type type, Supplier<Resolution> code)
+    {
+        metrics.count(SYMBOL_RESOLUTION, 1);
+        return metrics.measure(SYMBOL_RESOLUTION, () -> Events.record(new SymbolResolutionEvent(), type::asString, code));
+    }
+
+    /**
+     * Resolves the given type if its name can be found, counting the result
+     */
+    private Resolution tryToResolve(ClassOrInterfaceType type, Scope scope)
+    {
+        var resolved = measured(type, () -> isFound(type, scope) ? referenceType(type) : null);
+        (resolved == null ? failed : this.resolved).incrementAndGet();
+        return resolved;
+    }
+}
@@ -1,11 +1,11 @@
 package com.telenav.lexakai.quality;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
 import com.telenav.kivakit.core.collections.list.StringList;
 import com.telenav.kivakit.core.collections.map.VariableMap;
 import com.telenav.kivakit.core.value.level.Percent;
 import com.telenav.kivakit.filesystem.Folder;
 import com.telenav.lexakai.LexakaiProject;
+import com.telenav.lexakai.model.TypeModel;
 import org.jetbrains.annotations.NotNull;
 
 import static com.telenav.kivakit.core.string.Align.rightAlign;
@@ -36,13 +36,13 @@ public class CodeQualityAnalysis implements Comparable<CodeQualityAnalysis>
         this.project = project;
     }
 
-    public void add(TypeDeclaration<?> type)
+    public void add(TypeModel type)
     {
-        var fullName = type.getFullyQualifiedName();
-        if (fullName.isPresent() && (type.isPublic() || type.isProtected()) && !fullName.get().endsWith("Test"))
+        // The quality of a type is only measured for public or protected types that are not tests
+        var quality = type.quality();
+        if (quality != null)
         {
-            var typeName = fullName.get();
-            var quality = CodeQualityOfType.quality(typeName, type);
+            var typeName = type.qualifiedName();
 
             boolean warning = false;
 
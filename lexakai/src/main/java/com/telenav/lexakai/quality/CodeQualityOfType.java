@@ -37,7 +37,7 @@ public class CodeQualityOfType
         quality.stability = STABILITY_UNDETERMINED;
         quality.testing = Testing.TESTING_UNDETERMINED;
 
-        var codeQualityAnnotation = node.getAnnotationByClass(CodeQuality.class);
+        var codeQualityAnnotation = Annotations.annotation(node, CodeQuality.class);
         if (codeQualityAnnotation.isPresent())
         {
             var codeQuality = codeQualityAnnotation.get();
@@ -71,7 +71,7 @@ public class CodeQualityOfType
             }
         }
 
-        var lexakaiJavadocAnnotation = node.getAnnotationByClass(LexakaiJavadoc.class);
+        var lexakaiJavadocAnnotation = Annotations.annotation(node, LexakaiJavadoc.class);
         if (lexakaiJavadocAnnotation.isPresent())
         {
             var lexakaiJavadoc = lexakaiJavadocAnnotation.get();
@@ -82,6 +82,24 @@ public class CodeQualityOfType
         return quality;
     }
 
+    /**
+     * Returns the given code quality of a single type, as read from the model cache
+     */
+    public static CodeQualityOfType quality(String typeName,
+                                            Documentation documentation,
+                                            Stability stability,
+                                            Testing testing,
+                                            Audience audience)
+    {
+        var quality = new CodeQualityOfType();
+        quality.typeName = typeName;
+        quality.documentation = documentation;
+        quality.stability = stability;
+        quality.testing = testing;
+        quality.audience = audience;
+        return quality;
+    }
+
     @FormatProperty
     String typeName;
 
@@ -97,6 +115,16 @@ public class CodeQualityOfType
     @FormatProperty
     Audience audience;
 
+    public Audience audience()
+    {
+        return audience;
+    }
+
+    public Documentation documentation()
+    {
+        return documentation;
+    }
+
     public String problems()
     {
         var problems = new StringList();
@@ -115,9 +143,24 @@ public class CodeQualityOfType
         return problems.join();
     }
 
+    public Stability stability()
+    {
+        return stability;
+    }
+
+    public Testing testing()
+    {
+        return testing;
+    }
+
     @Override
     public String toString()
     {
         return new ObjectFormatter(this).toString();
     }
+
+    public String typeName()
+    {
+        return typeName;
+    }
 }
@@ -0,0 +1,154 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.rendering;
+
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.kivakit.resource.packages.PackageResource;
+import com.telenav.lexakai.Lexakai;
+import com.telenav.lexakai.cache.ContentCache;
+import com.telenav.lexakai.library.Hashes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A renderer that copies SVG files from a {@link ContentCache} when the same diagram has been rendered before, and
+ * passes only the remaining diagrams to another renderer.
+ *
+ * <p><b>Keys</b></p>
+ *
+ * <p>
+ * Each diagram is keyed by a hash of the embedded plantuml.jar and the diagram's UML with its includes inlined by
+ * {@link RenderJob#inlinedUml()}, so a change to the theme or an upgrade of PlantUML produces different keys.
+ * Because the key depends only on content, identical diagrams share an entry no matter where or when they were
+ * rendered.
+ * </p>
+ *
+ * <p><b>Failures</b></p>
+ *
+ * <p>
+ * PlantUML renders errors into the SVG file instead of failing. Errors in the UML itself will be the same next time,
+ * so they are cached like any other output, but SVG files reporting that Graphviz is missing are not cached, since
+ * they depend on the machine rather than the diagram.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class CachingRenderer extends BaseComponent implements Renderer
+{
+    /** Text in SVG files that PlantUML rendered without Graphviz */
+    private static final String GRAPHVIZ_MISSING = "Cannot find Graphviz";
+
+    /** The renderer for diagrams that are not in the cache */
+    private final Renderer renderer;
+
+    /** The cache of SVG files */
+    private final ContentCache cache;
+
+    /** Hash of the embedded plantuml.jar, or null if it hasn't been computed yet */
+    private String plantUmlHash;
+
+    /**
+     * @param renderer The renderer to use for diagrams that are not in the cache
+     * @param cache The cache of SVG files
+     */
+    public CachingRenderer(Renderer renderer, ContentCache cache)
+    {
+        this.renderer = renderer;
+        this.cache = cache;
+    }
+
+    @Override
+    public void close()
+    {
+        renderer.close();
+    }
+
+    @Override
+    public void render(List<RenderJob> jobs)
+    {
+        // For each diagram,
+        var misses = new ArrayList<RenderJob>();
+        var keys = new ArrayList<String>();
+        for (var job : jobs)
+        {
+            // copy its SVG file from the cache,
+            var key = cache.key(plantUmlHash() + "\n" + job.inlinedUml());
+            var svg = job.svg().asJavaFile().toPath();
+            if (!cache.copyTo(key, svg))
+            {
+                // or if it isn't there, remove any stale SVG file and add the diagram to the list to render.
+                try
+                {
+                    Files.deleteIfExists(svg);
+                }
+                catch (IOException e)
+                {
+                    warning(e, "Unable to remove $", svg);
+                }
+                misses.add(job);
+                keys.add(key);
+            }
+        }
+
+        narrate("Copied $ of $ SVG files from the render cache", jobs.size() - misses.size(), jobs.size());
+
+        // Render the diagrams that were not in the cache,
+        if (!misses.isEmpty())
+        {
+            renderer.render(misses);
+        }
+
+        // then add the SVG files that were produced to the cache.
+        for (int i = 0; i < misses.size(); i++)
+        {
+            var svg = misses.get(i).svg().asJavaFile().toPath();
+            if (Files.exists(svg))
+            {
+                try
+                {
+                    var text = Files.readString(svg, StandardCharsets.UTF_8);
+                    if (!text.contains(GRAPHVIZ_MISSING))
+                    {
+                        cache.write(keys.get(i), text);
+                    }
+                }
+                catch (IOException e)
+                {
+                    warning(e, "Unable to read $", svg);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a hash of the embedded plantuml.jar, which identifies the version of PlantUML
+     */
+    private String plantUmlHash()
+    {
+        if (plantUmlHash == null)
+        {
+            plantUmlHash = Hashes.sha256(PackageResource.packageResource(this, Lexakai.class, "plantuml.jar").reader().readBytes());
+        }
+        return plantUmlHash;
+    }
+}
@@ -0,0 +1,64 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.rendering;
+
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.kivakit.core.collections.list.StringList;
+import com.telenav.kivakit.core.os.Processes;
+import com.telenav.kivakit.launcher.JarLauncher;
+import com.telenav.kivakit.resource.packages.PackageResource;
+import com.telenav.lexakai.Lexakai;
+
+import java.util.List;
+
+import static com.telenav.kivakit.launcher.JarLauncher.ProcessType.CHILD;
+import static com.telenav.kivakit.launcher.JarLauncher.RedirectTo.CONSOLE;
+
+/**
+ * Renders diagrams by launching the embedded plantuml.jar in a child process on the saved .puml files.
+ *
+ * @author jonathanl (shibo)
+ */
+public class ForkedRenderer extends BaseComponent implements Renderer
+{
+    @Override
+    public void render(List<RenderJob> jobs)
+    {
+        // largely I/O bound, so use a larger multiple
+        var threads = Integer.toString(Runtime.getRuntime().availableProcessors() * 3);
+        var arguments = new StringList();
+        arguments.add("-Xmx4G");
+        arguments.add("-nbthread");
+        arguments.add(threads);
+        arguments.add("-progress");
+        arguments.add("-tsvg");
+        jobs.forEach(job -> arguments.add(job.puml().toString()));
+
+        announce("Building SVG files with PlantUML (https://plantuml.com)...");
+        var process = listenTo(new JarLauncher()
+                .processType(CHILD)
+                .arguments(arguments))
+                .addJarSource(PackageResource.packageResource(this, Lexakai.class, "plantuml.jar"))
+                .redirectTo(CONSOLE)
+                .run();
+
+        Processes.waitForTermination(process);
+        System.out.println();
+    }
+}
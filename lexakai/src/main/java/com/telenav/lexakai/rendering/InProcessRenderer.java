@@ -0,0 +1,262 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.rendering;
+
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.kivakit.resource.packages.PackageResource;
+import com.telenav.lexakai.Lexakai;
+import com.telenav.lexakai.metrics.RunMetrics;
+import com.telenav.lexakai.metrics.events.Events;
+import com.telenav.lexakai.metrics.events.SvgRenderEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.telenav.lexakai.metrics.Phase.SVG_RENDERING;
+
+/**
+ * Renders diagrams with PlantUML in this process, instead of launching a child JVM on the saved .puml files.
+ *
+ * <p><b>Isolation</b></p>
+ *
+ * <p>
+ * The embedded plantuml.jar is copied to a temporary file and loaded on its own class loader, whose parent is the
+ * platform class loader, so PlantUML's classes can't conflict with Lexakai's dependencies. PlantUML is called through
+ * reflection, so Lexakai has no compile-time dependency on it.
+ * </p>
+ *
+ * <p><b>Rendering</b></p>
+ *
+ * <p>
+ * Each diagram is rendered from the UML text held by its {@link RenderJob}, so the .puml file is not read back.
+ * Because the text is not read from a file, PlantUML can't resolve relative <i>!include</i> directives, so included
+ * files in the diagram's folder, like <i>lexakai.theme</i>, are inlined with {@link RenderJob#inlinedUml()}.
+ * Diagrams are rendered on a fixed number of threads, and the time taken to render each diagram is reported.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class InProcessRenderer extends BaseComponent implements Renderer
+{
+    /** The measurements of the run */
+    private final RunMetrics metrics;
+
+    /** The number of threads to render on */
+    private final int threads;
+
+    /** The class loader for PlantUML, or null if it hasn't been loaded yet */
+    private URLClassLoader loader;
+
+    /** Executor for rendering, created when PlantUML is loaded */
+    private ExecutorService executor;
+
+    /** Constructs net.sourceforge.plantuml.SourceStringReader from a String */
+    private Constructor<?> newReader;
+
+    /** Constructs net.sourceforge.plantuml.FileFormatOption from a FileFormat */
+    private Constructor<?> newFormatOption;
+
+    /** The SVG constant of net.sourceforge.plantuml.FileFormat */
+    private Object svgFormat;
+
+    /** SourceStringReader.outputImage(OutputStream, FileFormatOption) */
+    private Method outputImage;
+
+    /**
+     * @param threads The number of threads to render diagrams on
+     * @param metrics The measurements of the run, which rendering work is added to
+     */
+    public InProcessRenderer(int threads, RunMetrics metrics)
+    {
+        this.threads = Math.max(1, threads);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (executor != null)
+        {
+            executor.shutdown();
+            executor = null;
+        }
+        if (loader != null)
+        {
+            try
+            {
+                loader.close();
+            }
+            catch (Exception e)
+            {
+                warning(e, "Unable to close PlantUML class loader");
+            }
+            loader = null;
+        }
+    }
+
+    @Override
+    public void render(List<RenderJob> jobs)
+    {
+        // Load PlantUML if we haven't already,
+        if (!load())
+        {
+            return;
+        }
+
+        announce("Rendering $ SVG files in-process with PlantUML (https://plantuml.com) on $ threads...", jobs.size(), threads);
+        var start = System.nanoTime();
+
+        // submit a render task for each diagram,
+        var futures = new ArrayList<Future<Long>>();
+        for (var job : jobs)
+        {
+            futures.add(executor.submit(() -> metrics.measureWork(SVG_RENDERING, () ->
+                    Events.record(new SvgRenderEvent(job.project(), job.name()), null, () -> render(job)))));
+        }
+
+        // then wait for the tasks in order, reporting the time taken to render each diagram.
+        long slowest = 0;
+        String slowestName = null;
+        for (int i = 0; i < futures.size(); i++)
+        {
+            var job = jobs.get(i);
+            try
+            {
+                var nanoseconds = futures.get(i).get();
+                narrate("Rendered $ in $ ms", job.name(), Duration.ofNanos(nanoseconds).toMillis());
+                if (nanoseconds > slowest)
+                {
+                    slowest = nanoseconds;
+                    slowestName = job.name();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                problem("Interrupted while rendering $", job.svg());
+                return;
+            }
+            catch (ExecutionException e)
+            {
+                problem(e.getCause(), "Unable to render $", job.svg());
+            }
+        }
+
+        var elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        announce("Rendered $ SVG files in $ ms (slowest was $ at $ ms)", jobs.size(), elapsed,
+                slowestName, Duration.ofNanos(slowest).toMillis());
+    }
+
+    /**
+     * Loads PlantUML on an isolated class loader, if it hasn't already been loaded
+     *
+     * @return True if PlantUML is loaded
+     */
+    private synchronized boolean load()
+    {
+        if (loader == null)
+        {
+            try
+            {
+                // Copy the embedded plantuml.jar to a temporary file,
+                var jar = Files.createTempFile("lexakai-plantuml-", ".jar");
+                jar.toFile().deleteOnExit();
+                try (var in = PackageResource.packageResource(this, Lexakai.class, "plantuml.jar").openForReading())
+                {
+                    Files.copy(in, jar, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                // load it on a class loader that can't see Lexakai's dependencies,
+                loader = new URLClassLoader("plantuml", new URL[] { jar.toUri().toURL() }, ClassLoader.getPlatformClassLoader());
+
+                // look up the PlantUML API that we need,
+                var readerClass = loader.loadClass("net.sourceforge.plantuml.SourceStringReader");
+                var formatClass = loader.loadClass("net.sourceforge.plantuml.FileFormat");
+                var formatOptionClass = loader.loadClass("net.sourceforge.plantuml.FileFormatOption");
+                newReader = readerClass.getConstructor(String.class);
+                newFormatOption = formatOptionClass.getConstructor(formatClass);
+                svgFormat = formatClass.getField("SVG").get(null);
+                outputImage = readerClass.getMethod("outputImage", OutputStream.class, formatOptionClass);
+
+                // and create threads to render on, using PlantUML's class loader as their context class loader.
+                var number = new AtomicInteger();
+                executor = Executors.newFixedThreadPool(threads, runnable ->
+                {
+                    var thread = new Thread(runnable, "lexakai-renderer-" + number.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setContextClassLoader(loader);
+                    return thread;
+                });
+            }
+            catch (Exception e)
+            {
+                problem(e, "Unable to load PlantUML");
+                close();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Renders the given diagram to its SVG file
+     *
+     * @return The time taken in nanoseconds
+     * @throws IllegalStateException If the diagram could not be rendered
+     */
+    private long render(RenderJob job)
+    {
+        var start = System.nanoTime();
+        try
+        {
+            // Render the diagram to SVG in memory,
+            var reader = newReader.newInstance(job.inlinedUml());
+            var svg = new ByteArrayOutputStream();
+            outputImage.invoke(reader, svg, newFormatOption.newInstance(svgFormat));
+
+            // then write it to the SVG file.
+            Files.write(job.svg().asJavaFile().toPath(), svg.toByteArray());
+        }
+        catch (InvocationTargetException e)
+        {
+            throw new IllegalStateException("PlantUML failed", e.getCause());
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException(e);
+        }
+
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,111 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.rendering;
+
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.lexakai.library.OutputFiles;
+
+/**
+ * A diagram to render to SVG, with its UML text and the .puml file it was saved to. Renderers that can work from the
+ * UML text don't need to read the .puml file back.
+ *
+ * @author jonathanl (shibo)
+ */
+public class RenderJob
+{
+    /** The name of the project the diagram is for */
+    private final String project;
+
+    /** The .puml file */
+    private final File puml;
+
+    /** The .svg file to produce */
+    private final File svg;
+
+    /** The UML text in the .puml file */
+    private final String uml;
+
+    public RenderJob(String project, File puml, String uml)
+    {
+        this.project = project;
+        this.puml = puml;
+        this.uml = uml;
+        this.svg = OutputFiles.svgFile(puml);
+    }
+
+    /**
+     * Returns the UML text with any <i>!include</i> directives for files in the diagram's folder, like
+     * <i>lexakai.theme</i>, replaced by the contents of those files
+     */
+    public String inlinedUml()
+    {
+        var folder = puml.parent();
+        var inlined = new StringBuilder(uml.length() * 2);
+        for (var line : uml.split("\\R", -1))
+        {
+            var trimmed = line.trim();
+            if (trimmed.startsWith("!include ") && folder != null)
+            {
+                var included = folder.file(trimmed.substring("!include ".length()).trim());
+                if (included.exists())
+                {
+                    inlined.append(included.reader().asString()).append('\n');
+                    continue;
+                }
+            }
+            inlined.append(line).append('\n');
+        }
+        return inlined.toString();
+    }
+
+    /**
+     * Returns the name of the diagram, without extension
+     */
+    public String name()
+    {
+        var name = puml.fileName().name();
+        return name.endsWith(".puml") ? name.substring(0, name.length() - ".puml".length()) : name;
+    }
+
+    public String project()
+    {
+        return project;
+    }
+
+    public File puml()
+    {
+        return puml;
+    }
+
+    public File svg()
+    {
+        return svg;
+    }
+
+    @Override
+    public String toString()
+    {
+        return puml.toString();
+    }
+
+    public String uml()
+    {
+        return uml;
+    }
+}
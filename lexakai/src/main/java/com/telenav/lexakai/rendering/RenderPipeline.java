@@ -0,0 +1,169 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.rendering;
+
+import com.telenav.kivakit.component.BaseComponent;
+import com.telenav.lexakai.metrics.RunMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.telenav.lexakai.metrics.Phase.SVG_RENDERING;
+
+/**
+ * Renders diagrams on a background thread as they are submitted, so rendering overlaps with parsing and diagram
+ * generation instead of waiting for them to finish.
+ *
+ * <p><b>Queueing</b></p>
+ *
+ * <p>
+ * Diagrams submitted with {@link #submit(RenderJob)} go into a bounded queue. If the queue is full, because rendering
+ * has fallen behind, the submitter waits, so the number of diagrams held in memory is limited. The render thread
+ * takes all the diagrams that are waiting in the queue and passes them to the {@link Renderer} as a batch, so the
+ * renderer can work on them in parallel. Diagrams can be submitted from any thread.
+ * </p>
+ *
+ * <p><b>Finishing</b></p>
+ *
+ * <p>
+ * The {@link #finish()} method waits for all submitted diagrams to be rendered and stops the render thread. A
+ * pipeline can't be used after it is finished.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class RenderPipeline extends BaseComponent
+{
+    /** Marks the end of the queue */
+    private static final List<RenderJob> END = new ArrayList<>();
+
+    /** The measurements of the run */
+    private final RunMetrics metrics;
+
+    /** The renderer to pass batches of diagrams to */
+    private final Renderer renderer;
+
+    /** Diagrams waiting to be rendered */
+    private final BlockingQueue<List<RenderJob>> queue;
+
+    /** The thread that renders diagrams */
+    private final Thread thread;
+
+    /** The number of diagrams submitted */
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    /**
+     * @param renderer The renderer to use
+     * @param capacity The maximum number of diagrams waiting to be rendered
+     * @param metrics The measurements of the run, which rendering time is added to
+     */
+    public RenderPipeline(Renderer renderer, int capacity, RunMetrics metrics)
+    {
+        this.renderer = renderer;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.thread = new Thread(this::run, "lexakai-render-pipeline");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for all submitted diagrams to be rendered, then stops the render thread
+     */
+    public void finish()
+    {
+        try
+        {
+            queue.put(END);
+            thread.join();
+            narrate("Rendered $ diagrams in the pipeline", submitted.get());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            problem("Interrupted while waiting for diagrams to render");
+        }
+    }
+
+    /**
+     * Adds the given diagram to the queue to be rendered, waiting if the queue is full
+     */
+    public void submit(RenderJob job)
+    {
+        try
+        {
+            queue.put(List.of(job));
+            submitted.incrementAndGet();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            problem("Interrupted while queueing $", job);
+        }
+    }
+
+    /**
+     * Renders batches of diagrams from the queue until the end of the queue is reached
+     */
+    private void run()
+    {
+        var waiting = new ArrayList<List<RenderJob>>();
+        var end = false;
+        while (!end)
+        {
+            try
+            {
+                // Wait for a diagram, then take any others that are waiting,
+                waiting.add(queue.take());
+                queue.drainTo(waiting);
+
+                // combine them into a batch, stopping at the end of the queue,
+                var batch = new ArrayList<RenderJob>();
+                for (var jobs : waiting)
+                {
+                    if (jobs == END)
+                    {
+                        end = true;
+                    }
+                    batch.addAll(jobs);
+                }
+                waiting.clear();
+
+                // and render the batch.
+                if (!batch.isEmpty())
+                {
+                    metrics.measure(SVG_RENDERING, () -> renderer.render(batch));
+                    metrics.count(SVG_RENDERING, batch.size());
+                }
+            }
+            catch (InterruptedException e)
+            {
+                problem("Render pipeline was interrupted");
+                return;
+            }
+            catch (RuntimeException e)
+            {
+                problem(e, "Unable to render diagrams");
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.rendering;
+
+import java.util.List;
+
+/**
+ * Renders diagrams to SVG files with PlantUML.
+ *
+ * <ul>
+ *     <li>{@link ForkedRenderer} - Renders diagrams in a child process</li>
+ *     <li>{@link InProcessRenderer} - Renders diagrams in this process</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+public interface Renderer
+{
+    /**
+     * The kinds of renderer
+     */
+    enum Type
+    {
+        FORKED,
+        IN_PROCESS
+    }
+
+    /**
+     * Releases any resources held by this renderer
+     */
+    default void close()
+    {
+    }
+
+    /**
+     * Renders the given diagrams to SVG files, returning when all have been rendered
+     */
+    void render(List<RenderJob> jobs);
+}
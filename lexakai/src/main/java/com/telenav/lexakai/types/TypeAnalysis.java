@@ -0,0 +1,248 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.types;
+
+import com.telenav.lexakai.LexakaiClassDiagram;
+import com.telenav.lexakai.builders.grouper.MethodGrouper;
+import com.telenav.lexakai.builders.grouper.MethodGroups;
+import com.telenav.lexakai.members.UmlMethod;
+import com.telenav.lexakai.metrics.events.Events;
+import com.telenav.lexakai.metrics.events.MethodGroupingEvent;
+import com.telenav.lexakai.model.AssociationModel;
+import com.telenav.lexakai.model.MethodModel;
+import com.telenav.lexakai.model.TypeModel;
+import com.telenav.lexakai.model.TypeReference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.telenav.lexakai.associations.UmlAssociation.AssociationType.RELATION;
+import static com.telenav.lexakai.metrics.Phase.METHOD_GROUPING;
+
+/**
+ * The work on a type that doesn't depend on the diagram it is shown in, done once and shared by the {@link UmlType}s
+ * of the type in every diagram that includes it.
+ *
+ * <p><b>Variants</b></p>
+ *
+ * <p>
+ * The methods of a type that a diagram includes only depend on the diagram through
+ * {@link LexakaiClassDiagram#includeOverrides(TypeModel)}, so there are at most two variants of the included methods,
+ * their {@link UmlMethod}s, their method groups and the associations they could have. Each variant is computed the
+ * first time a diagram asks for it.
+ * </p>
+ *
+ * <p><b>Diagram Filters</b></p>
+ *
+ * <p>
+ * Whatever does depend on the diagram is still applied by each diagram: whether members are shown at all, whether an
+ * association is limited to another diagram, and which end of an association is in the diagram.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+public class TypeAnalysis
+{
+    /** The type */
+    private final TypeModel type;
+
+    /** The associations that the type's fields could have, or null if they haven't been found */
+    private List<AssociationCandidate> fieldAssociations;
+
+    /** The variants of the included methods, without and with overrides */
+    private final Methods[] variants = new Methods[2];
+
+    public TypeAnalysis(TypeModel type)
+    {
+        this.type = type;
+    }
+
+    /**
+     * Returns the associations that the fields of the type could have, in field order
+     */
+    public synchronized List<AssociationCandidate> fieldAssociations()
+    {
+        if (fieldAssociations == null)
+        {
+            // For each field with an association that isn't ignored or a non-reference,
+            var candidates = new ArrayList<AssociationCandidate>();
+            type.fields().forEach(field ->
+            {
+                if (!field.isExcluded() && field.type().isReference())
+                {
+                    // add the association as a candidate.
+                    candidates.add(new AssociationCandidate(field.association().diagram(), field.association(), null, field.type()));
+                }
+            });
+            fieldAssociations = Collections.unmodifiableList(candidates);
+        }
+        return fieldAssociations;
+    }
+
+    /**
+     * Returns the methods of the type that the given diagram includes, including any that are excluded from all
+     * diagrams
+     */
+    public List<MethodModel> includedMethods(LexakaiClassDiagram diagram)
+    {
+        return variant(diagram).included;
+    }
+
+    /**
+     * Returns the associations that the methods the given diagram includes could have, in method order
+     */
+    public synchronized List<AssociationCandidate> methodAssociations(LexakaiClassDiagram diagram)
+    {
+        var variant = variant(diagram);
+        if (variant.associations == null)
+        {
+            // For each included method,
+            var candidates = new ArrayList<AssociationCandidate>();
+            for (var method : variant.included)
+            {
+                // get any relation, if the method isn't ignored or a non-reference,
+                var returnType = method.returnType();
+                var relation = method.relation();
+                var association = !method.isExcluded() && returnType.isReference() ? relation : null;
+
+                // and any association that can be deduced from the method name,
+                AssociationModel deduced = null;
+                if (method.name().toLowerCase().matches("(build[A-Z]?\\w+|create[A-Z]\\w+|new[A-Z]\\w+)"))
+                {
+                    deduced = new AssociationModel(RELATION, null, relation == null ? null : relation.referent(), "1", "1", "creates");
+                }
+
+                // and if there is either, add a candidate.
+                if (association != null || deduced != null)
+                {
+                    candidates.add(new AssociationCandidate(method.diagram(), association, deduced, returnType));
+                }
+            }
+            variant.associations = Collections.unmodifiableList(candidates);
+        }
+        return variant.associations;
+    }
+
+    /**
+     * Returns the groups of the methods that the given type's diagram includes
+     */
+    public synchronized MethodGroups methodGroups(UmlType type)
+    {
+        var variant = variant(type.diagram());
+        if (variant.groups == null)
+        {
+            // Group the methods,
+            var metrics = type.diagram().project().lexakai().metrics();
+            var groups = metrics.measure(METHOD_GROUPING, () ->
+                    Events.record(new MethodGroupingEvent(), type::toString, () -> new MethodGrouper(type).groups()));
+            metrics.count(METHOD_GROUPING, 1);
+
+            // and create the static and none groups now, so the groups aren't changed while they are shared.
+            groups.staticMethods();
+            groups.none();
+            variant.groups = groups;
+        }
+        return variant.groups;
+    }
+
+    /**
+     * Returns the methods of the type that the given diagram includes, without any that are excluded from all
+     * diagrams
+     */
+    public List<UmlMethod> methods(LexakaiClassDiagram diagram)
+    {
+        return variant(diagram).methods;
+    }
+
+    /**
+     * An association that a field or method of a type could have. Whether it is shown in a diagram and what it points
+     * to depends on the diagram.
+     *
+     * @param diagram The diagram that the association is limited to, or null if it can be in any diagram
+     * @param association The association, or null if there is none
+     * @param fallback The association to use if there is no association, or if it doesn't point to an object in the
+     * diagram, or null if there is none
+     * @param referentType The type of the field or the return type of the method
+     * @author jonathanl (shibo)
+     */
+    public record AssociationCandidate(String diagram,
+                                       AssociationModel association,
+                                       AssociationModel fallback,
+                                       TypeReference referentType)
+    {
+        /**
+         * Returns true if this association can be shown in the diagram with the given name
+         */
+        public boolean isIn(String diagramName)
+        {
+            return diagram == null || diagram.equals(diagramName);
+        }
+    }
+
+    /**
+     * Returns the variant of the included methods for the given diagram, computing it if it hasn't been yet
+     */
+    private synchronized Methods variant(LexakaiClassDiagram diagram)
+    {
+        var index = diagram.includeOverrides(type) ? 1 : 0;
+        if (variants[index] == null)
+        {
+            // Get the included methods,
+            var included = diagram.includedMethods(type);
+
+            // and the methods to show, which are those that are not excluded from all diagrams.
+            var methods = new ArrayList<UmlMethod>();
+            for (var method : included)
+            {
+                var umlMethod = new UmlMethod(type, method);
+                if (!umlMethod.isExcluded())
+                {
+                    methods.add(umlMethod);
+                }
+            }
+            variants[index] = new Methods(Collections.unmodifiableList(included), Collections.unmodifiableList(methods));
+        }
+        return variants[index];
+    }
+
+    /**
+     * A variant of the methods that diagrams include, and what is computed from them
+     */
+    private static class Methods
+    {
+        /** The included methods */
+        final List<MethodModel> included;
+
+        /** The included methods that are not excluded from all diagrams */
+        final List<UmlMethod> methods;
+
+        /** The candidate associations of the included methods, or null if they haven't been found */
+        List<AssociationCandidate> associations;
+
+        /** The groups of the methods, or null if they haven't been grouped */
+        MethodGroups groups;
+
+        Methods(List<MethodModel> included, List<UmlMethod> methods)
+        {
+            this.included = included;
+            this.methods = methods;
+        }
+    }
+}
@@ -18,23 +18,23 @@
 
 package com.telenav.lexakai.types;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
 import com.telenav.kivakit.core.string.IndentingStringBuilder;
 import com.telenav.lexakai.LexakaiClassDiagram;
-import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.lexakai.builders.MethodBuilder;
 import com.telenav.lexakai.builders.TypeBuilder;
-import com.telenav.lexakai.library.Annotations;
-import com.telenav.lexakai.library.Names;
+import com.telenav.lexakai.builders.grouper.MethodGroups;
 import com.telenav.lexakai.library.Names.Qualification;
 import com.telenav.lexakai.library.Names.TypeParameters;
 import com.telenav.lexakai.members.UmlMethod;
+import com.telenav.lexakai.model.TypeModel;
+import com.telenav.lexakai.model.TypeModel.Kind;
+import com.telenav.lexakai.metrics.events.Events;
+import com.telenav.lexakai.metrics.events.TypeUmlEvent;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 import static com.telenav.lexakai.library.Names.Qualification.QUALIFIED;
 import static com.telenav.lexakai.library.Names.Qualification.UNQUALIFIED;
@@ -48,11 +48,14 @@ import static com.telenav.lexakai.library.Names.TypeParameters.WITH_TYPE_PARAMET
  */
 public class UmlType
 {
+    /** The analysis of the type shared by every diagram that includes it */
+    private final TypeAnalysis analysis;
+
     /** The particular diagram that this type belongs to */
     private final LexakaiClassDiagram diagram;
 
-    /** The type if this is a class or interface */
-    private final TypeDeclaration<?> type;
+    /** The model of the type */
+    private final TypeModel type;
 
     /** The UML for this type */
     private String uml;
@@ -60,21 +63,29 @@ public class UmlType
     /**
      * Constructor for classes an interfaces
      */
-    public UmlType(LexakaiClassDiagram diagram, TypeDeclaration<?> type)
+    public UmlType(LexakaiClassDiagram diagram, TypeModel type)
+    {
+        this(diagram, type, new TypeAnalysis(type));
+    }
+
+    /**
+     * Constructor for a type whose analysis is shared with the other diagrams that include it
+     */
+    public UmlType(LexakaiClassDiagram diagram, TypeModel type, TypeAnalysis analysis)
     {
         this.diagram = diagram;
         this.type = type;
+        this.analysis = analysis;
     }
 
-    public LexakaiClassDiagram diagram()
+    public TypeAnalysis analysis()
     {
-        return diagram;
+        return analysis;
     }
 
-    public Set<String> documentationSections()
+    public LexakaiClassDiagram diagram()
     {
-        var expression = type.getAnnotationByClass(UmlClassDiagram.class);
-        return expression.map(annotation -> Annotations.stringValues(annotation, "documentationSections")).orElseGet(Set::of);
+        return diagram;
     }
 
     @Override
@@ -95,28 +106,25 @@ public class UmlType
 
     public List<UmlMethod> includedMethods()
     {
-        // For each included method,
-        var methods = new ArrayList<UmlMethod>();
-        diagram.includedMethods(type, at ->
-        {
-            // if the method is not excluded,
-            var method = new UmlMethod(type.asClassOrInterfaceDeclaration(), at);
-            if (!method.isExcluded())
-            {
-                methods.add(method);
-            }
-        });
-        return methods;
+        return analysis.methods(diagram);
+    }
+
+    /**
+     * Returns the groups of the methods that this type's diagram includes
+     */
+    public MethodGroups methodGroups()
+    {
+        return analysis.methodGroups(this);
     }
 
     public String name(Qualification qualification, TypeParameters parameters)
     {
-        return Names.name(type, qualification, parameters);
+        return type.name(qualification, parameters);
     }
 
     public String simpleName()
     {
-        return Names.simpleName(type);
+        return type.simpleName();
     }
 
     @Override
@@ -125,7 +133,7 @@ public class UmlType
         return name(QUALIFIED, WITH_TYPE_PARAMETERS);
     }
 
-    public TypeDeclaration<?> type()
+    public TypeModel type()
     {
         return type;
     }
@@ -135,76 +143,84 @@ public class UmlType
      */
     public String uml()
     {
-        if (uml == null && !Annotations.shouldExcludeType(type))
+        if (uml == null && !type.annotations().isExcluded())
         {
-            // Create a string builder,
-            var builder = IndentingStringBuilder.defaultTextIndenter();
+            uml = Events.record(new TypeUmlEvent(), this::toString, this::buildUml);
+        }
 
-            if (type.isClassOrInterfaceDeclaration())
-            {
-                // add the type declaration,
-                new TypeBuilder(diagram, type).addTypeDeclaration(builder);
+        return uml;
+    }
 
-                // add open curly,
-                builder.appendLine("{");
-                builder.indent();
+    /**
+     * Builds the UML for this type
+     */
+    private String buildUml()
+    {
+        // Create a string builder,
+        var builder = IndentingStringBuilder.defaultTextIndenter();
 
-                // add method declarations,
-                new MethodBuilder(diagram, type).addMethodDeclarations(builder);
+        if (type.isClassOrInterface())
+        {
+            // add the type declaration,
+            new TypeBuilder(this).addTypeDeclaration(builder);
 
-                // add close curly
-                builder.unindent();
-                builder.appendLine("}");
-                builder.appendLine("");
-            }
+            // add open curly,
+            builder.appendLine("{");
+            builder.indent();
+
+            // add method declarations,
+            new MethodBuilder(this).addMethodDeclarations(builder);
+
+            // add close curly
+            builder.unindent();
+            builder.appendLine("}");
+            builder.appendLine("");
+        }
+
+        if (type.kind() == Kind.ENUM)
+        {
+            // add the enum declaration,
+            builder.appendLine("enum " + name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS));
 
-            if (type.isEnumDeclaration())
+            // add open curly,
+            builder.appendLine("{");
+            builder.indent();
+
+            // add enum entries,
+            var sorted = new ArrayList<>(type.enumConstants());
+            sorted.sort(Comparator.naturalOrder());
+            for (var entry : sorted)
             {
-                // add the enum declaration,
-                builder.appendLine("enum " + Names.name(type, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS));
+                builder.appendLine(entry);
+            }
+
+            // add close curly,
+            builder.unindent();
+            builder.appendLine("}");
+            builder.appendLine("");
+        }
 
+        if (type.kind() == Kind.ANNOTATION)
+        {
+            // add the annotation declaration,
+            builder.appendLine("annotation " + name(UNQUALIFIED, WITHOUT_TYPE_PARAMETERS));
+            if (!analysis.includedMethods(diagram).isEmpty())
+            {
                 // add open curly,
                 builder.appendLine("{");
                 builder.indent();
 
-                // add enum entries,
-                var sorted = new ArrayList<>(type.asEnumDeclaration().getEntries());
-                sorted.sort(Comparator.comparing(value -> value.getName().asString()));
-                for (var entry : sorted)
-                {
-                    builder.appendLine(entry.getName().asString());
-                }
+                // add method declarations,
+                new MethodBuilder(this).addMethodDeclarations(builder);
 
                 // add close curly,
                 builder.unindent();
                 builder.appendLine("}");
-                builder.appendLine("");
-            }
-
-            if (type.isAnnotationDeclaration())
-            {
-                // add the annotation declaration,
-                builder.appendLine("annotation " + Names.name(type, UNQUALIFIED, WITHOUT_TYPE_PARAMETERS));
-                if (!diagram.includedMethods(type).isEmpty())
-                {
-                    // add open curly,
-                    builder.appendLine("{");
-                    builder.indent();
-
-                    // add method declarations,
-                    new MethodBuilder(diagram, type).addMethodDeclarations(builder);
-
-                    // add close curly,
-                    builder.unindent();
-                    builder.appendLine("}");
-                }
-                builder.appendLine("");
             }
-
-            // and form UML string.
-            uml = builder.toString();
+            builder.appendLine("");
         }
 
-        return uml;
+        // and form UML string.
+        return builder.toString();
     }
 }
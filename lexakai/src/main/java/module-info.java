@@ -10,5 +10,10 @@ open module lexakai
     requires com.github.javaparser.core;
     requires com.github.javaparser.symbolsolver.core;
 
+    // Run metrics
+    requires java.management;
+    requires jdk.management;
+    requires jdk.jfr;
+
     exports com.telenav.lexakai;
 }
@@ -0,0 +1,82 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.lexakai.dependencies;
+
+import com.telenav.kivakit.filesystem.Folder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that {@link MavenDependencyTreeBuilder} reads the trees in the TGF output of <i>mvn dependency:tree</i>, as
+ * headed by both older and newer versions of Maven
+ *
+ * @author jonathanl (shibo)
+ */
+public class MavenDependencyTreeBuilderTest
+{
+    @TempDir
+    Path root;
+
+    @Test
+    public void testDependencyHeader() throws IOException
+    {
+        assertTree("--- dependency:3.6.0:tree (default-cli) @ demo ---");
+    }
+
+    @Test
+    public void testMavenDependencyPluginHeader() throws IOException
+    {
+        assertTree("--- maven-dependency-plugin:3.1.2:tree (default-cli) @ demo ---");
+    }
+
+    private void assertTree(String header) throws IOException
+    {
+        // Write the pom of the project, so its folder can be found,
+        Files.writeString(root.resolve("pom.xml"), "<project><artifactId>demo</artifactId></project>");
+
+        // then read the tree of the project from output with the given header,
+        var output = String.join("\n",
+                "[INFO] " + header,
+                "[INFO] 1 com.example:demo:jar:1.0",
+                "[INFO] 2 com.example:library:jar:2.0:compile",
+                "[INFO] 3 org.example:helper:jar:3.0:compile",
+                "[INFO] #",
+                "[INFO] 1 2 compile",
+                "[INFO] 2 3 compile",
+                "[INFO] ------------------------------------------------------------------------",
+                "[INFO] BUILD SUCCESS");
+        var trees = new MavenDependencyTreeBuilder(Folder.folder(root)).trees(output);
+
+        // and check that it has every artifact and dependency.
+        assertEquals(1, trees.size());
+        var tree = trees.iterator().next();
+        assertEquals("demo", tree.artifactId());
+        assertEquals(3, tree.artifacts().size());
+        assertEquals(2, tree.dependencies().size());
+        assertEquals(List.of("com.example:library:2.0", "org.example:helper:3.0"),
+                tree.dependencyOrder().stream().map(Artifact::toString).toList());
+    }
+}